@@ -0,0 +1,31 @@
+#!/bin/sh
+# Cold-start benchmark: time from JVM start to the first rendered home scene.
+# Build first with `mvn -Pappcds package`, then run from the project folder:
+#   sh scripts/startup-benchmark.sh [runs]
+# Each mode (without / with the AppCDS archive) is launched `runs` times (default 10);
+# the median, min and max are printed and appended to startup-history.csv.
+RUNS=${1:-10}
+LAUNCHER=target/cssms
+HISTORY=${STARTUP_HISTORY:-startup-history.csv}
+
+if [ ! -f "$LAUNCHER" ] || [ ! -f target/app.jsa ]; then
+    echo "Missing $LAUNCHER or target/app.jsa; run: mvn -Pappcds package" >&2
+    exit 1
+fi
+
+REV=$(git rev-parse --short HEAD 2>/dev/null || echo unknown)
+[ -f "$HISTORY" ] || echo "date,revision,appcds,runs,median_ms,min_ms,max_ms" > "$HISTORY"
+
+for MODE in off on; do
+    TIMES=$(i=0; while [ $i -lt "$RUNS" ]; do
+        CSSMS_CDS=$MODE JAVA_OPTS="-Dapp.startupReport=true -Dapp.exitAfterStartup=true" \
+            sh "$LAUNCHER" 2>/dev/null | sed -n 's/^startup\.firstSceneMillis=//p'
+        i=$((i + 1))
+    done | sort -n)
+    STATS=$(echo "$TIMES" | awk 'NF { a[++n] = $1 }
+        END { if (n == 0) exit 1
+              m = (n % 2) ? a[(n + 1) / 2] : (a[n / 2] + a[n / 2 + 1]) / 2
+              printf "%d,%d,%d,%d", n, m, a[1], a[n] }') || { echo "appcds=$MODE: no runs reported a time" >&2; exit 1; }
+    echo "$(date -u +%Y-%m-%dT%H:%M:%SZ),$REV,$MODE,$STATS" >> "$HISTORY"
+    echo "appcds=$MODE  runs,median,min,max (ms) = $STATS"
+done
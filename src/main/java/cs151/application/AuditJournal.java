@@ -0,0 +1,263 @@
+package cs151.application;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Durable audit trail of student changes (audit.jsonl next to Students.csv),
+ * written as a {@link StudentEvents} consumer: one JSON object per event,
+ * with before/after in the same shape as the JSON Lines export. Only changes
+ * made by this process are written; external ones (another process's writes,
+ * seen through DataFileWatcher) are left to the process that made them.
+ *
+ * Every line ends with a newline once it is complete, so a crash in the middle
+ * of an append leaves at most one torn line at the end. Appends hold a lock on
+ * the file, number their events after the last one in it and cut such a line
+ * off first; readers take no lock and skip any line that does not parse (an
+ * append in progress included), so they never change the file.
+ * A batch that cannot be written is kept and written with the next one; it is
+ * reported on stderr, never silently dropped.
+ *
+ * Example line:
+ * {"seq":7,"type":"update","time":"2025-11-12T18:03:11Z","before":{...},"after":{...}}
+ */
+public final class AuditJournal {
+
+    public static final Path FILE = AppFiles.BASE_DIR.resolve("audit.jsonl");
+
+    /** Tries per batch before it is put aside for the next one. */
+    private static final int ATTEMPTS = 4;
+
+    private static StudentEvents.Subscription subscription;
+    private static final List<StudentEvent> unwritten = new ArrayList<>(); // only touched by the writing thread
+
+    private AuditJournal() {}
+
+    /**
+     * Start journaling this process's changes. Only processes that write
+     * student data call this (the app, and the Cli commands that change rows);
+     * the others never open the file for writing.
+     */
+    public static synchronized void start() {
+        if (subscription != null) return;
+        subscription = StudentEvents.subscribe("audit", AuditJournal::write);
+    }
+
+    /** Write out anything still queued and stop (call before the process exits). */
+    public static synchronized void stop() {
+        if (subscription == null) return;
+        subscription.close(); // the writing thread has finished
+        subscription = null;
+        if (unwritten.isEmpty()) return;
+        try {
+            append(FILE, unwritten);
+            unwritten.clear();
+        } catch (IOException e) {
+            System.err.println("Audit journal: " + unwritten.size() + " event(s) could not be written to " + FILE
+                    + " and are lost: " + e);
+        }
+    }
+
+    /**
+     * Append one batch (after any earlier batch that could not be written) and
+     * force it to disk before taking the next. Retries a few times; if the file
+     * still cannot be written, the events wait for the next batch.
+     */
+    private static void write(List<StudentEvent> batch) {
+        for (StudentEvent e : batch) if (!e.external()) unwritten.add(e); // the process that made it journals it
+        if (unwritten.isEmpty()) return;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                append(FILE, unwritten);
+                unwritten.clear();
+                return;
+            } catch (IOException e) {
+                Metrics.counter("audit.writeFailures").increment();
+                if (attempt == ATTEMPTS) {
+                    System.err.println("Audit journal: cannot write " + FILE + " (" + e + "); "
+                            + unwritten.size() + " event(s) kept for the next write.");
+                    return;
+                }
+                try {
+                    Thread.sleep(100L << attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Append the events as complete lines, numbered after the last event in the
+     * file. The file is locked while it is read and written, so processes
+     * journaling into one folder (the app and a Cli import) never reuse a seq,
+     * and a line left without its newline can only be a writer that died: it is
+     * cut off under the same lock. A failed write is cut back off too.
+     */
+    static void append(Path file, List<StudentEvent> events) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ch.lock(); // released when the channel closes
+            long size = cutTornTail(ch, file);
+            long seq = lastSeq(ch, size);
+            StringBuilder sb = new StringBuilder(events.size() * 512);
+            for (StudentEvent e : events) {
+                sb.append(toJson(new StudentEvent(++seq, e.type(), e.time(), e.before(), e.after()))).append('\n');
+            }
+            try {
+                ByteBuffer buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+                for (long pos = size; buf.hasRemaining(); ) pos += ch.write(buf, pos);
+                ch.force(false);
+            } catch (IOException e) {
+                try {
+                    ch.truncate(size);
+                } catch (IOException ignored) {
+                    // the next append cuts the torn tail off
+                }
+                throw e;
+            }
+        }
+    }
+
+    /** Cut off a last line without its newline, under the file lock a writer takes. */
+    static void repairTail(Path file) throws IOException {
+        if (!Files.exists(file)) return;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ch.lock();
+            cutTornTail(ch, file);
+        }
+    }
+
+    /** The caller holds the lock. Returns the size of the file with whole lines only. */
+    private static long cutTornTail(FileChannel ch, Path file) throws IOException {
+        long end = ch.size(), pos = end;
+        ByteBuffer one = ByteBuffer.allocate(8192);
+        while (pos > 0) {
+            int n = (int) Math.min(one.capacity(), pos);
+            one.clear().limit(n);
+            readFully(ch, one, pos - n);
+            int i = n - 1;
+            while (i >= 0 && one.get(i) != '\n') i--;
+            if (i >= 0) {
+                pos = pos - n + i + 1;
+                break;
+            }
+            pos -= n;
+        }
+        if (pos < end) {
+            System.err.println("Audit journal: dropping " + (end - pos) + " byte(s) of an unfinished line at the end of " + file);
+            ch.truncate(pos);
+            ch.force(false);
+        }
+        return pos;
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer b, long at) throws IOException {
+        while (b.hasRemaining()) {
+            int n = ch.read(b, at + b.position());
+            if (n < 0) throw new EOFException("audit journal shrank while being read");
+        }
+    }
+
+    static String toJson(StudentEvent e) {
+        StringBuilder sb = new StringBuilder(512);
+        sb.append("{\"seq\":").append(e.seq())
+                .append(",\"type\":").append(Json.quote(e.type().name().toLowerCase()))
+                .append(",\"time\":").append(Json.quote(e.time().toString()))
+                .append(",\"before\":").append(e.before() == null ? "null" : Json.student(e.before()))
+                .append(",\"after\":").append(e.after() == null ? "null" : Json.student(e.after()));
+        return sb.append('}').toString();
+    }
+
+    static StudentEvent fromJson(String line) {
+        Map<?, ?> m = (Map<?, ?>) Json.parse(line);
+        return new StudentEvent(
+                ((Number) m.get("seq")).longValue(),
+                StudentEvent.Type.valueOf(((String) m.get("type")).toUpperCase()),
+                Instant.parse((String) m.get("time")),
+                m.get("before") instanceof Map<?, ?> b ? Json.row(b) : null,
+                m.get("after") instanceof Map<?, ?> a ? Json.row(a) : null);
+    }
+
+    /**
+     * Hand every journaled event with seq >= fromSeq to the handler, oldest first.
+     * Returns the number replayed.
+     */
+    public static long replay(long fromSeq, Consumer<StudentEvent> handler) throws IOException {
+        return replay(FILE, fromSeq, handler);
+    }
+
+    /** Damaged lines (a torn tail, a hand edit) are skipped and counted on stderr. */
+    static long replay(Path file, long fromSeq, Consumer<StudentEvent> handler) throws IOException {
+        if (!Files.exists(file)) return 0;
+        long n = 0, skipped = 0;
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank()) continue;
+                StudentEvent e = parse(line);
+                if (e == null) {
+                    skipped++;
+                    continue;
+                }
+                if (e.seq() < fromSeq) continue;
+                handler.accept(e);
+                n++;
+            }
+        }
+        if (skipped > 0) System.err.println("Audit journal: skipped " + skipped + " damaged line(s) in " + file);
+        return n;
+    }
+
+    /**
+     * Seq of the last event that parses (0 if none), read from the end of the
+     * file; a torn or damaged last line (an append still in progress, say) is
+     * stepped over.
+     */
+    static long lastSeq(Path file) throws IOException {
+        if (!Files.exists(file)) return 0;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            return lastSeq(ch, ch.size());
+        }
+    }
+
+    private static long lastSeq(FileChannel ch, long end) throws IOException {
+        int window = 4096;
+        while (true) {
+            long start = Math.max(0, end - window);
+            ByteBuffer buf = ByteBuffer.allocate((int) (end - start));
+            readFully(ch, buf, start);
+            String[] lines = new String(buf.array(), StandardCharsets.UTF_8).split("\n");
+            // lines[0] may be cut by the window unless it starts the file
+            for (int i = lines.length - 1; i >= (start == 0 ? 0 : 1); i--) {
+                if (lines[i].isBlank()) continue;
+                StudentEvent e = parse(lines[i]);
+                if (e != null) return e.seq();
+            }
+            if (start == 0) return 0;
+            window *= 2; // no whole, readable line in the window yet
+        }
+    }
+
+    /** The event on one line, or null if the line is damaged. */
+    private static StudentEvent parse(String line) {
+        try {
+            return fromJson(line);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
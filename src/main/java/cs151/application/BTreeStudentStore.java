@@ -0,0 +1,845 @@
+package cs151.application;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Students in one page file (Students.db) organized as a B+tree keyed by
+ * normalized full name, for -Dapp.store=btree.
+ *
+ * A lookup or update reads one page per tree level (through an LRU page cache)
+ * instead of the whole CSV, and writes back only the pages it changed. Leaves
+ * are chained, so a scan walks them in key order. Rows are stored in CSV form;
+ * long ones continue in overflow pages.
+ *
+ * Page 0 is the header; deletes leave leaves under-full rather than merging
+ * them (compact() rebuilds the file tightly). Names longer than a key holds
+ * are keyed by a prefix plus a SHA-256 of the whole name.
+ *
+ * Pages are rewritten in place, so every write is guarded by a rollback journal
+ * (Students.db-journal): before a page that the last committed header can reach
+ * is overwritten, its committed contents are appended to the journal and forced.
+ * A flush then writes the pages, forces them, writes the header last and forces
+ * it, and deletes the journal. Opening the file after a crash puts the journaled
+ * pages and header back, so the tree is always the last flushed one (the
+ * interrupted change is lost, never half applied). replaceAll and compact build
+ * a new file and move it into place.
+ *
+ * A store opened read-only (another cohort's folder, see {@link Workspace})
+ * never writes: it refuses a file that still has a journal next to it rather
+ * than rolling it back.
+ */
+final class BTreeStudentStore implements StudentStore {
+
+    static final int PAGE = 4096;
+    private static final int MAGIC = 0x53544442; // "STDB"
+    private static final int FORMAT = 1;
+    private static final int MAX_KEY = 255;      // bytes of normalized name
+    private static final int MAX_INLINE = 480;   // longer rows go to overflow pages
+    private static final byte FREE = 0, LEAF = 1, INNER = 2, OVERFLOW = 3;
+    private static final int OVERFLOW_DATA = PAGE - 7;
+    private static final int HEADER = 32;
+    private static final int JOURNAL_MAGIC = 0x53544a52; // "STJR"
+
+    private final Path file, journalFile;
+    private final int cachePages;
+    private FileChannel ch;
+    private final PageCache cache;
+    private int root, pageCount, freeHead;
+    private long rowCount;
+
+    // rollback journal: what the last flush left on disk, and what has been saved since
+    private byte[] committedHeader;
+    private int committedPages;
+    private FileChannel journal; // open while pages reachable from committedHeader are being overwritten
+    private final Set<Integer> journaled = new HashSet<>();
+
+    BTreeStudentStore(Path file, int cachePages) throws IOException {
+        this(file, cachePages, false);
+    }
+
+    /** readOnly opens an existing file for lookups and scans only; writing through it fails. */
+    BTreeStudentStore(Path file, int cachePages, boolean readOnly) throws IOException {
+        this.file = file;
+        this.journalFile = file.resolveSibling(file.getFileName() + "-journal");
+        this.cachePages = cachePages;
+        cache = new PageCache(cachePages);
+        if (readOnly) {
+            if (Files.exists(journalFile)) {
+                throw new IOException(file + " has an unfinished write (" + journalFile.getFileName()
+                        + "); open that folder as the data folder to recover it");
+            }
+            ch = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                readHeader();
+            } catch (IOException e) {
+                ch.close();
+                throw e;
+            }
+            return;
+        }
+        Files.createDirectories(file.getParent());
+        ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (Files.exists(journalFile)) rollback();
+        if (ch.size() == 0) init();
+        else readHeader();
+    }
+
+    /** True if the file has no rows yet (e.g. just created). */
+    synchronized boolean isEmpty() {
+        return rowCount == 0;
+    }
+
+    /* ---------- StudentStore ---------- */
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (journal != null) journal.close(); // unflushed changes: rolled back on the next open
+        ch.close();
+    }
+
+    @Override
+    public synchronized boolean exists(String fullName) throws IOException {
+        return find(key(fullName)) != null;
+    }
+
+    @Override
+    public synchronized String[] get(String fullName) throws IOException {
+        byte[] ref = find(key(fullName));
+        return ref == null ? null : decode(readValue(ref));
+    }
+
+    @Override
+    public synchronized void append(String[] row) throws IOException {
+        put(row);
+        flush();
+    }
+
+    @Override
+    public synchronized void appendAll(List<String[]> rows) throws IOException {
+        for (String[] r : rows) put(r);
+        flush();
+    }
+
+    @Override
+    public synchronized String[] update(String originalFullName, String[] row) throws IOException {
+        String[] before = replaceRow(originalFullName, row);
+        if (before != null) flush();
+        return before;
+    }
+
+    @Override
+    public synchronized String[] delete(String fullName) throws IOException {
+        String[] before = removeRow(fullName);
+        if (before != null) flush();
+        return before;
+    }
+
+    /** All changes go to the cached pages first; the changed pages are written once at the end. */
+    @Override
+    public synchronized List<String[]> applyAll(List<StudentStorage.Change> changes) throws IOException {
+        List<String[]> before = new ArrayList<>(changes.size());
+        for (StudentStorage.Change c : changes) {
+            if (c.fullName() == null) {
+                put(c.row());
+                before.add(null);
+            } else {
+                before.add(c.row() == null ? removeRow(c.fullName()) : replaceRow(c.fullName(), c.row()));
+            }
+        }
+        flush();
+        return before;
+    }
+
+    /** Rows in name order; progress is rows visited out of the row count. */
+    @Override
+    public synchronized void scan(StudentStorage.RowHandler handler, StudentStorage.ProgressHandler progress) throws IOException {
+        Node n = read(root);
+        while (!n.leaf) n = read(n.kids.get(0));
+        long done = 0;
+        while (true) {
+            for (byte[] ref : n.vals) {
+                handler.row(decode(readValue(ref)));
+                if (progress != null && (++done & 0xFFF) == 0) progress.progress(done, rowCount);
+            }
+            if (n.next == 0) break;
+            n = read(n.next);
+        }
+        if (progress != null) progress.progress(done, rowCount);
+    }
+
+    /** Written to a new file that replaces this one in a single move. */
+    @Override
+    public synchronized void replaceAll(List<String[]> rows) throws IOException {
+        Path tmp = Files.createTempFile(file.getParent(), "Students", ".db.tmp");
+        try {
+            try (BTreeStudentStore fresh = new BTreeStudentStore(tmp, cachePages)) {
+                fresh.appendAll(rows);
+            }
+            if (journal != null) journal.close();
+            journal = null;
+            journaled.clear();
+            Files.deleteIfExists(journalFile);
+            ch.close();
+            AppFiles.moveIntoPlace(tmp, file);
+        } finally {
+            Files.deleteIfExists(tmp);
+            if (!ch.isOpen()) {
+                ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                cache.clear();
+                readHeader();
+            }
+        }
+    }
+
+    /** Rebuild the file with full pages and no free space; keys are unique, so nothing is dropped. */
+    @Override
+    public synchronized int compact() throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        scan(rows::add, null);
+        replaceAll(rows);
+        return 0;
+    }
+
+    /**
+     * Walk the whole file: every page reached once and of the right kind, keys
+     * in order and inside their parent's range, leaves at one depth and chained
+     * left to right, overflow chains as long as their rows say, the header's
+     * row count, and every page either in use or on the free list.
+     */
+    @Override
+    public synchronized List<String> check() throws IOException {
+        Check c = new Check(pageCount);
+        checkNode(root, null, null, 0, c, "root");
+        for (int i = 0; i < c.leaves.size(); i++) {
+            Node leaf = c.leaves.get(i);
+            int expected = i + 1 < c.leaves.size() ? c.leaves.get(i + 1).page : 0;
+            if (leaf.next != expected)
+                c.problems.add("leaf page " + leaf.page + " links to page " + leaf.next + " instead of " + expected);
+        }
+        for (int page = freeHead; page != 0; ) {
+            if (!c.claim(page, "free list")) break;
+            ByteBuffer b = ByteBuffer.wrap(cache.get(page));
+            if (b.get() != FREE) {
+                c.problems.add("page " + page + " is on the free list but is not free");
+                break;
+            }
+            page = b.getInt();
+        }
+        if (c.rows != rowCount) c.problems.add("header counts " + rowCount + " rows, the leaves hold " + c.rows);
+        int lost = pageCount - 1 - c.used.size();
+        if (lost > 0) c.problems.add(lost + " page(s) are neither in the tree nor on the free list");
+        return c.problems;
+    }
+
+    /** What one {@link #check()} walk has seen so far. */
+    private static final class Check {
+        final int pageCount;
+        final List<String> problems = new ArrayList<>();
+        final Set<Integer> used = new HashSet<>();
+        final List<Node> leaves = new ArrayList<>();
+        int leafDepth = -1;
+        long rows;
+
+        Check(int pageCount) {
+            this.pageCount = pageCount;
+        }
+
+        /** Count a page as used by {@code what}; false (and a problem) if it is outside the file or used already. */
+        boolean claim(int page, String what) {
+            if (page <= 0 || page >= pageCount) {
+                problems.add(what + " points at page " + page + ", outside the file");
+                return false;
+            }
+            if (!used.add(page)) {
+                problems.add("page " + page + " is used twice (" + what + ")");
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /** Keys of the subtree must be >= lo and < hi (null: unbounded). */
+    private void checkNode(int page, byte[] lo, byte[] hi, int depth, Check c, String what) throws IOException {
+        if (!c.claim(page, what)) return;
+        byte[] data = cache.get(page);
+        if (data[0] != LEAF && data[0] != INNER) {
+            c.problems.add("page " + page + " (" + what + ") is not a tree page");
+            return;
+        }
+        Node n;
+        try {
+            n = Node.decode(page, data);
+        } catch (BufferUnderflowException e) {
+            c.problems.add("page " + page + " (" + what + ") is damaged");
+            return;
+        }
+        for (int i = 0; i < n.keys.size(); i++) {
+            byte[] k = n.keys.get(i);
+            if (i > 0 && Arrays.compareUnsigned(n.keys.get(i - 1), k) >= 0)
+                c.problems.add("page " + page + ": keys out of order at entry " + i);
+            if ((lo != null && Arrays.compareUnsigned(k, lo) < 0) || (hi != null && Arrays.compareUnsigned(k, hi) >= 0))
+                c.problems.add("page " + page + ": key at entry " + i + " is outside its parent's range");
+        }
+        if (n.leaf) {
+            if (c.leafDepth < 0) c.leafDepth = depth;
+            else if (depth != c.leafDepth)
+                c.problems.add("leaf page " + page + " is at depth " + depth + ", other leaves at " + c.leafDepth);
+            c.leaves.add(n);
+            c.rows += n.keys.size();
+            for (int i = 0; i < n.vals.size(); i++) checkValue(n.vals.get(i), c, "row " + i + " of leaf page " + page);
+        } else {
+            for (int i = 0; i < n.kids.size(); i++) {
+                checkNode(n.kids.get(i), i == 0 ? lo : n.keys.get(i - 1), i == n.keys.size() ? hi : n.keys.get(i),
+                        depth + 1, c, "child " + i + " of page " + page);
+            }
+        }
+    }
+
+    private void checkValue(byte[] ref, Check c, String what) throws IOException {
+        if (ref.length > 0 && ref[0] == 0) return;
+        if (ref.length != 9) {
+            c.problems.add(what + " has a damaged value reference");
+            return;
+        }
+        ByteBuffer r = ByteBuffer.wrap(ref, 1, 8);
+        int page = r.getInt(), length = r.getInt(), found = 0;
+        while (page != 0) {
+            if (!c.claim(page, what)) return;
+            ByteBuffer b = ByteBuffer.wrap(cache.get(page));
+            if (b.get() != OVERFLOW) {
+                c.problems.add("page " + page + " (" + what + ") is not an overflow page");
+                return;
+            }
+            page = b.getInt();
+            found += Short.toUnsignedInt(b.getShort());
+        }
+        if (found != length) c.problems.add(what + ": overflow pages hold " + found + " bytes, the row " + length);
+    }
+
+    /** update() without the flush. */
+    private String[] replaceRow(String originalFullName, String[] row) throws IOException {
+        byte[] from = key(originalFullName);
+        byte[] oldRef = find(from);
+        if (oldRef == null) return null;
+        String[] before = decode(readValue(oldRef));
+        if (!Arrays.equals(from, key(row[0]))) freeValue(remove(from)); // a rename; put() frees it otherwise
+        put(row);
+        return before;
+    }
+
+    /** delete() without the flush. */
+    private String[] removeRow(String fullName) throws IOException {
+        byte[] ref = remove(key(fullName));
+        if (ref == null) return null;
+        String[] before = decode(readValue(ref));
+        freeValue(ref);
+        return before;
+    }
+
+    /* ---------- tree ---------- */
+
+    /** Normalized name bytes; a longer name keeps its first bytes and ends in a SHA-256 of all of them. */
+    private static byte[] key(String fullName) {
+        byte[] k = StudentStorage.norm(fullName).getBytes(StandardCharsets.UTF_8);
+        if (k.length <= MAX_KEY) return k;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(k);
+            byte[] out = Arrays.copyOf(k, MAX_KEY);
+            System.arraycopy(digest, 0, out, MAX_KEY - digest.length, digest.length);
+            return out;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JDK has SHA-256
+        }
+    }
+
+    private byte[] find(byte[] key) throws IOException {
+        Node n = read(root);
+        while (!n.leaf) n = read(n.kids.get(childIndex(n, key)));
+        int i = search(n.keys, key);
+        return i >= 0 ? n.vals.get(i) : null;
+    }
+
+    private void put(String[] row) throws IOException {
+        byte[] key = key(row[0]);
+        byte[] ref = writeValue(StudentStorage.toCsv(row).getBytes(StandardCharsets.UTF_8));
+        Insert ins = new Insert();
+        Split s = put(root, key, ref, ins);
+        if (s != null) {
+            Node r = new Node(allocate(), false);
+            r.kids.add(root);
+            r.keys.add(s.key);
+            r.kids.add(s.right);
+            write(r);
+            root = r.page;
+        }
+        if (ins.old != null) freeValue(ins.old);
+        else rowCount++;
+    }
+
+    private record Split(byte[] key, int right) {}
+
+    /** What one insert found on its way down. */
+    private static final class Insert {
+        byte[] old;         // replaced value ref
+        boolean atEnd = true; // key went past every existing key (sorted loads)
+    }
+
+    private Split put(int page, byte[] key, byte[] ref, Insert ins) throws IOException {
+        Node n = read(page);
+        if (n.leaf) {
+            int i = search(n.keys, key);
+            if (i >= 0) {
+                ins.old = n.vals.get(i);
+                n.vals.set(i, ref);
+            } else {
+                ins.atEnd &= -i - 1 == n.keys.size();
+                n.keys.add(-i - 1, key);
+                n.vals.add(-i - 1, ref);
+            }
+        } else {
+            int c = childIndex(n, key);
+            ins.atEnd &= c == n.keys.size();
+            Split s = put(n.kids.get(c), key, ref, ins);
+            if (s == null) return null;
+            n.keys.add(c, s.key);
+            n.kids.add(c + 1, s.right);
+        }
+        if (n.size() <= PAGE) {
+            write(n);
+            return null;
+        }
+        return split(n, ins.atEnd);
+    }
+
+    /**
+     * Split an over-full node; the left half keeps the page. Normally near the
+     * middle of its bytes, but when keys arrive in order (import, compact) the
+     * left node is left full so the file ends up densely packed.
+     */
+    private Split split(Node n, boolean atEnd) throws IOException {
+        int total = n.size(), acc = n.headerSize(), mid = 1;
+        int target = atEnd ? PAGE - PAGE / 16 : total / 2;
+        for (int i = 0; i < n.keys.size() - 1; i++) {
+            acc += n.entrySize(i);
+            if (acc >= target) break;
+            mid = i + 1;
+        }
+        if (!n.leaf) mid = Math.min(mid, n.keys.size() - 2); // the separator moves up; keep one key on the right
+        Node right = new Node(allocate(), n.leaf);
+        byte[] sep;
+        if (n.leaf) {
+            right.keys.addAll(n.keys.subList(mid, n.keys.size()));
+            right.vals.addAll(n.vals.subList(mid, n.vals.size()));
+            n.keys.subList(mid, n.keys.size()).clear();
+            n.vals.subList(mid, n.vals.size()).clear();
+            right.next = n.next;
+            n.next = right.page;
+            sep = right.keys.get(0);
+        } else {
+            sep = n.keys.get(mid);
+            right.keys.addAll(n.keys.subList(mid + 1, n.keys.size()));
+            right.kids.addAll(n.kids.subList(mid + 1, n.kids.size()));
+            n.keys.subList(mid, n.keys.size()).clear();
+            n.kids.subList(mid + 1, n.kids.size()).clear();
+        }
+        write(n);
+        write(right);
+        return new Split(sep, right.page);
+    }
+
+    /** Remove the key from its leaf; returns its value ref or null. */
+    private byte[] remove(byte[] key) throws IOException {
+        Node n = read(root);
+        while (!n.leaf) n = read(n.kids.get(childIndex(n, key)));
+        int i = search(n.keys, key);
+        if (i < 0) return null;
+        n.keys.remove(i);
+        byte[] ref = n.vals.remove(i);
+        write(n);
+        rowCount--;
+        return ref;
+    }
+
+    /** Child to follow: keys >= keys[i] live right of separator i. */
+    private static int childIndex(Node n, byte[] key) {
+        int lo = 0, hi = n.keys.size();
+        while (lo < hi) {
+            int m = (lo + hi) >>> 1;
+            if (Arrays.compareUnsigned(key, n.keys.get(m)) < 0) hi = m;
+            else lo = m + 1;
+        }
+        return lo;
+    }
+
+    private static int search(List<byte[]> keys, byte[] key) {
+        int lo = 0, hi = keys.size() - 1;
+        while (lo <= hi) {
+            int m = (lo + hi) >>> 1;
+            int c = Arrays.compareUnsigned(keys.get(m), key);
+            if (c < 0) lo = m + 1;
+            else if (c > 0) hi = m - 1;
+            else return m;
+        }
+        return -(lo + 1);
+    }
+
+    /* ---------- values ---------- */
+
+    private static String[] decode(byte[] row) {
+        return CsvRecordReader.parse(new String(row, StandardCharsets.UTF_8));
+    }
+
+    /** Inline ref: [0][bytes]; overflow ref: [1][first page][length]. */
+    private byte[] writeValue(byte[] data) throws IOException {
+        if (data.length <= MAX_INLINE) {
+            byte[] ref = new byte[data.length + 1];
+            System.arraycopy(data, 0, ref, 1, data.length);
+            return ref;
+        }
+        int pages = (data.length + OVERFLOW_DATA - 1) / OVERFLOW_DATA;
+        int[] ids = new int[pages];
+        for (int i = 0; i < pages; i++) ids[i] = allocate();
+        for (int i = 0; i < pages; i++) {
+            int off = i * OVERFLOW_DATA, len = Math.min(OVERFLOW_DATA, data.length - off);
+            ByteBuffer b = ByteBuffer.allocate(PAGE);
+            b.put(OVERFLOW).putInt(i + 1 < pages ? ids[i + 1] : 0).putShort((short) len).put(data, off, len);
+            cache.put(ids[i], b.array());
+        }
+        return ByteBuffer.allocate(9).put((byte) 1).putInt(ids[0]).putInt(data.length).array();
+    }
+
+    private byte[] readValue(byte[] ref) throws IOException {
+        if (ref[0] == 0) return Arrays.copyOfRange(ref, 1, ref.length);
+        ByteBuffer r = ByteBuffer.wrap(ref, 1, 8);
+        int page = r.getInt();
+        byte[] out = new byte[r.getInt()];
+        int pos = 0;
+        while (page != 0 && pos < out.length) {
+            ByteBuffer b = ByteBuffer.wrap(cache.get(page));
+            b.get(); // type
+            int next = b.getInt(), len = Short.toUnsignedInt(b.getShort());
+            b.get(out, pos, len);
+            pos += len;
+            page = next;
+        }
+        return out;
+    }
+
+    private void freeValue(byte[] ref) throws IOException {
+        if (ref[0] == 0) return;
+        int page = ByteBuffer.wrap(ref, 1, 4).getInt();
+        while (page != 0) {
+            int next = ByteBuffer.wrap(cache.get(page), 1, 4).getInt();
+            release(page);
+            page = next;
+        }
+    }
+
+    /* ---------- pages ---------- */
+
+    private int allocate() throws IOException {
+        if (freeHead != 0) {
+            int page = freeHead;
+            freeHead = ByteBuffer.wrap(cache.get(page), 1, 4).getInt();
+            return page;
+        }
+        return pageCount++;
+    }
+
+    private void release(int page) {
+        cache.put(page, ByteBuffer.allocate(PAGE).put(FREE).putInt(freeHead).array());
+        freeHead = page;
+    }
+
+    private Node read(int page) throws IOException {
+        return Node.decode(page, cache.get(page));
+    }
+
+    private void write(Node n) {
+        cache.put(n.page, n.encode());
+    }
+
+    private void init() throws IOException {
+        root = 1;
+        pageCount = 2;
+        freeHead = 0;
+        rowCount = 0;
+        write(new Node(root, true));
+        flush();
+    }
+
+    private void readHeader() throws IOException {
+        ByteBuffer h = ByteBuffer.allocate(HEADER);
+        while (h.hasRemaining() && ch.read(h, h.position()) > 0) { }
+        h.flip();
+        if (h.remaining() < HEADER || h.getInt() != MAGIC || h.getInt() != FORMAT || h.getInt() != PAGE)
+            throw new IOException("Not a student page file (or an unsupported format)");
+        root = h.getInt();
+        pageCount = h.getInt();
+        freeHead = h.getInt();
+        rowCount = h.getLong();
+        committedHeader = h.array();
+        committedPages = pageCount;
+    }
+
+    private byte[] header() {
+        return ByteBuffer.allocate(HEADER).putInt(MAGIC).putInt(FORMAT).putInt(PAGE)
+                .putInt(root).putInt(pageCount).putInt(freeHead).putLong(rowCount).array();
+    }
+
+    /**
+     * Commit: journal what is about to be overwritten, write the changed pages
+     * and force them, then write and force the header that points at them, then
+     * drop the journal.
+     */
+    private void flush() throws IOException {
+        journal(cache.dirtyPages());
+        cache.writeDirty();
+        ch.force(false);
+        byte[] header = header();
+        ByteBuffer h = ByteBuffer.wrap(header);
+        while (h.hasRemaining()) ch.write(h, h.position());
+        ch.force(false);
+        committedHeader = header;
+        committedPages = pageCount;
+        journaled.clear();
+        if (journal != null) {
+            journal.close();
+            journal = null;
+            Files.deleteIfExists(journalFile);
+        }
+    }
+
+    /* ---------- rollback journal ---------- */
+
+    /**
+     * Save the committed contents of these pages to the journal, once per flush,
+     * and force it before any of them is overwritten. Pages past the committed
+     * page count are new: the committed header cannot reach them.
+     * Journal: [magic][committed header][crc], then [page][4 KB][crc] per page.
+     */
+    private void journal(Collection<Integer> pages) throws IOException {
+        List<Integer> todo = new ArrayList<>();
+        for (int page : pages) {
+            if (page < committedPages && !journaled.contains(page)) todo.add(page);
+        }
+        if (todo.isEmpty()) return;
+        if (journal == null) {
+            journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            ByteBuffer h = ByteBuffer.allocate(8 + HEADER).putInt(JOURNAL_MAGIC).put(committedHeader);
+            h.putInt(crc(h.array(), 4, HEADER)).flip();
+            while (h.hasRemaining()) journal.write(h);
+        }
+        ByteBuffer out = ByteBuffer.allocate(todo.size() * (8 + PAGE));
+        for (int page : todo) {
+            int start = out.position();
+            out.putInt(page);
+            ByteBuffer data = out.slice(out.position(), PAGE);
+            long pos = (long) page * PAGE;
+            while (data.hasRemaining()) {
+                int n = ch.read(data, pos);
+                if (n < 0) break; // never written: zeroes
+                pos += n;
+            }
+            out.position(out.position() + PAGE);
+            out.putInt(crc(out.array(), start, 4 + PAGE));
+        }
+        out.flip();
+        while (out.hasRemaining()) journal.write(out);
+        journal.force(false);
+        journaled.addAll(todo);
+    }
+
+    /** Opened after an interrupted write: put back the journaled pages and header, then drop the journal. */
+    private void rollback() throws IOException {
+        try (FileChannel j = FileChannel.open(journalFile, StandardOpenOption.READ)) {
+            ByteBuffer h = ByteBuffer.allocate(8 + HEADER);
+            // a torn journal header means no page had been overwritten yet
+            if (readFully(j, h, 0) && h.getInt(0) == JOURNAL_MAGIC && h.getInt(4 + HEADER) == crc(h.array(), 4, HEADER)) {
+                ByteBuffer rec = ByteBuffer.allocate(8 + PAGE);
+                long pos = h.capacity();
+                int restored = 0;
+                // stop at a torn last record: its page was not overwritten either
+                while (readFully(j, rec.clear(), pos) && rec.getInt(4 + PAGE) == crc(rec.array(), 0, 4 + PAGE)) {
+                    writePage(rec.getInt(0), Arrays.copyOfRange(rec.array(), 4, 4 + PAGE));
+                    pos += rec.capacity();
+                    restored++;
+                }
+                byte[] header = Arrays.copyOfRange(h.array(), 4, 4 + HEADER);
+                writePage(0, header);
+                ch.truncate((long) ByteBuffer.wrap(header).getInt(16) * PAGE); // pages added since are unreachable
+                ch.force(false);
+                System.err.println(file.getFileName() + ": rolled back an unfinished write (" + restored + " page(s))");
+            }
+        }
+        Files.delete(journalFile);
+    }
+
+    private static boolean readFully(FileChannel c, ByteBuffer b, long pos) throws IOException {
+        while (b.hasRemaining()) {
+            int n = c.read(b, pos + b.position());
+            if (n < 0) return false;
+        }
+        return true;
+    }
+
+    private static int crc(byte[] data, int off, int len) {
+        CRC32 c = new CRC32();
+        c.update(data, off, len);
+        return (int) c.getValue();
+    }
+
+    private void writePage(int page, byte[] data) throws IOException {
+        ByteBuffer b = ByteBuffer.wrap(data);
+        long pos = (long) page * PAGE;
+        while (b.hasRemaining()) pos += ch.write(b, pos);
+    }
+
+    /** Least-recently-used pages kept in memory; dirty pages are written when flushed or evicted. */
+    private final class PageCache {
+        private final Set<Integer> dirty = new HashSet<>();
+        private final LinkedHashMap<Integer, byte[]> pages;
+
+        PageCache(int capacity) {
+            pages = new LinkedHashMap<>(capacity * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, byte[]> eldest) {
+                    if (size() <= capacity) return false;
+                    if (dirty.remove(eldest.getKey())) {
+                        try {
+                            journal(List.of(eldest.getKey()));
+                            writePage(eldest.getKey(), eldest.getValue());
+                        } catch (IOException e) {
+                            throw new IllegalStateException("Could not write page " + eldest.getKey(), e);
+                        }
+                    }
+                    return true;
+                }
+            };
+        }
+
+        byte[] get(int page) throws IOException {
+            byte[] data = pages.get(page);
+            if (data != null) return data;
+            data = new byte[PAGE];
+            ByteBuffer b = ByteBuffer.wrap(data);
+            long pos = (long) page * PAGE;
+            while (b.hasRemaining()) {
+                int n = ch.read(b, pos);
+                if (n < 0) break; // past the end: page is still zeroes
+                pos += n;
+            }
+            pages.put(page, data);
+            return data;
+        }
+
+        void put(int page, byte[] data) {
+            pages.put(page, data);
+            dirty.add(page);
+        }
+
+        Collection<Integer> dirtyPages() {
+            return dirty;
+        }
+
+        void writeDirty() throws IOException {
+            for (Integer page : dirty) writePage(page, pages.get(page));
+            dirty.clear();
+        }
+
+        void clear() {
+            pages.clear();
+            dirty.clear();
+        }
+    }
+
+    /* ---------- nodes ---------- */
+
+    /** A decoded leaf or inner page. Leaves hold value refs; inner nodes hold child pages. */
+    private static final class Node {
+        final int page;
+        final boolean leaf;
+        final List<byte[]> keys = new ArrayList<>();
+        final List<byte[]> vals = new ArrayList<>();
+        final List<Integer> kids = new ArrayList<>();
+        int next; // next leaf, 0 = last
+
+        Node(int page, boolean leaf) {
+            this.page = page;
+            this.leaf = leaf;
+        }
+
+        int headerSize() {
+            return 7; // type + count + (next leaf | first child)
+        }
+
+        int entrySize(int i) {
+            return 1 + keys.get(i).length + (leaf ? 2 + vals.get(i).length : 4);
+        }
+
+        int size() {
+            int s = headerSize();
+            for (int i = 0; i < keys.size(); i++) s += entrySize(i);
+            return s;
+        }
+
+        byte[] encode() {
+            ByteBuffer b = ByteBuffer.allocate(PAGE);
+            b.put(leaf ? LEAF : INNER).putShort((short) keys.size());
+            b.putInt(leaf ? next : kids.get(0));
+            for (int i = 0; i < keys.size(); i++) {
+                byte[] k = keys.get(i);
+                b.put((byte) k.length).put(k);
+                if (leaf) {
+                    byte[] v = vals.get(i);
+                    b.putShort((short) v.length).put(v);
+                } else {
+                    b.putInt(kids.get(i + 1));
+                }
+            }
+            return b.array();
+        }
+
+        static Node decode(int page, byte[] data) {
+            ByteBuffer b = ByteBuffer.wrap(data);
+            byte type = b.get();
+            Node n = new Node(page, type == LEAF);
+            int count = Short.toUnsignedInt(b.getShort());
+            int first = b.getInt();
+            if (n.leaf) n.next = first;
+            else n.kids.add(first);
+            for (int i = 0; i < count; i++) {
+                byte[] k = new byte[Byte.toUnsignedInt(b.get())];
+                b.get(k);
+                n.keys.add(k);
+                if (n.leaf) {
+                    byte[] v = new byte[Short.toUnsignedInt(b.getShort())];
+                    b.get(v);
+                    n.vals.add(v);
+                } else {
+                    n.kids.add(b.getInt());
+                }
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,629 @@
+package cs151.application;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Versioned, deduplicated backups of the data files (backups/ next to
+ * Students.csv), as a replacement for copying the whole folder every hour.
+ *
+ * Each file is cut into content-defined chunks: a rolling hash over the last
+ * 64 bytes picks the cut points, so an edit in the middle of Students.csv
+ * changes only the chunk or two around it, not every block after it. Each
+ * chunk is stored once, deflated, under its SHA-256 in backups/chunks/. A
+ * snapshot is a manifest in backups/snapshots/ listing every file's chunks.
+ * A file whose size and modified time match the latest snapshot is not read
+ * at all, so taking a backup costs reading the changed files and writing their
+ * new chunks.
+ *
+ * Any snapshot can be restored (into the data folder or anywhere else, each
+ * file checked against its recorded hash) or diffed against another snapshot
+ * or the current files. {@link #prune(int)} drops old snapshots and the chunks
+ * only they used. -Dapp.backup.everyMinutes=60 takes backups while the app
+ * runs; -Dapp.backup.keep=N prunes after each one.
+ *
+ * Creating, restoring, diffing and pruning hold an OS lock on backups/lock,
+ * so a prune from the command line cannot delete the chunks (or temp files)
+ * of a backup the app is taking at the same moment, and the other way round.
+ */
+public final class Backups {
+
+    public static final Path DIR = AppFiles.BASE_DIR.resolve("backups");
+
+    /** Chunks are at least MIN_CHUNK and at most MAX_CHUNK bytes, about 8 KiB on average. */
+    static final int MIN_CHUNK = 2 * 1024;
+    static final int MAX_CHUNK = 64 * 1024;
+    private static final long CUT_MASK = 0xFFF8_0000_0000_0000L; // top 13 bits: 8 KiB average
+
+    /** Gear values for the rolling hash; fixed, or chunks from older snapshots stop matching. */
+    private static final long[] GEAR = new long[256];
+
+    static {
+        SplittableRandom r = new SplittableRandom(0x5EED_C0DE_151L);
+        for (int i = 0; i < GEAR.length; i++) GEAR[i] = r.nextLong();
+    }
+
+    private static final String MAGIC = "cs151-backup 1";
+    private static final DateTimeFormatter ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+    private static final HexFormat HEX = HexFormat.of();
+
+    /** One chunk of a file: its SHA-256 (hex) and length in bytes. */
+    record Chunk(String hash, int length) {}
+
+    /** One backed-up file. */
+    public record FileEntry(String name, long size, long modified, String sha256, List<Chunk> chunks) {}
+
+    /** One snapshot: its id (UTC time, "20251112-180311"), when it was taken, and the files in it. */
+    public record Snapshot(String id, Instant created, List<FileEntry> files) {
+        public long size() {
+            long n = 0;
+            for (FileEntry f : files) n += f.size();
+            return n;
+        }
+
+        FileEntry file(String name) {
+            for (FileEntry f : files) if (f.name().equals(name)) return f;
+            return null;
+        }
+    }
+
+    /** What {@link #create()} did; unchanged means no file differed from the latest snapshot, which is returned. */
+    public record Created(Snapshot snapshot, boolean unchanged, int filesRead, int newChunks, long storedBytes) {}
+
+    public enum Change { ADDED, REMOVED, CHANGED, SAME }
+
+    /** One file in a diff; changedBytes is the size of the chunks the newer side does not share with the older. */
+    public record FileDiff(String name, Change change, long sizeBefore, long sizeAfter, long changedBytes) {}
+
+    /** Students by full name, when Students.csv differs. */
+    public record StudentDiff(List<String> added, List<String> removed, List<String> changed) {}
+
+    public record Diff(List<FileDiff> files, StudentDiff students) {}
+
+    public record Pruned(int snapshots, int chunks, long bytes) {}
+
+    private static final Backups DEFAULT = new Backups(AppFiles.BASE_DIR, DIR);
+    private static ScheduledExecutorService timer; // guarded by Backups.class
+
+    private final Path dataDir;
+    private final Path chunkDir;
+    private final Path snapshotDir;
+    private final Path lockFile;
+    private FileChannel lock; // held while lockDepth > 0
+    private int lockDepth;
+
+    Backups(Path dataDir, Path backupDir) {
+        this.dataDir = dataDir;
+        this.chunkDir = backupDir.resolve("chunks");
+        this.snapshotDir = backupDir.resolve("snapshots");
+        this.lockFile = backupDir.resolve("lock");
+    }
+
+    public static Backups get() {
+        return DEFAULT;
+    }
+
+    /**
+     * The files a backup covers (those that exist): student data, languages,
+     * comments and journals. Not Students.idx: it is rebuilt from Students.csv
+     * when missing or out of step, and one edit moves most of its slots.
+     */
+    private static List<Path> dataFiles(Path dir) {
+        List<Path> out = new ArrayList<>();
+        for (Path p : List.of(AppFiles.STUDENTS_CSV, AppFiles.STUDENTS_DB, AppFiles.LANG_CSV,
+                AppFiles.BASE_DIR.resolve("Comments.log"), AppFiles.BASE_DIR.resolve("Comments.archive"),
+                AuditJournal.FILE, EditHistory.FILE)) {
+            Path f = dir.resolve(p.getFileName());
+            if (Files.isRegularFile(f)) out.add(f);
+        }
+        return out;
+    }
+
+    /* ---------- create ---------- */
+
+    /** Take a snapshot of the data files, storing only chunks not stored before. */
+    public synchronized Created create() throws IOException {
+        lock();
+        try (Metrics.Timing t = Metrics.time("backup.create")) {
+            Snapshot latest = latest();
+            List<FileEntry> files = new ArrayList<>();
+            int read = 0;
+            long[] written = {0, 0}; // chunks, stored bytes
+            for (Path f : dataFiles(dataDir)) {
+                String name = f.getFileName().toString();
+                long size = Files.size(f), modified = Files.getLastModifiedTime(f).toMillis();
+                FileEntry before = latest == null ? null : latest.file(name);
+                if (before != null && before.size() == size && before.modified() == modified) {
+                    files.add(before); // untouched since the last backup: not read again
+                    continue;
+                }
+                files.add(chunk(f, name, size, modified, written));
+                read++;
+            }
+            if (latest != null && sameContent(latest.files(), files)) {
+                return new Created(latest, true, read, 0, 0);
+            }
+            Snapshot s = new Snapshot(newId(latest), Instant.now(), List.copyOf(files));
+            writeManifest(s);
+            Metrics.counter("backup.chunksWritten").add(written[0]);
+            Metrics.counter("backup.bytesWritten").add(written[1]);
+            return new Created(s, false, read, (int) written[0], written[1]);
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Take backups/lock, waiting for another process that holds it. Nested
+     * calls (restore takes a safety backup) only count.
+     */
+    private void lock() throws IOException {
+        if (lockDepth > 0) {
+            lockDepth++;
+            return;
+        }
+        Files.createDirectories(lockFile.getParent());
+        FileChannel ch = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            ch.lock();
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+        lock = ch;
+        lockDepth = 1;
+    }
+
+    private void unlock() throws IOException {
+        if (--lockDepth > 0) return;
+        FileChannel ch = lock;
+        lock = null;
+        ch.close(); // releases the lock
+    }
+
+    /** Chunk one file, storing new chunks (written is null for a dry run, as for a diff against the current files). */
+    private FileEntry chunk(Path f, String name, long size, long modified, long[] written) throws IOException {
+        MessageDigest whole = sha256(), part = sha256();
+        List<Chunk> chunks = new ArrayList<>();
+        byte[] block = new byte[1 << 16], buf = new byte[MAX_CHUNK];
+        int len = 0;
+        long h = 0;
+        try (InputStream in = Files.newInputStream(f)) {
+            for (int n; (n = in.read(block)) != -1; ) {
+                for (int i = 0; i < n; i++) {
+                    byte b = block[i];
+                    buf[len++] = b;
+                    h = (h << 1) + GEAR[b & 0xff];
+                    if (len >= MIN_CHUNK && (h & CUT_MASK) == 0 || len == MAX_CHUNK) {
+                        chunks.add(storeChunk(buf, len, part, written));
+                        whole.update(buf, 0, len);
+                        len = 0;
+                        h = 0;
+                    }
+                }
+            }
+        }
+        if (len > 0) {
+            chunks.add(storeChunk(buf, len, part, written));
+            whole.update(buf, 0, len);
+        }
+        return new FileEntry(name, size, modified, HEX.formatHex(whole.digest()), List.copyOf(chunks));
+    }
+
+    private Chunk storeChunk(byte[] buf, int len, MessageDigest md, long[] written) throws IOException {
+        md.update(buf, 0, len);
+        String hash = HEX.formatHex(md.digest());
+        Path p = chunkPath(hash);
+        if (written != null && !Files.exists(p)) {
+            Files.createDirectories(p.getParent());
+            Path tmp = Files.createTempFile(p.getParent(), "chunk", ".tmp");
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try (OutputStream out = new DeflaterOutputStream(Files.newOutputStream(tmp), deflater)) {
+                out.write(buf, 0, len);
+            } finally {
+                deflater.end();
+            }
+            written[0]++;
+            written[1] += Files.size(tmp);
+            AppFiles.moveIntoPlace(tmp, p);
+        }
+        return new Chunk(hash, len);
+    }
+
+    private static boolean sameContent(List<FileEntry> a, List<FileEntry> b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (!a.get(i).name().equals(b.get(i).name()) || !a.get(i).sha256().equals(b.get(i).sha256())) return false;
+        }
+        return true;
+    }
+
+    private static String newId(Snapshot latest) {
+        String id = ID.format(Instant.now());
+        if (latest == null || latest.id().compareTo(id) < 0) return id;
+        // same second as the latest (or the clock went back): number it after the latest
+        int second = latest.id().length() > id.length() ? Integer.parseInt(latest.id().substring(id.length() + 1)) : 1;
+        return latest.id().substring(0, id.length()) + String.format("-%03d", second + 1);
+    }
+
+    /* ---------- read ---------- */
+
+    /** Every snapshot, oldest first. */
+    public synchronized List<Snapshot> list() throws IOException {
+        List<Snapshot> out = new ArrayList<>();
+        for (String id : ids()) out.add(readManifest(id));
+        return out;
+    }
+
+    /** The snapshot with this id, or the only one it is a prefix of; "latest" for the newest. */
+    public synchronized Snapshot find(String id) throws IOException {
+        List<String> ids = ids();
+        if (id.equals("latest")) {
+            if (ids.isEmpty()) throw new IllegalArgumentException("There are no backups in " + snapshotDir.getParent());
+            return readManifest(ids.get(ids.size() - 1));
+        }
+        if (ids.contains(id)) return readManifest(id);
+        List<String> matches = ids.stream().filter(s -> s.startsWith(id)).toList();
+        if (matches.size() == 1) return readManifest(matches.get(0));
+        throw new IllegalArgumentException((matches.isEmpty() ? "No backup named " : "More than one backup starts with ") + id);
+    }
+
+    private Snapshot latest() throws IOException {
+        List<String> ids = ids();
+        return ids.isEmpty() ? null : readManifest(ids.get(ids.size() - 1));
+    }
+
+    private List<String> ids() throws IOException {
+        if (!Files.isDirectory(snapshotDir)) return List.of();
+        List<String> ids = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(snapshotDir, "*.manifest")) {
+            for (Path p : ds) {
+                String n = p.getFileName().toString();
+                ids.add(n.substring(0, n.length() - ".manifest".length()));
+            }
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    /** All of a backed-up file's bytes, read chunk by chunk. */
+    InputStream open(FileEntry f) {
+        Iterator<Chunk> it = f.chunks().iterator();
+        return new SequenceInputStream(new Enumeration<InputStream>() {
+            @Override
+            public boolean hasMoreElements() {
+                return it.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                Path p = chunkPath(it.next().hash());
+                try {
+                    return new InflaterInputStream(Files.newInputStream(p));
+                } catch (IOException e) {
+                    return failing(new NoSuchFileException(p.toString(), null, "backup chunk missing"));
+                }
+            }
+        });
+    }
+
+    /** Enumeration.nextElement cannot throw IOException; the stream does on first read. */
+    private static InputStream failing(IOException e) {
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw e;
+            }
+        };
+    }
+
+    /* ---------- restore ---------- */
+
+    /**
+     * Write the snapshot's files into the folder, each checked against its
+     * recorded SHA-256 before it replaces anything, and remove the data files
+     * the snapshot did not have. Restoring into the data folder first takes a
+     * snapshot of the current files, whose id is returned (null otherwise);
+     * close the app before doing that.
+     */
+    public synchronized String restore(Snapshot s, Path into) throws IOException {
+        lock();
+        try {
+            Path target = into.toAbsolutePath().normalize();
+            String safety = null;
+            if (target.equals(dataDir.toAbsolutePath().normalize())) safety = create().snapshot().id();
+            Files.createDirectories(target);
+
+            // write everything to temp files first, so a damaged backup changes nothing
+            Map<Path, Path> ready = new LinkedHashMap<>();
+            try {
+                for (FileEntry f : s.files()) {
+                    Path tmp = Files.createTempFile(target, f.name(), ".tmp");
+                    ready.put(tmp, target.resolve(f.name()));
+                    MessageDigest md = sha256();
+                    try (InputStream in = open(f); OutputStream out = Files.newOutputStream(tmp)) {
+                        byte[] buf = new byte[1 << 16];
+                        for (int n; (n = in.read(buf)) != -1; ) {
+                            md.update(buf, 0, n);
+                            out.write(buf, 0, n);
+                        }
+                    }
+                    if (!HEX.formatHex(md.digest()).equals(f.sha256())) {
+                        throw new IOException("Backup " + s.id() + " is damaged: " + f.name() + " does not match its checksum");
+                    }
+                }
+                for (Map.Entry<Path, Path> e : ready.entrySet()) AppFiles.moveIntoPlace(e.getKey(), e.getValue());
+                ready.clear();
+            } finally {
+                for (Path tmp : ready.keySet()) Files.deleteIfExists(tmp);
+            }
+
+            Set<String> kept = new HashSet<>();
+            for (FileEntry f : s.files()) kept.add(f.name());
+            for (Path p : dataFiles(target)) {
+                if (!kept.contains(p.getFileName().toString())) Files.delete(p);
+            }
+            return safety;
+        } finally {
+            unlock();
+        }
+    }
+
+    /* ---------- diff ---------- */
+
+    /** What changed from one snapshot to another, or to the current files when to is null. */
+    public synchronized Diff diff(Snapshot from, Snapshot to) throws IOException {
+        lock();
+        try {
+            List<FileEntry> after = new ArrayList<>();
+            if (to != null) {
+                after.addAll(to.files());
+            } else {
+                for (Path f : dataFiles(dataDir)) {
+                    String name = f.getFileName().toString();
+                    long size = Files.size(f), modified = Files.getLastModifiedTime(f).toMillis();
+                    FileEntry before = from.file(name);
+                    after.add(before != null && before.size() == size && before.modified() == modified
+                            ? before : chunk(f, name, size, modified, null));
+                }
+            }
+
+            Map<String, FileEntry> a = new LinkedHashMap<>(), b = new LinkedHashMap<>();
+            for (FileEntry f : from.files()) a.put(f.name(), f);
+            for (FileEntry f : after) b.put(f.name(), f);
+            Set<String> names = new TreeSet<>(a.keySet());
+            names.addAll(b.keySet());
+
+            List<FileDiff> files = new ArrayList<>();
+            for (String name : names) {
+                FileEntry x = a.get(name), y = b.get(name);
+                if (x == null) files.add(new FileDiff(name, Change.ADDED, 0, y.size(), y.size()));
+                else if (y == null) files.add(new FileDiff(name, Change.REMOVED, x.size(), 0, 0));
+                else if (x.sha256().equals(y.sha256())) files.add(new FileDiff(name, Change.SAME, x.size(), y.size(), 0));
+                else files.add(new FileDiff(name, Change.CHANGED, x.size(), y.size(), newBytes(x, y)));
+            }
+
+            StudentDiff students = null;
+            String csv = AppFiles.STUDENTS_CSV.getFileName().toString();
+            FileEntry x = a.get(csv), y = b.get(csv);
+            if (!Objects.equals(x == null ? null : x.sha256(), y == null ? null : y.sha256())) {
+                Map<String, String[]> rowsBefore = x == null ? Map.of() : students(open(x));
+                Map<String, String[]> rowsAfter = y == null ? Map.of()
+                        : to == null ? students(Files.newInputStream(dataDir.resolve(csv))) : students(open(y));
+                students = compare(rowsBefore, rowsAfter);
+            }
+            return new Diff(files, students);
+        } finally {
+            unlock();
+        }
+    }
+
+    private static long newBytes(FileEntry from, FileEntry to) {
+        Set<String> old = new HashSet<>();
+        for (Chunk c : from.chunks()) old.add(c.hash());
+        long n = 0;
+        for (Chunk c : to.chunks()) if (old.add(c.hash())) n += c.length();
+        return n;
+    }
+
+    /** Complete rows keyed by normalized name (first row wins), as snapshots hold them. */
+    private static Map<String, String[]> students(InputStream raw) throws IOException {
+        Map<String, String[]> rows = new HashMap<>();
+        try (CsvRecordReader in = new CsvRecordReader(new BufferedInputStream(raw, 1 << 16))) {
+            if (in.nextRecord() == null) return rows; // header
+            for (String[] r; (r = in.next()) != null; ) {
+                if (r.length >= Student.COLUMNS) rows.putIfAbsent(StudentStorage.norm(r[0]), StudentStorage.toStudent(r).toRow());
+            }
+        }
+        return rows;
+    }
+
+    private static StudentDiff compare(Map<String, String[]> before, Map<String, String[]> after) {
+        List<String> added = new ArrayList<>(), removed = new ArrayList<>(), changed = new ArrayList<>();
+        for (Map.Entry<String, String[]> e : after.entrySet()) {
+            String[] old = before.get(e.getKey());
+            if (old == null) added.add(e.getValue()[0]);
+            else if (!Arrays.equals(old, e.getValue())) changed.add(e.getValue()[0]);
+        }
+        for (Map.Entry<String, String[]> e : before.entrySet()) {
+            if (!after.containsKey(e.getKey())) removed.add(e.getValue()[0]);
+        }
+        for (List<String> l : List.of(added, removed, changed)) l.sort(String.CASE_INSENSITIVE_ORDER);
+        return new StudentDiff(added, removed, changed);
+    }
+
+    /* ---------- prune ---------- */
+
+    /** Keep the newest {@code keep} snapshots; delete the rest and every chunk no kept snapshot uses. */
+    public synchronized Pruned prune(int keep) throws IOException {
+        if (keep < 1) throw new IllegalArgumentException("Keep at least one backup: " + keep);
+        lock();
+        try {
+            List<String> ids = ids();
+            int drop = Math.max(0, ids.size() - keep);
+            for (String id : ids.subList(0, drop)) Files.delete(manifestPath(id));
+            if (drop == 0 || !Files.isDirectory(chunkDir)) return new Pruned(drop, 0, 0);
+
+            Set<String> used = new HashSet<>();
+            for (String id : ids.subList(drop, ids.size())) {
+                for (FileEntry f : readManifest(id).files()) for (Chunk c : f.chunks()) used.add(c.hash());
+            }
+            int chunks = 0;
+            long bytes = 0;
+            List<Path> all;
+            try (Stream<Path> s = Files.walk(chunkDir, 2)) {
+                all = s.filter(Files::isRegularFile).toList();
+            }
+            for (Path p : all) {
+                String n = p.getFileName().toString();
+                String hash = n.endsWith(".z") ? p.getParent().getFileName() + n.substring(0, n.length() - 2) : null;
+                if (hash == null || !used.contains(hash)) { // unused, or a temp file left by an interrupted backup
+                    bytes += Files.size(p);
+                    Files.delete(p);
+                    chunks++;
+                }
+            }
+            return new Pruned(drop, chunks, bytes);
+        } finally {
+            unlock();
+        }
+    }
+
+    /* ---------- manifests ---------- */
+
+    /*
+     * Manifest format (tab separated):
+     *   cs151-backup 1
+     *   created  2025-11-12T18:03:11.123Z
+     *   file  name  size  modifiedMillis  sha256
+     *   c  sha256  length        the file's chunks, in order
+     */
+    private void writeManifest(Snapshot s) throws IOException {
+        Files.createDirectories(snapshotDir);
+        Path tmp = Files.createTempFile(snapshotDir, s.id(), ".tmp");
+        try (BufferedWriter w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            w.write(MAGIC + "\ncreated\t" + s.created() + "\n");
+            for (FileEntry f : s.files()) {
+                w.write("file\t" + f.name() + "\t" + f.size() + "\t" + f.modified() + "\t" + f.sha256() + "\n");
+                for (Chunk c : f.chunks()) w.write("c\t" + c.hash() + "\t" + c.length() + "\n");
+            }
+        }
+        AppFiles.moveIntoPlace(tmp, manifestPath(s.id()));
+    }
+
+    private Snapshot readManifest(String id) throws IOException {
+        Path p = manifestPath(id);
+        try (BufferedReader r = Files.newBufferedReader(p, StandardCharsets.UTF_8)) {
+            if (!MAGIC.equals(r.readLine())) throw new IOException("Not a backup manifest: " + p);
+            Instant created = null;
+            List<FileEntry> files = new ArrayList<>();
+            String[] file = null;
+            List<Chunk> chunks = new ArrayList<>();
+            for (String line; (line = r.readLine()) != null; ) {
+                String[] t = line.split("\t");
+                switch (t[0]) {
+                    case "created" -> created = Instant.parse(t[1]);
+                    case "c" -> chunks.add(new Chunk(t[1], Integer.parseInt(t[2])));
+                    case "file" -> {
+                        if (file != null) files.add(entry(file, chunks));
+                        file = t;
+                        chunks = new ArrayList<>();
+                    }
+                    default -> throw new IOException("Bad line in " + p + ": " + line);
+                }
+            }
+            if (file != null) files.add(entry(file, chunks));
+            return new Snapshot(id, created, List.copyOf(files));
+        } catch (RuntimeException e) {
+            throw new IOException("Damaged backup manifest " + p + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static FileEntry entry(String[] t, List<Chunk> chunks) {
+        return new FileEntry(t[1], Long.parseLong(t[2]), Long.parseLong(t[3]), t[4], List.copyOf(chunks));
+    }
+
+    private Path manifestPath(String id) {
+        return snapshotDir.resolve(id + ".manifest");
+    }
+
+    /** chunks/ab/cdef....z, so no one folder holds every chunk. */
+    private Path chunkPath(String hash) {
+        return chunkDir.resolve(hash.substring(0, 2)).resolve(hash.substring(2) + ".z");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JDK has SHA-256
+        }
+    }
+
+    /* ---------- scheduled backups ---------- */
+
+    /** Back up every -Dapp.backup.everyMinutes while the app runs (no-op if unset). */
+    public static synchronized void startIfRequested() {
+        Integer minutes = Integer.getInteger("app.backup.everyMinutes");
+        if (minutes == null || minutes <= 0 || timer != null) return;
+        int keep = Integer.getInteger("app.backup.keep", 0);
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "backup");
+            t.setDaemon(true);
+            return t;
+        });
+        timer.scheduleWithFixedDelay(() -> {
+            try {
+                get().create();
+                if (keep > 0) get().prune(keep);
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace(); // try again next time
+            }
+        }, minutes, minutes, TimeUnit.MINUTES);
+    }
+
+    public static synchronized void stop() {
+        if (timer == null) return;
+        timer.shutdownNow();
+        timer = null;
+    }
+}
@@ -0,0 +1,157 @@
+package cs151.application;
+
+import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonBar;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextArea;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Actions on several selected rows of the View and Search tables. Each one is
+ * a single batch call ({@link StudentStorage#applyBatch}, {@link CommentStore#addAll}),
+ * so twenty students cost one write instead of twenty file rewrites, and a
+ * batch that fails its checks changes nothing. Also Undo and Redo, which both
+ * tables offer through {@link EditHistory}.
+ */
+final class BulkActions {
+
+    private BulkActions() {}
+
+    /** The selected rows, copied (the selection changes as rows are swapped). */
+    static List<Student> selected(TableView<Student> table) {
+        return List.copyOf(table.getSelectionModel().getSelectedItems());
+    }
+
+    static void delete(List<Student> students, StudentTableModel model) {
+        Alert confirm = new Alert(Alert.AlertType.CONFIRMATION,
+                "Delete the profiles of " + students.size() + " students?\n\n" + names(students),
+                ButtonType.YES, ButtonType.NO);
+        confirm.setHeaderText("Confirm deletion");
+        confirm.showAndWait().ifPresent(bt -> {
+            if (bt != ButtonType.YES) return;
+            try {
+                StudentStorage.BatchResult r = StudentStorage.applyBatch(
+                        students.stream().map(StudentStorage.Change::delete).toList());
+                model.applyExternal(List.of(), r.deleted());
+            } catch (IllegalStateException e) {
+                problems("Nothing was deleted", SELECTION_PROBLEM, e.getMessage());
+            } catch (Exception e) {
+                e.printStackTrace();
+                new Alert(Alert.AlertType.ERROR, "Failed to delete: " + e.getMessage(), ButtonType.OK).showAndWait();
+            }
+        });
+    }
+
+    /** Set Whitelisted or Blacklisted (the column) to Yes for every selected student. */
+    static void markListed(List<Student> students, int column, StudentTableModel model) {
+        String list = column == Student.WHITELISTED ? "whitelist" : "blacklist";
+        if (students.isEmpty()) {
+            warn("No selection", "Select one or more students to " + list + ".");
+            return;
+        }
+        List<StudentStorage.Change> changes = new ArrayList<>();
+        for (Student s : students) {
+            if (!"Yes".equals(StudentStorage.toYesNo(s.get(column)))) {
+                changes.add(StudentStorage.Change.update(s.getFullName(), s.with(column, "Yes")));
+            }
+        }
+        if (changes.isEmpty()) {
+            warn("Nothing to change", "The selected students are already on the " + list + ".");
+            return;
+        }
+        try {
+            StudentStorage.BatchResult r = StudentStorage.applyBatch(changes);
+            model.applyExternal(r.updated(), List.of());
+        } catch (IllegalStateException e) {
+            problems("Nothing was changed", SELECTION_PROBLEM, e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            new Alert(Alert.AlertType.ERROR, "Failed to save: " + e.getMessage(), ButtonType.OK).showAndWait();
+        }
+    }
+
+    /** Ask for one comment and add it to every selected student. */
+    static void addComment(List<Student> students, StudentTableModel model) {
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Add Comment");
+        dialog.setHeaderText("Add the same comment for " + students.size() + " students");
+        ButtonType saveBtn = new ButtonType("Save", ButtonBar.ButtonData.OK_DONE);
+        dialog.getDialogPane().getButtonTypes().addAll(saveBtn, ButtonType.CANCEL);
+
+        TextArea ta = new TextArea();
+        ta.setPromptText("Type your comment...");
+        ta.setWrapText(true);
+        ta.setPrefRowCount(6);
+        dialog.getDialogPane().setContent(ta);
+
+        dialog.showAndWait().ifPresent(btn -> {
+            if (btn != saveBtn) return;
+            String comment = ta.getText().trim();
+            if (comment.isEmpty()) return;
+            try {
+                CommentStore.get().addAll(students.stream().map(Student::getFullName).toList(), comment);
+                for (Student s : students) model.refresh(s);
+            } catch (Exception e) {
+                e.printStackTrace();
+                new Alert(Alert.AlertType.ERROR, "Failed to save comment.", ButtonType.OK).showAndWait();
+            }
+        });
+    }
+
+    /** Revert the last student change (any screen's) and show the result in this table. */
+    static void undo(StudentTableModel model) {
+        history(model, true);
+    }
+
+    static void redo(StudentTableModel model) {
+        history(model, false);
+    }
+
+    private static void history(StudentTableModel model, boolean undo) {
+        String action = undo ? "undo" : "redo";
+        try {
+            EditHistory.Result r = undo ? EditHistory.get().undo() : EditHistory.get().redo();
+            if (r == null) {
+                warn("Nothing to " + action, "There are no student changes to " + action + ".");
+                return;
+            }
+            model.applyExternal(r.changed(), r.removed());
+        } catch (IllegalStateException e) {
+            problems("Nothing was changed", "Students have been changed since; " + action + " would overwrite that.",
+                    e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            new Alert(Alert.AlertType.ERROR, "Failed to " + action + ": " + e.getMessage(), ButtonType.OK).showAndWait();
+        }
+    }
+
+    /** Up to ten names, one per line. */
+    private static String names(List<Student> students) {
+        String shown = students.stream().limit(10).map(Student::getFullName).collect(Collectors.joining("\n"));
+        return students.size() > 10 ? shown + "\n... and " + (students.size() - 10) + " more" : shown;
+    }
+
+    private static final String SELECTION_PROBLEM = "Some selected students cannot be changed this way.";
+
+    private static void problems(String header, String content, String details) {
+        Alert a = new Alert(Alert.AlertType.WARNING);
+        a.setHeaderText(header);
+        a.setContentText(content);
+        TextArea list = new TextArea(details);
+        list.setEditable(false);
+        a.getDialogPane().setExpandableContent(list);
+        a.getDialogPane().setExpanded(true);
+        a.showAndWait();
+    }
+
+    private static void warn(String header, String msg) {
+        Alert a = new Alert(Alert.AlertType.WARNING, msg, ButtonType.OK);
+        a.setHeaderText(header);
+        a.showAndWait();
+    }
+}
@@ -0,0 +1,486 @@
+package cs151.application;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Headless entry point for batch jobs; never starts the JavaFX toolkit.
+ * Reads and writes the same files as the UI (see AppFiles), so point it at
+ * another data folder with -Dapp.baseDir=... if needed.
+ *
+ * Example: java -p <module-path> -m cs151.application/cs151.application.Cli query --whitelisted --count-by languages
+ */
+public final class Cli {
+
+    /** Commands that change student rows, and so journal them to audit.jsonl. */
+    private static final Set<String> WRITES_STUDENTS = Set.of("import", "compact", "archive");
+
+    private static final String USAGE = String.join("\n",
+            "Usage: Cli <command> [options]",
+            "  query    [filters] [--whitelisted|--blacklisted] [--count-by languages|databases|status|role]",
+            "  import   <file.csv>",
+            "  export   <file.csv|file.jsonl> [filters] [--whitelisted|--blacklisted] [--format csv|jsonl]",
+            "  validate                 check the rows, and the CSV header or the page file's structure",
+            "  compact",
+            "  audit    [--from SEQ]   print journaled changes (audit.jsonl) from a sequence number",
+            "  archive  [--older-than DAYS]   move older faculty comments to Comments.archive",
+            "  pairs    [--top N]       most common language + database pairs (default 10)",
+            "  search-all [filters] [--workspaces DIRS]   search this and other (read-only) cohort folders in parallel",
+            "           (DIRS separated like a class path; -Dapp.workspaces folders are always included)",
+            "  serve    [--port N]      read-only JSON API on 127.0.0.1 (default 8151) until stopped",
+            "  generate <file.csv> --count N [--seed S]   write a synthetic cohort (same seed, same rows)",
+            "  bench    [--sizes 10000,100000] [--seed S] [--ops N] [--baseline FILE] [--tolerance 0.30] [--record]",
+            "           time write/load/search/add/update/delete per size; exits 1 on a regression.",
+            "           Replaces all students: run with -Dapp.baseDir=<empty folder>",
+            "  backup   [create|list]   snapshot the data files into backups/ (only changed chunks are stored)",
+            "  backup   diff <id> [<id>]   files and students changed between two snapshots, or since one",
+            "  backup   restore <id> [--to DIR]   write a snapshot's files back (data folder by default: close the app)",
+            "  backup   prune --keep N  keep the newest N snapshots and delete chunks only older ones used",
+            "           <id> is a snapshot id, a unique prefix of one, or latest",
+            "Filters: --name S --status S --lang S --db S --role S (case-insensitive contains)");
+
+    private final PrintWriter out;
+    private final PrintWriter err;
+
+    private Cli(PrintWriter out, PrintWriter err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    public static void main(String[] args) {
+        PrintWriter out = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16));
+        PrintWriter err = new PrintWriter(new OutputStreamWriter(System.err, StandardCharsets.UTF_8), true);
+        int code;
+        FlightEvents.startIfRequested();
+        if (args.length > 0 && WRITES_STUDENTS.contains(args[0])) AuditJournal.start(); // read-only commands never touch it
+        try {
+            code = new Cli(out, err).run(args);
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            code = 2;
+        } catch (IOException e) {
+            err.println("I/O error: " + e.getMessage());
+            code = 1;
+        } finally {
+            out.flush();
+            AuditJournal.stop();
+        }
+        System.exit(code);
+    }
+
+    int run(String[] args) throws IOException {
+        if (args.length == 0) throw new IllegalArgumentException("Missing command.");
+        Options o = Options.parse(args);
+        switch (args[0]) {
+            case "query":    return query(o);
+            case "import":   return importFile(o);
+            case "export":   return export(o);
+            case "validate": return validate();
+            case "compact":  return compact();
+            case "audit":    return audit(o);
+            case "archive":  return archive(o);
+            case "pairs":    return pairs(o);
+            case "search-all": return searchAll(o);
+            case "serve":    return serve(o);
+            case "generate": return generate(o);
+            case "bench":    return bench(o);
+            case "backup":   return backup(o);
+            case "help": case "--help": case "-h":
+                out.println(USAGE);
+                return 0;
+            default:
+                throw new IllegalArgumentException("Unknown command: " + args[0]);
+        }
+    }
+
+    /* ---------- commands ---------- */
+
+    private int query(Options o) throws IOException {
+        StudentFilter filter = o.filter();
+        if (o.countBy == null) {
+            out.println(StudentStorage.HEADER);
+            CommentStore comments = CommentStore.get();
+            StudentStorage.forEachRow(r -> {
+                if (o.accepts(r, filter)) out.println(StudentStorage.toCsv(comments.withLogged(r)));
+            });
+            return 0;
+        }
+
+        int col = switch (o.countBy) {
+            case "languages" -> Student.PROGRAMMING_LANGUAGES;
+            case "databases" -> Student.DATABASES;
+            case "status" -> Student.ACADEMIC_STATUS;
+            case "role" -> Student.PREFERRED_ROLE;
+            default -> throw new IllegalArgumentException("Cannot count by: " + o.countBy);
+        };
+        boolean multi = col == Student.PROGRAMMING_LANGUAGES || col == Student.DATABASES;
+        Map<String, String> display = new HashMap<>();
+        Map<String, Integer> counts = new HashMap<>();
+        int[] total = {0};
+        StudentStorage.forEachRow(r -> {
+            if (!o.accepts(r, filter) || r.length <= col) return;
+            total[0]++;
+            List<String> values = multi ? SkillCatalog.split(r[col]) : List.of(r[col]);
+            for (String v : values) {
+                String t = v.trim();
+                if (t.isEmpty()) continue;
+                String key = t.toLowerCase();
+                display.putIfAbsent(key, t);
+                counts.merge(key, 1, Integer::sum);
+            }
+        });
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .forEach(e -> out.println(display.get(e.getKey()) + "\t" + e.getValue()));
+        out.println("(matched " + total[0] + " students)");
+        return 0;
+    }
+
+    private int importFile(Options o) throws IOException {
+        StudentImport.Result result = StudentImport.importCsv(o.file("import"));
+        for (StudentImport.Reject r : result.rejects()) err.println(r);
+        out.println("Imported " + result.added().size() + ", rejected " + result.rejects().size() + ".");
+        return result.rejects().isEmpty() ? 0 : 1;
+    }
+
+    private int export(Options o) throws IOException {
+        Path dest = o.file("export");
+        String fmt = o.values.get("--format");
+        StudentExport.Format format = fmt == null ? StudentExport.Format.forFile(dest)
+                : StudentExport.Format.valueOf(fmt.toUpperCase(Locale.ROOT));
+        StudentFilter filter = o.filter();
+        long n = StudentExport.export(r -> o.accepts(r, filter), dest, format, (done, total) -> { }, () -> false);
+        out.println("Exported " + n + " students to " + dest);
+        return 0;
+    }
+
+    /** Rows are read through the active store, then the store checks itself (page links for Students.db). */
+    private int validate() throws IOException {
+        int[] problems = {0}, rows = {0};
+        Map<String, Integer> firstRow = new HashMap<>();
+        StudentStorage.forEachRow(r -> {
+            int row = ++rows[0];
+            if (r.length != 10) {
+                out.println("row " + row + ": expected 10 columns, found " + r.length);
+                problems[0]++;
+                return;
+            }
+            if (r[0].isBlank()) {
+                out.println("row " + row + ": missing full name");
+                problems[0]++;
+                return;
+            }
+            Integer prev = firstRow.putIfAbsent(StudentStorage.norm(r[0]), row);
+            if (prev != null) {
+                out.println("row " + row + ": duplicate of row " + prev + " (" + r[0] + ")");
+                problems[0]++;
+            }
+            if (StudentStorage.toYesNo(r[8]).equals("Yes") && StudentStorage.toYesNo(r[9]).equals("Yes")) {
+                out.println("row " + row + ": both whitelisted and blacklisted");
+                problems[0]++;
+            }
+        });
+        for (String p : StudentStorage.check()) {
+            out.println(p);
+            problems[0]++;
+        }
+        out.println(rows[0] + " rows, " + problems[0] + " problem(s).");
+        return problems[0] == 0 ? 0 : 1;
+    }
+
+    private int compact() throws IOException {
+        int dropped = StudentStorage.compact();
+        out.println("Removed " + dropped + " duplicate or blank row(s).");
+        return 0;
+    }
+
+    private int audit(Options o) throws IOException {
+        String from = o.values.get("--from");
+        long seq;
+        try {
+            seq = from == null ? 0 : Long.parseLong(from);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--from needs a sequence number: " + from);
+        }
+        long n = AuditJournal.replay(seq, e -> out.println(AuditJournal.toJson(e)));
+        err.println(n + " event(s).");
+        return 0;
+    }
+
+    /** Default age comes from -Dapp.comments.archiveAfterDays (365 if unset). */
+    private int archive(Options o) throws IOException {
+        String days = o.values.getOrDefault("--older-than",
+                String.valueOf(Integer.getInteger("app.comments.archiveAfterDays", 365)));
+        long n;
+        try {
+            n = Long.parseLong(days);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--older-than needs a number of days: " + days);
+        }
+        if (n < 0) throw new IllegalArgumentException("--older-than needs a number of days: " + days);
+        CommentStore.Archived moved = CommentStore.get().archiveOlderThan(Instant.now().minus(Duration.ofDays(n)));
+        out.println("Archived " + moved.fromLog() + " logged and " + moved.fromRows()
+                + " Faculty Comment line(s) older than " + n + " day(s).");
+        return 0;
+    }
+
+    private int pairs(Options o) throws IOException {
+        String top = o.values.getOrDefault("--top", "10");
+        int n;
+        try {
+            n = Integer.parseInt(top);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--top needs a number: " + top);
+        }
+        for (SkillMatrix.Pair p : SkillMatrix.get().topPairs(n)) {
+            out.println(p.students() + "\t" + p.language() + "\t" + p.database());
+        }
+        return 0;
+    }
+
+    private int searchAll(Options o) throws IOException {
+        Workspaces ws = Workspaces.get();
+        String dirs = o.values.get("--workspaces");
+        if (dirs != null) {
+            for (String d : dirs.split(File.pathSeparator)) if (!d.isBlank()) ws.open(Paths.get(d.trim()));
+        }
+        List<Workspaces.Hit> hits = ws.search(o.filter(), ws.list());
+        out.println("Workspace," + StudentStorage.HEADER);
+        for (Workspaces.Hit h : hits) {
+            String[] row = h.student().toRow();
+            if (!o.accepts(row, StudentFilter.ALL)) continue;
+            out.println(StudentStorage.toCsv(new String[]{h.workspace().name()}) + "," + StudentStorage.toCsv(row));
+        }
+        return 0;
+    }
+
+    private int serve(Options o) throws IOException {
+        DataFileWatcher.start(); // edits from the app or an editor show up in later answers
+        int port = HttpApi.start(o.intValue("--port", Integer.getInteger("app.http.port", HttpApi.DEFAULT_PORT)));
+        out.println("Serving " + StudentSnapshots.current().size() + " students on http://127.0.0.1:" + port
+                + "/students (Ctrl+C to stop)");
+        out.flush();
+        try {
+            Thread.currentThread().join(); // the server threads do the work
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        HttpApi.stop();
+        return 0;
+    }
+
+    private int generate(Options o) throws IOException {
+        Path dest = o.file("generate");
+        int count = o.intValue("--count", -1);
+        if (count < 0) throw new IllegalArgumentException("generate needs --count N.");
+        long seed = o.longValue("--seed", 151);
+        CohortGenerator.write(dest, count, seed);
+        out.println("Wrote " + count + " students (seed " + seed + ") to " + dest);
+        return 0;
+    }
+
+    private int bench(Options o) throws IOException {
+        List<Integer> sizes = new ArrayList<>();
+        for (String s : o.values.getOrDefault("--sizes", "10000,100000").split(",")) {
+            try {
+                sizes.add(Integer.parseInt(s.trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("--sizes needs comma-separated numbers: " + s);
+            }
+        }
+        long seed = o.longValue("--seed", 151);
+        int ops = o.intValue("--ops", 0);
+        Path baselineFile = Paths.get(o.values.getOrDefault("--baseline", "scale-baseline.csv"));
+        double tolerance;
+        try {
+            tolerance = Double.parseDouble(o.values.getOrDefault("--tolerance", "0.30"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--tolerance needs a fraction such as 0.30: " + o.values.get("--tolerance"));
+        }
+        if (StudentSnapshots.current().size() > 0) {
+            err.println("bench replaces every stored student; point -Dapp.baseDir at an empty folder (now "
+                    + AppFiles.BASE_DIR + ").");
+            return 2;
+        }
+
+        List<ScaleBench.Result> results = ScaleBench.run(sizes, seed, ops, line -> {
+            err.println(line);
+            err.flush();
+        });
+        if (o.flags.contains("--record")) {
+            ScaleBench.writeBaseline(baselineFile, results);
+            out.println("Recorded " + results.size() + " results in " + baselineFile);
+            return 0;
+        }
+
+        Map<String, Double> baseline = ScaleBench.readBaseline(baselineFile);
+        if (baseline.isEmpty()) out.println("(no baseline in " + baselineFile + "; run with --record to create one)");
+        int regressions = 0;
+        for (ScaleBench.Verdict v : ScaleBench.compare(results, baseline, tolerance)) {
+            String vs = v.baseline() == null ? ""
+                    : String.format(Locale.ROOT, "  %+6.1f%% vs baseline", (v.result().perSecond() / v.baseline() - 1) * 100);
+            out.println(ScaleBench.format(v.result()) + vs + (v.regressed() ? "  REGRESSED" : ""));
+            if (v.regressed()) regressions++;
+        }
+        if (regressions > 0) out.println(regressions + " phase(s) more than " + Math.round(tolerance * 100) + "% slower than the baseline.");
+        return regressions == 0 ? 0 : 1;
+    }
+
+    private int backup(Options o) throws IOException {
+        Backups b = Backups.get();
+        String action = o.positional.isEmpty() ? "create" : o.positional.get(0);
+        List<String> ids = o.positional.size() > 1 ? o.positional.subList(1, o.positional.size()) : List.of();
+        switch (action) {
+            case "create" -> {
+                long start = System.nanoTime();
+                Backups.Created c = b.create();
+                long ms = (System.nanoTime() - start) / 1_000_000;
+                if (c.unchanged()) {
+                    out.println("No changes since backup " + c.snapshot().id() + ".");
+                } else {
+                    out.println("Backup " + c.snapshot().id() + ": " + c.snapshot().files().size() + " file(s), "
+                            + kb(c.snapshot().size()) + "; read " + c.filesRead() + " changed file(s), stored "
+                            + c.newChunks() + " new chunk(s), " + kb(c.storedBytes()) + ", in " + ms + " ms.");
+                }
+            }
+            case "list" -> {
+                for (Backups.Snapshot s : b.list()) {
+                    out.println(s.id() + "\t" + s.created() + "\t" + s.files().size() + " file(s)\t" + kb(s.size()));
+                }
+            }
+            case "diff" -> {
+                if (ids.isEmpty()) throw new IllegalArgumentException("backup diff needs a snapshot id.");
+                Backups.Snapshot from = b.find(ids.get(0));
+                Backups.Snapshot to = ids.size() > 1 ? b.find(ids.get(1)) : null;
+                out.println(from.id() + " -> " + (to == null ? "current files" : to.id()));
+                Backups.Diff d = b.diff(from, to);
+                for (Backups.FileDiff f : d.files()) {
+                    if (f.change() == Backups.Change.SAME) continue;
+                    out.println("  " + f.change().name().toLowerCase(Locale.ROOT) + "\t" + f.name() + "\t"
+                            + kb(f.sizeBefore()) + " -> " + kb(f.sizeAfter())
+                            + (f.change() == Backups.Change.CHANGED ? " (" + kb(f.changedBytes()) + " in new chunks)" : ""));
+                }
+                if (d.students() != null) {
+                    printNames("added", d.students().added());
+                    printNames("removed", d.students().removed());
+                    printNames("changed", d.students().changed());
+                }
+            }
+            case "restore" -> {
+                if (ids.isEmpty()) throw new IllegalArgumentException("backup restore needs a snapshot id.");
+                Backups.Snapshot s = b.find(ids.get(0));
+                Path into = Paths.get(o.values.getOrDefault("--to", AppFiles.BASE_DIR.toString()));
+                String safety = b.restore(s, into);
+                out.println("Restored backup " + s.id() + " (" + s.files().size() + " file(s)) into " + into.toAbsolutePath() + "."
+                        + (safety == null ? "" : " The files it replaced are in backup " + safety + "."));
+            }
+            case "prune" -> {
+                int keep = o.intValue("--keep", -1);
+                if (keep < 1) throw new IllegalArgumentException("backup prune needs --keep N (at least 1).");
+                Backups.Pruned p = b.prune(keep);
+                out.println("Deleted " + p.snapshots() + " backup(s) and " + p.chunks() + " unused chunk(s), " + kb(p.bytes()) + ".");
+            }
+            default -> throw new IllegalArgumentException("Unknown backup action: " + action);
+        }
+        return 0;
+    }
+
+    private void printNames(String what, List<String> names) {
+        if (names.isEmpty()) return;
+        out.println("  students " + what + " (" + names.size() + "): "
+                + String.join(", ", names.subList(0, Math.min(names.size(), 20)))
+                + (names.size() > 20 ? ", ... and " + (names.size() - 20) + " more" : ""));
+    }
+
+    private static String kb(long bytes) {
+        return String.format(Locale.ROOT, "%.1f KB", bytes / 1024.0);
+    }
+
+    /* ---------- options ---------- */
+
+    private static final class Options {
+        final List<String> positional = new ArrayList<>();
+        final Map<String, String> values = new LinkedHashMap<>();
+        final Set<String> flags = new HashSet<>();
+        String countBy;
+
+        static Options parse(String[] args) {
+            Options o = new Options();
+            for (int i = 1; i < args.length; i++) {
+                String a = args[i];
+                switch (a) {
+                    case "--whitelisted", "--blacklisted", "--record" -> o.flags.add(a);
+                    case "--name", "--status", "--lang", "--db", "--role", "--count-by", "--format", "--from", "--older-than", "--top",
+                         "--count", "--seed", "--sizes", "--ops", "--baseline", "--tolerance", "--workspaces", "--port",
+                         "--to", "--keep" -> {
+                        if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + a);
+                        o.values.put(a, args[++i]);
+                    }
+                    default -> {
+                        if (a.startsWith("--")) throw new IllegalArgumentException("Unknown option: " + a);
+                        o.positional.add(a);
+                    }
+                }
+            }
+            o.countBy = o.values.get("--count-by");
+            return o;
+        }
+
+        StudentFilter filter() {
+            return new StudentFilter(values.get("--name"), values.get("--status"),
+                    values.get("--lang"), values.get("--db"), values.get("--role"));
+        }
+
+        boolean accepts(String[] r, StudentFilter filter) {
+            if (!filter.matches(r)) return false;
+            if (flags.contains("--whitelisted") && !yes(r, Student.WHITELISTED)) return false;
+            return !flags.contains("--blacklisted") || yes(r, Student.BLACKLISTED);
+        }
+
+        Path file(String command) {
+            if (positional.isEmpty()) throw new IllegalArgumentException(command + " needs a file argument.");
+            return Paths.get(positional.get(0));
+        }
+
+        int intValue(String option, int fallback) {
+            String v = values.get(option);
+            try {
+                return v == null ? fallback : Integer.parseInt(v);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(option + " needs a number: " + v);
+            }
+        }
+
+        long longValue(String option, long fallback) {
+            String v = values.get(option);
+            try {
+                return v == null ? fallback : Long.parseLong(v);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(option + " needs a number: " + v);
+            }
+        }
+
+        private static boolean yes(String[] r, int i) {
+            return i < r.length && StudentStorage.toYesNo(r[i]).equals("Yes");
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package cs151.application;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Seeded generator of realistic-looking student rows, for trying the app (and
+ * {@link ScaleBench}) at 100k or 1M students.
+ *
+ * The same seed always gives the same rows. Row i always gets the same name,
+ * and no two indexes share one, so a later batch can start past the end of an
+ * earlier one without clashing. Skills follow a skewed popularity curve, and
+ * both ", " and ";" separators appear as they do in hand-entered data. Job
+ * details contain commas and quotes. Faculty comments run over several lines
+ * and mix both dated styles CommentStore understands ("[YYYY-MM-DD] text" and
+ * "YYYY-MM-DD: text").
+ */
+final class CohortGenerator {
+
+    private static final String[] FIRST = {
+            "Aaliyah", "Aarav", "Abigail", "Adrian", "Aisha", "Alejandro", "Alex", "Amara", "Amrit", "Ana",
+            "Andre", "Angela", "Anh", "Arjun", "Ava", "Benjamin", "Bianca", "Bo", "Brandon", "Camila",
+            "Carlos", "Chen", "Chloe", "Daniel", "Darius", "David", "Deepa", "Diego", "Elena", "Eli",
+            "Emily", "Emma", "Ethan", "Fatima", "Felix", "Gabriel", "Grace", "Hana", "Hao", "Isabella",
+            "Ivan", "Jack", "Jamal", "Jasmine", "Javier", "Jia", "Jorge", "Joshua", "Julia", "Kai",
+            "Karina", "Kenji", "Kevin", "Layla", "Leo", "Liam", "Lina", "Lucas", "Maya", "Mei",
+            "Michael", "Min-jun", "Mohammed", "Nadia", "Naomi", "Nathan", "Nikhil", "Noah", "Olivia", "Omar",
+            "Priya", "Quinn", "Rafael", "Rahul", "Rosa", "Ryan", "Samantha", "Santiago", "Sara", "Sebastian",
+            "Sofia", "Sophia", "Sung", "Tariq", "Thanh", "Theo", "Tomas", "Uma", "Valentina", "Victor",
+            "Vivek", "William", "Xavier", "Ximena", "Yara", "Yusuf", "Zara", "Zhang", "Zoe", "Zoran"};
+
+    private static final String[] LAST = {
+            "Adams", "Ahmed", "Alvarez", "Anderson", "Bautista", "Bell", "Brown", "Castillo", "Chan", "Chavez",
+            "Chen", "Cho", "Clark", "Cruz", "Das", "Davis", "Diaz", "Dinh", "Edwards", "Evans",
+            "Flores", "Garcia", "Gomez", "Gonzalez", "Gupta", "Hall", "Han", "Harris", "Hernandez", "Hill",
+            "Huang", "Ibrahim", "Ito", "Jackson", "Johnson", "Jones", "Kaur", "Khan", "Kim", "King",
+            "Kumar", "Le", "Lee", "Lewis", "Li", "Lin", "Liu", "Lopez", "Martin", "Martinez",
+            "Mendoza", "Miller", "Moore", "Morales", "Nakamura", "Nelson", "Nguyen", "Okafor", "Ortiz", "Park",
+            "Patel", "Perez", "Pham", "Ramirez", "Reyes", "Rivera", "Robinson", "Rodriguez", "Ruiz", "Sanchez",
+            "Santhnam", "Scott", "Shah", "Sharma", "Silva", "Singh", "Smith", "Suzuki", "Tan", "Taylor",
+            "Thomas", "Thompson", "Torres", "Tran", "Tweet", "Vargas", "Vasquez", "Walker", "Wang", "White",
+            "Williams", "Wilson", "Wong", "Wright", "Wu", "Xu", "Yamamoto", "Yang", "Young", "Zhou"};
+
+    /** Name pairs before middle initials are needed; coprime with the stride below. */
+    private static final int PAIRS = FIRST.length * LAST.length;
+    private static final int STRIDE = 7919;
+
+    private static final Weighted STATUS = new Weighted(
+            new String[]{"Freshman", "Sophomore", "Junior", "Senior", "Graduate"},
+            new int[]{20, 20, 25, 25, 10});
+    private static final Weighted ROLE = new Weighted(
+            new String[]{"Backend Developer", "Frontend Developer", "Full Stack Developer", "Data Engineer", ""},
+            new int[]{30, 22, 28, 15, 5});
+    private static final Weighted LANGUAGE = new Weighted(
+            new String[]{"Python", "Java", "JavaScript", "C++", "C", "SQL", "C#", "TypeScript",
+                    "Go", "Kotlin", "Rust", "R", "Swift", "PHP", "Ruby", "Scala"},
+            new int[]{34, 30, 20, 18, 10, 8, 8, 7, 4, 3, 3, 3, 2, 2, 1, 1});
+    private static final Weighted DATABASE = new Weighted(
+            new String[]{"MySQL", "PostgreSQL", "MongoDB", "SQLite"},
+            new int[]{35, 25, 20, 15});
+
+    private static final String[] EMPLOYERS = {
+            "Acme Corp", "Initech", "Globex", "SJSU Library", "Campus Dining", "Apple", "Cisco", "Adobe",
+            "PayPal", "a local startup", "Santa Clara County", "Hooli"};
+    private static final String[] JOBS = {
+            "Software Engineering Intern", "QA Intern", "Teaching Assistant", "IT Help Desk",
+            "Data Analyst Intern", "Web Developer (part-time)", "Research Assistant", "Barista"};
+    private static final String[] NOTES = {
+            "Strong in algorithms", "Needs to finish capstone", "Enrolled in Finish in 4",
+            "Quiet in class, excellent written work", "Asked about \"Career Fair\" prep",
+            "Great team player", "Missed two labs, caught up", "Interested in grad school",
+            "Performative student", "Recommended for TA position", "Looking for work",
+            "Got a job", "Switched to evening section", "Presented at hackathon, won 2nd place"};
+
+    private static final LocalDate FIRST_COMMENT = LocalDate.of(2022, 8, 15);
+    private static final int COMMENT_DAYS = 1200;
+
+    private final Random random;
+
+    CohortGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /** Write {@code count} rows (with the Students.csv header) to a new file. */
+    static void write(Path file, int count, long seed) throws IOException {
+        CohortGenerator gen = new CohortGenerator(seed);
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write(StudentStorage.HEADER);
+            w.newLine();
+            for (int i = 0; i < count; i++) {
+                w.write(StudentStorage.toCsv(gen.row(i)));
+                w.newLine();
+            }
+        }
+    }
+
+    /** Rows {@code from} (inclusive) to {@code to} (exclusive). */
+    List<String[]> rows(int from, int to) {
+        List<String[]> out = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) out.add(row(i));
+        return out;
+    }
+
+    /** One student; the name depends only on i, the rest on the seed and the rows drawn before. */
+    String[] row(int i) {
+        String[] r = new String[Student.COLUMNS];
+        r[Student.FULL_NAME] = name(i);
+        r[Student.ACADEMIC_STATUS] = STATUS.pick(random);
+        boolean employed = random.nextInt(100) < 30;
+        r[Student.EMPLOYED] = employed ? "Yes" : "No";
+        r[Student.JOB_DETAILS] = employed ? job() : "";
+        r[Student.PROGRAMMING_LANGUAGES] = skills(LANGUAGE, 1 + skewed(4));
+        r[Student.DATABASES] = random.nextInt(100) < 10 ? "" : skills(DATABASE, 1 + skewed(3));
+        r[Student.PREFERRED_ROLE] = ROLE.pick(random);
+        r[Student.FACULTY_COMMENT] = comment();
+        int list = random.nextInt(100);
+        boolean legacy = random.nextInt(100) < 5; // older rows stored true/false
+        r[Student.WHITELISTED] = yesNo(list < 15, legacy);
+        r[Student.BLACKLISTED] = yesNo(list >= 15 && list < 18, legacy);
+        return r;
+    }
+
+    /**
+     * "First Last" for the first FIRST x LAST indexes, then the same pairs with
+     * a middle initial, then numbered; the stride spreads neighbours over
+     * different pairs.
+     */
+    static String name(int i) {
+        int pair = (int) ((long) (i % PAIRS) * STRIDE % PAIRS);
+        String first = FIRST[pair % FIRST.length], last = LAST[pair / FIRST.length];
+        int round = i / PAIRS;
+        if (round == 0) return first + " " + last;
+        String middle = (char) ('A' + (round - 1) % 26) + ".";
+        int lap = (round - 1) / 26;
+        return first + " " + middle + " " + last + (lap == 0 ? "" : " " + (lap + 1));
+    }
+
+    private String job() {
+        String job = JOBS[random.nextInt(JOBS.length)], at = EMPLOYERS[random.nextInt(EMPLOYERS.length)];
+        return switch (random.nextInt(3)) {
+            case 0 -> job + ", " + at;
+            case 1 -> job + " at " + at + ", 20 hrs/week";
+            default -> job + " at \"" + at + "\"";
+        };
+    }
+
+    /** {@code n} distinct picks, joined the way the form (", ") or older data (";") does. */
+    private String skills(Weighted from, int n) {
+        Set<String> picked = new LinkedHashSet<>();
+        for (int tries = 0; picked.size() < n && tries < n * 8; tries++) picked.add(from.pick(random));
+        return String.join(random.nextInt(100) < 80 ? ", " : ";", picked);
+    }
+
+    /** Free-text first line, then zero or more dated lines in either style, oldest first. */
+    private String comment() {
+        int lines = skewed(5);
+        if (lines == 0) return random.nextInt(100) < 30 ? "" : NOTES[random.nextInt(NOTES.length)];
+        int[] days = new int[lines];
+        for (int k = 0; k < lines; k++) days[k] = random.nextInt(COMMENT_DAYS);
+        Arrays.sort(days);
+        StringBuilder sb = new StringBuilder(NOTES[random.nextInt(NOTES.length)]);
+        for (int d : days) {
+            LocalDate date = FIRST_COMMENT.plusDays(d);
+            String note = NOTES[random.nextInt(NOTES.length)];
+            sb.append('\n').append(random.nextBoolean() ? "[" + date + "] " + note : date + ": " + note);
+        }
+        return sb.toString();
+    }
+
+    /** 0..max, with small values most likely. */
+    private int skewed(int max) {
+        int n = 0;
+        while (n < max && random.nextInt(100) < 45) n++;
+        return n;
+    }
+
+    private static String yesNo(boolean yes, boolean legacy) {
+        return legacy ? String.valueOf(yes) : yes ? "Yes" : "No";
+    }
+
+    /** Values drawn in proportion to their weights. */
+    private static final class Weighted {
+        final String[] values;
+        final int[] upTo; // cumulative weights
+        final int total;
+
+        Weighted(String[] values, int[] weights) {
+            this.values = values;
+            this.upTo = new int[weights.length];
+            int sum = 0;
+            for (int i = 0; i < weights.length; i++) upTo[i] = sum += weights[i];
+            this.total = sum;
+        }
+
+        String pick(Random random) {
+            int x = random.nextInt(total);
+            int i = Arrays.binarySearch(upTo, x + 1);
+            return values[i >= 0 ? i : -i - 1];
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package cs151.application;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Student counts for the Reports screen: by academic status, preferred role,
+ * employment, whitelist/blacklist state, programming language and database.
+ *
+ * Counted once from the current {@link StudentSnapshots} version on first use;
+ * after that every stored add, edit or delete moves the affected buckets by one
+ * (StudentStorage's change events), so a report costs a copy of the buckets and
+ * never another pass over the students.
+ */
+public final class CohortStats {
+
+    /** The ways students are counted. */
+    public enum Dimension {
+        STATUS("Academic Status"),
+        ROLE("Preferred Role"),
+        EMPLOYMENT("Employment"),
+        LISTS("Whitelist / Blacklist"),
+        LANGUAGES("Programming Languages"),
+        DATABASES("Databases");
+
+        private final String title;
+
+        Dimension(String title) {
+            this.title = title;
+        }
+
+        public String title() {
+            return title;
+        }
+    }
+
+    /** One bucket as shown in a report. */
+    public record Count(String value, int students) {}
+
+    /** A copy of all buckets at one moment, largest first. */
+    public record Report(int total, Map<Dimension, List<Count>> counts) {
+        public List<Count> of(Dimension d) {
+            return counts.getOrDefault(d, List.of());
+        }
+    }
+
+    private static final CohortStats INSTANCE = new CohortStats();
+
+    private final Map<Dimension, Map<String, Bucket>> buckets = new EnumMap<>(Dimension.class);
+    private int total;
+    private boolean counted; // false until the first report (and after a full reload)
+
+    private CohortStats() {
+        StudentStorage.addChangeListener(new StudentStorage.ChangeListener() {
+            @Override
+            public void rowChanged(String[] before, String[] after) {
+                apply(before, after);
+            }
+
+            @Override
+            public void reloaded() {
+                drop();
+            }
+        });
+    }
+
+    public static CohortStats get() {
+        return INSTANCE;
+    }
+
+    /** Current counts; the first call counts the students, later calls only copy. */
+    public synchronized Report report() throws IOException {
+        if (!counted) {
+            clear();
+            for (Student s : StudentSnapshots.current().students()) add(s, 1);
+            counted = true;
+        }
+        Map<Dimension, List<Count>> out = new EnumMap<>(Dimension.class);
+        for (Dimension d : Dimension.values()) {
+            List<Count> list = new ArrayList<>();
+            for (Bucket b : buckets.get(d).values()) list.add(new Count(b.label, b.students));
+            list.sort(Comparator.comparingInt(Count::students).reversed()
+                    .thenComparing(c -> c.value().toLowerCase(Locale.ROOT)));
+            out.put(d, Collections.unmodifiableList(list));
+        }
+        return new Report(total, Collections.unmodifiableMap(out));
+    }
+
+    /* ---------- deltas ---------- */
+
+    private synchronized void apply(String[] before, String[] after) {
+        if (!counted) return; // not counted yet; the first report sees this row
+        if (before != null && before.length >= Student.COLUMNS) add(StudentStorage.toStudent(before), -1);
+        if (after != null && after.length >= Student.COLUMNS) add(StudentStorage.toStudent(after), 1);
+    }
+
+    private synchronized void drop() {
+        counted = false;
+        clear();
+    }
+
+    private void clear() {
+        total = 0;
+        for (Dimension d : Dimension.values()) buckets.put(d, new HashMap<>());
+    }
+
+    /** Move every bucket this student falls in by delta (+1 or -1). */
+    private void add(Student s, int delta) {
+        total += delta;
+        bump(Dimension.STATUS, orNotSet(s.getAcademicStatus()), delta);
+        bump(Dimension.ROLE, orNotSet(s.getPreferredRole()), delta);
+        bump(Dimension.EMPLOYMENT, "Yes".equals(StudentStorage.toYesNo(s.getEmployed())) ? "Employed" : "Not employed", delta);
+        bump(Dimension.LISTS, listState(s), delta);
+        bumpEach(Dimension.LANGUAGES, s.getProgrammingLanguages(), delta);
+        bumpEach(Dimension.DATABASES, s.getDatabases(), delta);
+    }
+
+    /** Each distinct entry of a "Java; Python" style list counts once per student. */
+    private void bumpEach(Dimension d, String list, int delta) {
+        Set<String> seen = new HashSet<>();
+        for (String v : SkillCatalog.split(list)) {
+            if (seen.add(v.toLowerCase(Locale.ROOT))) bump(d, v, delta);
+        }
+    }
+
+    private void bump(Dimension d, String value, int delta) {
+        Map<String, Bucket> m = buckets.get(d);
+        String key = value.toLowerCase(Locale.ROOT);
+        Bucket b = m.get(key);
+        if (b == null) {
+            if (delta < 0) return;
+            m.put(key, b = new Bucket(value)); // first spelling seen is the one shown
+        }
+        b.students += delta;
+        if (b.students <= 0) m.remove(key);
+    }
+
+    private static String listState(Student s) {
+        boolean white = "Yes".equals(s.getWhiteListed()), black = "Yes".equals(s.getBlackListed());
+        if (white && black) return "Whitelisted and blacklisted";
+        return white ? "Whitelisted" : black ? "Blacklisted" : "Neither";
+    }
+
+    private static String orNotSet(String v) {
+        return v == null || v.isBlank() ? "(not set)" : v.trim();
+    }
+
+    private static final class Bucket {
+        final String label;
+        int students;
+
+        Bucket(String label) {
+            this.label = label;
+        }
+    }
+}
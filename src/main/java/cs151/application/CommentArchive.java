@@ -0,0 +1,390 @@
+package cs151.application;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Cold tier for old faculty comments (Comments.archive next to Comments.log).
+ *
+ * Each archive run appends one Deflate-compressed block per student holding
+ * that student's moved comments, oldest first. Only the small block headers
+ * are read to build the per-student index; a block is inflated when someone
+ * actually opens that student's older history. Renames and deletes are
+ * appended as records, the same way the comment log handles them.
+ *
+ * An archive run ({@link CommentStore#archiveOlderThan}) writes its blocks
+ * between an 'S' and an 'M' record in one forced write. Blocks after an 'S'
+ * count only once their 'M' is on disk, so a crash mid-write archives nothing.
+ * The 'M' record says what the run is about to drop from Comments.log and the
+ * Faculty Comment cells; 'E' follows once both are rewritten. A run that died
+ * in between is still {@link #pending()}, and the next run finishes it
+ * instead of archiving the same comments again.
+ *
+ * Record layout (big-endian):
+ *   'B' key count rawLength packedLength packed-bytes   comment block
+ *   'R' oldKey newKey                                    student renamed
+ *   'D' key                                              student deleted
+ *   'S'                                                  archive run starts
+ *   'M' logCutoffMillis keys {key count {text}}          run's blocks are complete
+ *   'E'                                                  run's log and rows are rewritten
+ * Keys are a u16 length plus UTF-8, texts an int length plus UTF-8. Block
+ * contents: per comment, epochMillis (long) and the text.
+ *
+ * Writers (archive runs, renames, deletes) hold Comments.lock and re-read the
+ * record headers first, so they always append after another process's records.
+ */
+final class CommentArchive {
+
+    private final Path file;
+    private Map<String, List<Block>> index; // null until first use
+    private long validEnd;                  // end of the last complete record
+    private Run pending;                    // last run without its 'E', or null
+
+    CommentArchive(Path file) {
+        this.file = file;
+    }
+
+    /** Where one block's packed bytes sit in the file. */
+    private record Block(long offset, int rawLength, int packedLength, int count) {}
+
+    /**
+     * What an archive run drops once its blocks are written: log comments
+     * older than {@code logCutoff}, and these Faculty Comment entries (each a
+     * dated line plus its continuation lines) by student key.
+     */
+    record Run(Instant logCutoff, Map<String, List<String>> rowComments) {}
+
+    /** Number of archived comments for the student (no block is inflated). */
+    synchronized int count(String key) throws IOException {
+        List<Block> blocks = index().get(key);
+        if (blocks == null) return 0;
+        int n = 0;
+        for (Block b : blocks) n += b.count;
+        return n;
+    }
+
+    /** All archived comments for the student, oldest first; inflates only that student's blocks. */
+    synchronized List<CommentStore.Comment> read(String key) throws IOException {
+        List<Block> blocks = index().get(key);
+        List<CommentStore.Comment> out = new ArrayList<>();
+        if (blocks == null) return out;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (Block b : blocks) {
+                ByteBuffer packed = ByteBuffer.allocate(b.packedLength);
+                while (packed.hasRemaining()) {
+                    if (ch.read(packed, b.offset + packed.position()) < 0) throw new EOFException("Archive block cut short");
+                }
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(inflate(packed.array(), b.rawLength)));
+                for (int i = 0; i < b.count; i++) {
+                    long millis = in.readLong();
+                    byte[] text = readText(in);
+                    out.add(new CommentStore.Comment(Instant.ofEpochMilli(millis), new String(text, StandardCharsets.UTF_8)));
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Append one block per student and force them to disk before returning,
+     * so the caller can drop the originals afterwards.
+     */
+    synchronized void append(Map<String, List<CommentStore.Comment>> byStudent) throws IOException {
+        if (byStudent.isEmpty()) return;
+        index = scan();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<Map.Entry<String, Block>> blocks = writeBlocks(out, validEnd, byStudent);
+        write(out.toByteArray());
+        for (Map.Entry<String, Block> b : blocks) index.computeIfAbsent(b.getKey(), k -> new ArrayList<>()).add(b.getValue());
+    }
+
+    /**
+     * Append an archive run: its blocks and the record of what it drops, in one
+     * forced write. Until {@link #finishRun()} the run stays {@link #pending()}.
+     */
+    synchronized void appendRun(Map<String, List<CommentStore.Comment>> byStudent, Run run) throws IOException {
+        index = scan();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write('S');
+        List<Map.Entry<String, Block>> blocks = writeBlocks(out, validEnd + 1, byStudent);
+        DataOutputStream d = new DataOutputStream(out);
+        d.writeByte('M');
+        d.writeLong(run.logCutoff().toEpochMilli());
+        d.writeInt(run.rowComments().size());
+        for (Map.Entry<String, List<String>> e : run.rowComments().entrySet()) {
+            writeKey(d, e.getKey());
+            d.writeInt(e.getValue().size());
+            for (String text : e.getValue()) writeText(d, text);
+        }
+        write(out.toByteArray());
+        for (Map.Entry<String, Block> b : blocks) index.computeIfAbsent(b.getKey(), k -> new ArrayList<>()).add(b.getValue());
+        pending = run;
+    }
+
+    /** Record that the pending run's log and rows are rewritten. */
+    synchronized void finishRun() throws IOException {
+        index = scan();
+        if (pending == null) return;
+        write(new byte[] {'E'});
+        pending = null;
+    }
+
+    /** The last run whose log and rows were not rewritten (the process died), or null. */
+    synchronized Run pending() throws IOException {
+        index = scan();
+        return pending;
+    }
+
+    /** Write one 'B' record per student into out, which lands in the file at {@code at}. */
+    private static List<Map.Entry<String, Block>> writeBlocks(ByteArrayOutputStream out, long at,
+                                                              Map<String, List<CommentStore.Comment>> byStudent) throws IOException {
+        List<Map.Entry<String, Block>> blocks = new ArrayList<>();
+        DataOutputStream h = new DataOutputStream(out);
+        for (Map.Entry<String, List<CommentStore.Comment>> e : byStudent.entrySet()) {
+            List<CommentStore.Comment> comments = e.getValue();
+            if (comments.isEmpty()) continue;
+            ByteArrayOutputStream raw = new ByteArrayOutputStream();
+            DataOutputStream d = new DataOutputStream(raw);
+            for (CommentStore.Comment c : comments) {
+                d.writeLong(c.time().toEpochMilli());
+                writeText(d, c.text());
+            }
+            byte[] packed = deflate(raw.toByteArray());
+
+            h.writeByte('B');
+            writeKey(h, e.getKey());
+            h.writeInt(comments.size());
+            h.writeInt(raw.size());
+            h.writeInt(packed.length);
+            blocks.add(Map.entry(e.getKey(), new Block(at + out.size(), raw.size(), packed.length, comments.size())));
+            h.write(packed);
+        }
+        return blocks;
+    }
+
+    synchronized void rename(String from, String to) throws IOException {
+        index = scan();
+        if (from.equals(to) || !index.containsKey(from)) return;
+        ByteArrayOutputStream rec = new ByteArrayOutputStream();
+        DataOutputStream d = new DataOutputStream(rec);
+        d.writeByte('R');
+        writeKey(d, from);
+        writeKey(d, to);
+        write(rec.toByteArray());
+        applyRename(from, to);
+    }
+
+    synchronized void delete(String key) throws IOException {
+        index = scan();
+        if (index.remove(key) == null) return;
+        ByteArrayOutputStream rec = new ByteArrayOutputStream();
+        DataOutputStream d = new DataOutputStream(rec);
+        d.writeByte('D');
+        writeKey(d, key);
+        write(rec.toByteArray());
+    }
+
+    /** Forget the in-memory index (another process wrote the archive); rebuilt on next use. */
+    synchronized void reload() {
+        index = null;
+    }
+
+    /* ---------- file + index ---------- */
+
+    private Map<String, List<Block>> index() throws IOException {
+        if (index == null) index = scan();
+        return index;
+    }
+
+    /** Read record headers only; packed bytes are skipped over. */
+    private Map<String, List<Block>> scan() throws IOException {
+        index = new HashMap<>();
+        validEnd = 0;
+        pending = null;
+        if (!Files.exists(file)) return index;
+        List<Map.Entry<String, Block>> staged = null; // blocks of a run whose 'M' is not read yet
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+             DataInputStream in = new DataInputStream(raw)) {
+            long pos = 0;
+            while (true) {
+                int type = in.read();
+                if (type < 0) break;
+                try {
+                    switch (type) {
+                        case 'B' -> {
+                            byte[] key = readKey(in);
+                            int count = in.readInt(), rawLength = in.readInt(), packedLength = in.readInt();
+                            long offset = pos + 1 + 2 + key.length + 12;
+                            in.skipNBytes(packedLength);
+                            Block b = new Block(offset, rawLength, packedLength, count);
+                            String k = new String(key, StandardCharsets.UTF_8);
+                            pos = offset + packedLength;
+                            if (staged != null) {
+                                staged.add(Map.entry(k, b));
+                            } else {
+                                index.computeIfAbsent(k, x -> new ArrayList<>()).add(b);
+                                validEnd = pos;
+                            }
+                        }
+                        case 'S' -> {
+                            staged = new ArrayList<>();
+                            pos += 1;
+                        }
+                        case 'M' -> {
+                            long cutoff = in.readLong();
+                            long length = 1 + 8 + 4;
+                            Map<String, List<String>> rows = new LinkedHashMap<>();
+                            for (int keys = in.readInt(); keys > 0; keys--) {
+                                byte[] key = readKey(in);
+                                length += 2 + key.length + 4;
+                                List<String> texts = new ArrayList<>();
+                                for (int n = in.readInt(); n > 0; n--) {
+                                    byte[] text = readText(in);
+                                    length += 4 + text.length;
+                                    texts.add(new String(text, StandardCharsets.UTF_8));
+                                }
+                                rows.put(new String(key, StandardCharsets.UTF_8), texts);
+                            }
+                            if (staged != null) {
+                                for (Map.Entry<String, Block> b : staged) index.computeIfAbsent(b.getKey(), k -> new ArrayList<>()).add(b.getValue());
+                            }
+                            staged = null;
+                            pending = new Run(Instant.ofEpochMilli(cutoff), rows);
+                            pos += length;
+                            validEnd = pos;
+                        }
+                        case 'E' -> {
+                            pending = null;
+                            pos += 1;
+                            validEnd = pos;
+                        }
+                        case 'R' -> {
+                            byte[] from = readKey(in), to = readKey(in);
+                            applyRename(new String(from, StandardCharsets.UTF_8), new String(to, StandardCharsets.UTF_8));
+                            pos += 1 + 2 + from.length + 2 + to.length;
+                            validEnd = pos;
+                        }
+                        case 'D' -> {
+                            byte[] key = readKey(in);
+                            index.remove(new String(key, StandardCharsets.UTF_8));
+                            pos += 1 + 2 + key.length;
+                            validEnd = pos;
+                        }
+                        default -> throw new IOException("Unknown record in " + file.getFileName() + " at byte " + pos);
+                    }
+                } catch (EOFException e) {
+                    break; // last record was cut off by a crash; everything before it is intact
+                }
+            }
+        }
+        return index;
+    }
+
+    private void applyRename(String from, String to) {
+        List<Block> moved = index.remove(from);
+        if (moved == null) return;
+        List<Block> existing = index.get(to);
+        if (existing == null) {
+            index.put(to, moved);
+        } else {
+            // file order is archive order, so sorting by offset keeps oldest first
+            existing.addAll(moved);
+            existing.sort((a, b) -> Long.compare(a.offset, b.offset));
+        }
+    }
+
+    /**
+     * Write bytes after the last complete record and force them. A torn tail
+     * left by a crash (or a run without its 'M') is cut off first.
+     */
+    private void write(byte[] bytes) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (ch.size() > validEnd) ch.truncate(validEnd);
+            ByteBuffer buf = ByteBuffer.wrap(bytes);
+            for (long pos = validEnd; buf.hasRemaining(); ) pos += ch.write(buf, pos);
+            ch.force(false);
+        }
+        validEnd += bytes.length;
+    }
+
+    private static void writeText(DataOutputStream d, String text) throws IOException {
+        byte[] b = text.getBytes(StandardCharsets.UTF_8);
+        d.writeInt(b.length);
+        d.write(b);
+    }
+
+    private static byte[] readText(DataInputStream in) throws IOException {
+        byte[] b = new byte[in.readInt()];
+        in.readFully(b);
+        return b;
+    }
+
+    private static void writeKey(DataOutputStream d, String key) throws IOException {
+        byte[] b = key.getBytes(StandardCharsets.UTF_8);
+        if (b.length > 0xFFFF) throw new IOException("Student name too long to archive");
+        d.writeShort(b.length);
+        d.write(b);
+    }
+
+    private static byte[] readKey(DataInputStream in) throws IOException {
+        byte[] b = new byte[in.readUnsignedShort()];
+        in.readFully(b);
+        return b;
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater d = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            d.setInput(raw);
+            d.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 3));
+            byte[] buf = new byte[8192];
+            while (!d.finished()) out.write(buf, 0, d.deflate(buf));
+            return out.toByteArray();
+        } finally {
+            d.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] packed, int rawLength) throws IOException {
+        Inflater inf = new Inflater();
+        try {
+            inf.setInput(packed);
+            byte[] raw = new byte[rawLength];
+            int n = 0;
+            while (n < rawLength && !inf.finished()) {
+                int got = inf.inflate(raw, n, rawLength - n);
+                if (got == 0 && (inf.needsInput() || inf.needsDictionary())) break;
+                n += got;
+            }
+            if (n != rawLength) throw new IOException("Archive block is damaged");
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Archive block is damaged", e);
+        } finally {
+            inf.end();
+        }
+    }
+}
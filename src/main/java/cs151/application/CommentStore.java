@@ -0,0 +1,597 @@
+package cs151.application;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Append-only faculty comment log (Comments.log next to Students.csv).
+ * Adding a comment writes one short line instead of rewriting Students.csv.
+ * Each student's comments are indexed by byte offset in memory (built with one
+ * scan on first use), so history can be paged newest first with positioned reads.
+ *
+ * Line format (tab separated, text escaped):
+ *   C  key  epochMillis  text   a comment
+ *   R  oldKey  newKey           student renamed
+ *   D  key                      student deleted
+ *
+ * Appends hold an OS lock on Comments.lock, so the app and a Cli in another
+ * process can both add comments; readers take no lock and never change the log.
+ *
+ * Comments older than a cut-off can be moved to {@link CommentArchive}
+ * (see {@link #archiveOlderThan}); they are read back only when a student's
+ * full history is opened.
+ *
+ * Everything that hands rows to someone else (export, Cli query, HttpApi) goes
+ * through {@link #withLogged}, so logged comments show up in the Faculty Comment
+ * value there too. Each add is published to StudentStorage listeners as a
+ * comment event (audit journal included); comments are not part of EditHistory.
+ */
+public final class CommentStore {
+
+    /** One stored comment. */
+    public record Comment(Instant time, String text) {
+        /** "[YYYY-MM-DD] text", the format the comments screen shows. */
+        @Override
+        public String toString() {
+            return "[" + LocalDate.ofInstant(time, ZoneId.systemDefault()) + "] " + text;
+        }
+    }
+
+    private static final CommentStore DEFAULT = new CommentStore(AppFiles.BASE_DIR.resolve("Comments.log"));
+
+    /** Comment lines in the Faculty Comment cell that start with a date: "[2025-11-12] ..." or "2025-10-25: ...". */
+    private static final Pattern DATED_LINE = Pattern.compile("^\\[?(\\d{4}-\\d{2}-\\d{2})\\]?:?\\s*(.*)$");
+
+    private final Path file;
+    private final Path lockFile;
+    private final CommentArchive archive;
+    private Map<String, Entries> index; // null until first use
+    private FileChannel lock;           // held while lockDepth > 0
+    private int lockDepth;
+
+    CommentStore(Path file) {
+        this.file = file;
+        this.lockFile = file.resolveSibling("Comments.lock");
+        this.archive = new CommentArchive(file.resolveSibling("Comments.archive"));
+    }
+
+    public static CommentStore get() {
+        return DEFAULT;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    /** Forget the in-memory index (the log was changed by someone else); rebuilt on next use. */
+    synchronized void reload() {
+        index = null;
+        archive.reload();
+    }
+
+    /** Append one comment for the student; costs one small write. */
+    public synchronized Comment add(String studentName, String text) throws IOException {
+        FlightEvents.CommentSave ev = new FlightEvents.CommentSave();
+        ev.begin();
+        Comment c = new Comment(Instant.now(), text.strip());
+        String key = StudentStorage.norm(studentName);
+        Map<String, Entries> idx = index(); // built before the append, so the scan cannot count the new line too
+        long offset = append("C\t" + escape(key) + "\t" + c.time().toEpochMilli() + "\t" + escape(c.text()));
+        idx.computeIfAbsent(key, k -> new Entries()).add(offset, c);
+        ev.end();
+        if (ev.shouldCommit()) {
+            ev.student = studentName;
+            ev.length = c.text().length();
+            ev.bytes = Files.size(file);
+            ev.commit();
+        }
+        StudentStorage.commentsAdded(this, List.of(studentName), c);
+        return c;
+    }
+
+    /** Append the same comment for several students with one write; returns the stored comment. */
+    public synchronized Comment addAll(List<String> studentNames, String text) throws IOException {
+        FlightEvents.CommentSave ev = new FlightEvents.CommentSave();
+        ev.begin();
+        Comment c = new Comment(Instant.now(), text.strip());
+        List<String> keys = new ArrayList<>(), lines = new ArrayList<>();
+        for (String name : studentNames) {
+            String key = StudentStorage.norm(name);
+            keys.add(key);
+            lines.add("C\t" + escape(key) + "\t" + c.time().toEpochMilli() + "\t" + escape(c.text()));
+        }
+        Map<String, Entries> idx = index();
+        long[] offsets = append(lines);
+        for (int i = 0; i < keys.size(); i++) idx.computeIfAbsent(keys.get(i), k -> new Entries()).add(offsets[i], c);
+        ev.end();
+        if (ev.shouldCommit()) {
+            ev.student = studentNames.size() + " students";
+            ev.length = c.text().length();
+            ev.bytes = Files.size(file);
+            ev.commit();
+        }
+        StudentStorage.commentsAdded(this, studentNames, c);
+        return c;
+    }
+
+    /** Number of stored comments for the student. */
+    public synchronized int count(String studentName) throws IOException {
+        Entries e = index().get(StudentStorage.norm(studentName));
+        return e == null ? 0 : e.size;
+    }
+
+    /** Newest stored comment, or null (served from memory). */
+    public synchronized Comment latest(String studentName) throws IOException {
+        Entries e = index().get(StudentStorage.norm(studentName));
+        return e == null || e.size == 0 ? null : e.latest;
+    }
+
+    /** Comments newest first: skip {@code from}, return at most {@code limit}. */
+    public synchronized List<Comment> page(String studentName, int from, int limit) throws IOException {
+        Entries e = index().get(StudentStorage.norm(studentName));
+        List<Comment> out = new ArrayList<>();
+        if (e == null) return out;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int i = e.size - 1 - from; i >= 0 && out.size() < limit; i--) {
+                out.add(comment(readLine(ch, e.offsets[i]).split("\t", -1)));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * The row as other readers should see it: a copy whose Faculty Comment cell
+     * is followed by every logged comment, oldest first, one "[YYYY-MM-DD] text"
+     * line each. Returns the row itself when the student has none (no file read).
+     */
+    public String[] withLogged(String[] row) throws IOException {
+        if (row.length <= Student.FACULTY_COMMENT || count(row[0]) == 0) return row;
+        List<Comment> logged = page(row[0], 0, Integer.MAX_VALUE);
+        StringBuilder sb = new StringBuilder(row[Student.FACULTY_COMMENT]);
+        for (int i = logged.size() - 1; i >= 0; i--) {
+            if (sb.length() > 0) sb.append('\n');
+            sb.append(logged.get(i));
+        }
+        String[] copy = row.clone();
+        copy[Student.FACULTY_COMMENT] = sb.toString();
+        return copy;
+    }
+
+    /** Number of archived comments for the student (nothing is decompressed). */
+    public synchronized int archivedCount(String studentName) throws IOException {
+        return archive.count(StudentStorage.norm(studentName));
+    }
+
+    /** Archived comments newest first; decompresses this student's archive blocks only. */
+    public synchronized List<Comment> archived(String studentName) throws IOException {
+        List<Comment> out = archive.read(StudentStorage.norm(studentName));
+        out.sort(Comparator.comparing(Comment::time).reversed());
+        return out;
+    }
+
+    /** Move the student's comments to a new name (after a profile rename). */
+    public synchronized void rename(String oldName, String newName) throws IOException {
+        String from = StudentStorage.norm(oldName), to = StudentStorage.norm(newName);
+        if (from.equals(to)) return;
+        lock();
+        try {
+            archive.rename(from, to);
+            if (index().get(from) == null) return;
+            append("R\t" + escape(from) + "\t" + escape(to));
+            applyRename(from, to);
+        } finally {
+            unlock();
+        }
+    }
+
+    /** Forget the student's comments (after a profile delete). */
+    public synchronized void delete(String studentName) throws IOException {
+        String key = StudentStorage.norm(studentName);
+        lock();
+        try {
+            archive.delete(key);
+            if (index().remove(key) != null) append("D\t" + escape(key));
+        } finally {
+            unlock();
+        }
+    }
+
+    /** How many comments one archive run moved, by where they came from. */
+    public record Archived(int fromLog, int fromRows) {}
+
+    /**
+     * Move comments dated before the cut-off into the archive: entries in the
+     * log, and dated entries in the Faculty Comment cells (a dated line with
+     * the undated lines under it). Runs under Comments.lock, so no process
+     * appends while the log is rewritten. The archive is written and forced
+     * first, with a record of what the run drops; then Comments.log is
+     * rewritten without the moved (and renamed or deleted) entries, then the
+     * student rows once, and the run is marked done. If the process dies
+     * before that, the next run drops what the archive already holds instead
+     * of archiving it again.
+     */
+    public synchronized Archived archiveOlderThan(Instant cutoff) throws IOException {
+        lock();
+        try {
+            return archive(cutoff);
+        } finally {
+            unlock();
+        }
+    }
+
+    private Archived archive(Instant cutoff) throws IOException {
+        // rows first, so a duplicate-name store fails before anything is moved
+        List<String[]> rows = StudentStorage.readAllRows();
+        Set<String> names = new HashSet<>();
+        for (String[] r : rows) {
+            if (r.length > 0 && !names.add(StudentStorage.norm(r[0])))
+                throw new IllegalStateException("Duplicate student full name: " + r[0] + " (run compact first)");
+        }
+
+        // what a run that died half way already put in the archive
+        CommentArchive.Run pending = archive.pending();
+        Map<String, List<String>> archivedRows = new HashMap<>();
+        if (pending != null) pending.rowComments().forEach((k, v) -> archivedRows.put(k, new ArrayList<>(v)));
+
+        Map<String, List<Comment>> moved = new LinkedHashMap<>();
+        Map<String, List<String>> dropped = new LinkedHashMap<>(); // Faculty Comment entries taken out of the rows
+        int fromRows = 0;
+        boolean rowsChanged = false;
+        LocalDate cutoffDay = LocalDate.ofInstant(cutoff, ZoneId.systemDefault());
+        for (int i = 0; i < rows.size(); i++) {
+            String[] r = rows.get(i);
+            if (r.length <= Student.FACULTY_COMMENT || r[Student.FACULTY_COMMENT].isEmpty()) continue;
+            String key = StudentStorage.norm(r[0]);
+            List<String> archived = archivedRows.get(key);
+            StringBuilder kept = new StringBuilder();
+            boolean changedHere = false;
+            for (String entry : entries(r[Student.FACULTY_COMMENT])) {
+                boolean inArchive = archived != null && archived.remove(entry);
+                Comment c = inArchive ? null : datedBefore(entry, cutoffDay);
+                if (inArchive || c != null) {
+                    if (c != null) {
+                        moved.computeIfAbsent(key, k -> new ArrayList<>()).add(c);
+                        fromRows++;
+                    }
+                    dropped.computeIfAbsent(key, k -> new ArrayList<>()).add(entry);
+                    changedHere = true;
+                } else {
+                    if (kept.length() > 0) kept.append('\n');
+                    kept.append(entry);
+                }
+            }
+            if (changedHere) {
+                String[] copy = r.clone();
+                copy[Student.FACULTY_COMMENT] = kept.toString();
+                rows.set(i, copy);
+                rowsChanged = true;
+            }
+        }
+
+        // every live comment line, by offset, under the name it belongs to now;
+        // scanned again under the lock so appends from other processes are kept
+        index = null;
+        Map<Long, String> live = new HashMap<>();
+        index().forEach((key, e) -> {
+            for (int i = 0; i < e.size; i++) live.put(e.offsets[i], key);
+        });
+        Path tmp = null;
+        int fromLog = 0;
+        if (Files.exists(file)) {
+            tmp = Files.createTempFile(file.getParent(), "Comments", ".tmp");
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+                 BufferedWriter w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+                long pos = 0, start = 0;
+                int b;
+                while ((b = in.read()) != -1) {
+                    pos++;
+                    if (b != '\n') { line.write(b); continue; }
+                    String key = live.get(start);
+                    if (key != null) {
+                        Comment c = comment(line.toString(StandardCharsets.UTF_8).split("\t", -1));
+                        boolean inArchive = pending != null && c.time().isBefore(pending.logCutoff());
+                        if (!inArchive && c.time().isBefore(cutoff)) {
+                            moved.computeIfAbsent(key, k -> new ArrayList<>()).add(c);
+                            fromLog++;
+                        } else if (!inArchive) {
+                            w.write("C\t" + escape(key) + "\t" + c.time().toEpochMilli() + "\t" + escape(c.text()));
+                            w.write("\n");
+                        }
+                    }
+                    line.reset();
+                    start = pos;
+                }
+            }
+        }
+
+        try {
+            for (List<Comment> list : moved.values()) list.sort(Comparator.comparing(Comment::time));
+            if (!moved.isEmpty() || pending != null) {
+                Instant logCutoff = pending != null && pending.logCutoff().isAfter(cutoff) ? pending.logCutoff() : cutoff;
+                archive.appendRun(moved, new CommentArchive.Run(logCutoff, dropped));
+            }
+            if (tmp != null) {
+                AppFiles.moveIntoPlace(tmp, file);
+                DataFileWatcher.ownWrite(file);
+                index = null; // offsets changed; rebuilt on next use
+            }
+        } finally {
+            if (tmp != null) Files.deleteIfExists(tmp);
+        }
+        if (rowsChanged) StudentStorage.writeAllRows(rows);
+        archive.finishRun();
+        return new Archived(fromLog, fromRows);
+    }
+
+    /**
+     * A Faculty Comment cell as entries: each dated line together with the
+     * undated lines under it. Lines above the first dated one are one entry.
+     */
+    private static List<String> entries(String cell) {
+        List<String> out = new ArrayList<>();
+        StringBuilder entry = new StringBuilder();
+        for (String line : cell.split("\\R")) {
+            Matcher m = DATED_LINE.matcher(line.trim());
+            if (m.matches() && parseDay(m.group(1)) != null && entry.length() > 0) {
+                out.add(entry.toString());
+                entry.setLength(0);
+            }
+            if (entry.length() > 0) entry.append('\n');
+            entry.append(line);
+        }
+        if (entry.length() > 0) out.add(entry.toString());
+        return out;
+    }
+
+    /** The entry as a comment if its first line is dated before the day, otherwise null. */
+    private static Comment datedBefore(String entry, LocalDate day) {
+        int nl = entry.indexOf('\n');
+        Matcher m = DATED_LINE.matcher((nl < 0 ? entry : entry.substring(0, nl)).trim());
+        LocalDate d = m.matches() ? parseDay(m.group(1)) : null;
+        if (d == null || !d.isBefore(day)) return null;
+        String text = nl < 0 ? m.group(2) : m.group(2) + entry.substring(nl);
+        return new Comment(d.atStartOfDay(ZoneId.systemDefault()).toInstant(), text);
+    }
+
+    /* ---------- file + index ---------- */
+
+    private long append(String line) throws IOException {
+        return append(List.of(line))[0];
+    }
+
+    /**
+     * Append lines in one write; returns the offset each one starts at. Runs
+     * under the log's lock, so appends from two processes never interleave and
+     * a last line without its newline can only be an append that died: it is
+     * cut off here first, so the new lines do not run on from it.
+     */
+    private long[] append(List<String> lines) throws IOException {
+        lock();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long offset = cutTornTail(ch);
+            long[] offsets = new long[lines.size()];
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (int i = 0; i < lines.size(); i++) {
+                offsets[i] = offset + out.size();
+                out.writeBytes((lines.get(i) + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            ByteBuffer buf = ByteBuffer.wrap(out.toByteArray());
+            for (long pos = offset; buf.hasRemaining(); ) pos += ch.write(buf, pos);
+            return offsets;
+        } finally {
+            unlock();
+            DataFileWatcher.ownWrite(file);
+        }
+    }
+
+    /**
+     * Take Comments.lock, waiting for another process that holds it. Nested
+     * calls (an archive run or rename appending to the log) only count.
+     */
+    private void lock() throws IOException {
+        if (lockDepth > 0) {
+            lockDepth++;
+            return;
+        }
+        Files.createDirectories(lockFile.getParent());
+        FileChannel ch = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            ch.lock();
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+        lock = ch;
+        lockDepth = 1;
+    }
+
+    private void unlock() throws IOException {
+        if (--lockDepth > 0) return;
+        FileChannel ch = lock;
+        lock = null;
+        ch.close(); // releases the lock
+    }
+
+    /** The caller holds the lock. Returns the size of the log with whole lines only. */
+    private long cutTornTail(FileChannel ch) throws IOException {
+        long end = ch.size(), pos = end;
+        ByteBuffer buf = ByteBuffer.allocate(512);
+        while (pos > 0) {
+            int n = (int) Math.min(buf.capacity(), pos);
+            buf.clear().limit(n);
+            while (buf.hasRemaining()) {
+                if (ch.read(buf, pos - n + buf.position()) < 0) throw new EOFException("Comments.log shrank while locked");
+            }
+            int i = n - 1;
+            while (i >= 0 && buf.get(i) != '\n') i--;
+            if (i >= 0) {
+                pos = pos - n + i + 1;
+                break;
+            }
+            pos -= n;
+        }
+        if (pos < end) {
+            System.err.println("Comment log: dropping an unfinished line at the end of " + file);
+            ch.truncate(pos);
+        }
+        return pos;
+    }
+
+    private Map<String, Entries> index() throws IOException {
+        if (index == null) index = scan();
+        return index;
+    }
+
+    /**
+     * One pass over the log, remembering where each comment line starts. A last
+     * line without its newline is left out: it is an append still being written,
+     * or one cut off by a crash, which the next append removes under the lock.
+     * Reading never changes the file.
+     */
+    private Map<String, Entries> scan() throws IOException {
+        index = new HashMap<>();
+        if (!Files.exists(file)) return index;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+            long pos = 0, start = 0;
+            int b;
+            while ((b = in.read()) != -1) {
+                pos++;
+                if (b != '\n') { line.write(b); continue; }
+                apply(line.toString(StandardCharsets.UTF_8), start);
+                line.reset();
+                start = pos;
+            }
+        }
+        return index;
+    }
+
+    private void apply(String line, long offset) {
+        String[] f = line.split("\t", -1);
+        switch (f[0]) {
+            case "C" -> {
+                if (f.length >= 4 && !f[2].isEmpty() && f[2].chars().allMatch(Character::isDigit))
+                    index.computeIfAbsent(unescape(f[1]), k -> new Entries()).add(offset, comment(f));
+            }
+            case "R" -> {
+                if (f.length >= 3) applyRename(unescape(f[1]), unescape(f[2]));
+            }
+            case "D" -> {
+                if (f.length >= 2) index.remove(unescape(f[1]));
+            }
+            default -> { } // blank or unknown line
+        }
+    }
+
+    private void applyRename(String from, String to) {
+        Entries moved = index.remove(from);
+        if (moved == null) return;
+        Entries existing = index.get(to);
+        if (existing == null) {
+            index.put(to, moved);
+        } else {
+            // offsets grow with time, so merging keeps newest-last order
+            Entries merged = new Entries();
+            int i = 0, j = 0;
+            while (i < existing.size || j < moved.size) {
+                boolean takeExisting = j >= moved.size || (i < existing.size && existing.offsets[i] < moved.offsets[j]);
+                merged.add(takeExisting ? existing.offsets[i++] : moved.offsets[j++], null);
+            }
+            merged.latest = existing.offsets[existing.size - 1] > moved.offsets[moved.size - 1]
+                    ? existing.latest : moved.latest;
+            index.put(to, merged);
+        }
+    }
+
+    private static LocalDate parseDay(String s) {
+        try {
+            return LocalDate.parse(s);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static Comment comment(String[] f) {
+        return new Comment(Instant.ofEpochMilli(Long.parseLong(f[2])), unescape(f[3]));
+    }
+
+    private static String readLine(FileChannel ch, long offset) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        ByteBuffer buf = ByteBuffer.allocate(512);
+        long pos = offset;
+        while (true) {
+            buf.clear();
+            int n = ch.read(buf, pos);
+            if (n <= 0) break;
+            byte[] a = buf.array();
+            for (int i = 0; i < n; i++) {
+                if (a[i] == '\n') {
+                    out.write(a, 0, i);
+                    return out.toString(StandardCharsets.UTF_8);
+                }
+            }
+            out.write(a, 0, n);
+            pos += n;
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\t", "\\t").replace("\r", "\\r").replace("\n", "\\n");
+    }
+
+    static String unescape(String s) {
+        if (s.indexOf('\\') < 0) return s;
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char n = s.charAt(++i);
+                sb.append(n == 'n' ? '\n' : n == 't' ? '\t' : n == 'r' ? '\r' : n);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Offsets of one student's comment lines, oldest first. */
+    private static final class Entries {
+        long[] offsets = new long[4];
+        int size;
+        Comment latest;
+
+        void add(long offset, Comment c) {
+            if (size == offsets.length) offsets = Arrays.copyOf(offsets, size * 2);
+            offsets[size++] = offset;
+            if (c != null) latest = c;
+        }
+    }
+}
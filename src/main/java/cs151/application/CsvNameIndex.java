@@ -0,0 +1,230 @@
+package cs151.application;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Students.idx: a hash table on disk from normalized full name to the byte
+ * offset of that student's row in Students.csv.
+ *
+ * A lookup reads one or two 16-byte slots and then the one row they point at,
+ * so a duplicate check right after launch does not have to parse the CSV. The
+ * header records the CSV's size and modified time when the index was last in
+ * step with it; if the CSV has changed since (edited outside the app, copied in
+ * from elsewhere) the index is rebuilt from one scan before it is trusted.
+ *
+ * Layout: a 40-byte header, then {@code capacity} slots of (name hash, offset),
+ * probed linearly. Offset 0 marks an empty slot (offset 0 is the CSV header, never
+ * a row). Slots are filled in file order, so the first match along a probe run
+ * is the first row with that name, as in a scan.
+ */
+final class CsvNameIndex {
+
+    private static final int MAGIC = 0x53494458; // "SIDX"
+    private static final int FORMAT = 1;
+    private static final int HEADER = 40;        // magic, format, csvSize, csvModified, count, capacity, spare
+    private static final int SLOT = 16;
+    private static final int MIN_CAPACITY = 1024;
+
+    private final Path csv;
+    private final Path file;
+
+    CsvNameIndex(Path csv, Path file) {
+        this.csv = csv;
+        this.file = file;
+    }
+
+    /** One row position, as handed to {@link #rebuild} and {@link #added}. */
+    record Entry(String fullName, long offset) {}
+
+    /** The first row in the CSV with this name (case and spacing ignored), or null. */
+    synchronized String[] find(String fullName) throws IOException {
+        if (!Files.exists(csv)) return null;
+        ensureCurrent();
+        String key = StudentStorage.norm(fullName);
+        long hash = hash(key);
+        try (FileChannel idx = FileChannel.open(file, StandardOpenOption.READ);
+             FileChannel data = FileChannel.open(csv, StandardOpenOption.READ)) {
+            int capacity = readHeader(idx).capacity;
+            ByteBuffer slot = ByteBuffer.allocate(SLOT);
+            for (int i = slotOf(hash, capacity), n = 0; n < capacity; i = (i + 1) & (capacity - 1), n++) {
+                slot.clear();
+                readFully(idx, slot, HEADER + (long) i * SLOT);
+                long h = slot.getLong(0), off = slot.getLong(8);
+                if (off == 0) return null;
+                if (h != hash) continue;
+                String[] row = readRow(data, off);
+                // equal hashes are almost always the same name, but confirm against the row
+                if (row != null && row.length > 0 && StudentStorage.norm(row[0]).equals(key)) return row;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Record rows just appended to the CSV, then stamp the index with the CSV's
+     * new size and time. Rebuilds instead if the index was not in step with the
+     * CSV before the append, or would pass half full.
+     */
+    synchronized void added(List<Entry> rows) throws IOException {
+        if (rows.isEmpty()) return;
+        Header h = Files.exists(file) ? tryReadHeader() : null;
+        if (h == null || h.csvSize != rows.get(0).offset || (long) (h.count + rows.size()) * 2 > h.capacity) {
+            rebuildFromCsv();
+            return;
+        }
+        try (FileChannel idx = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int count = h.count;
+            ByteBuffer slot = ByteBuffer.allocate(SLOT);
+            for (Entry e : rows) {
+                insert(idx, slot, h.capacity, hash(StudentStorage.norm(e.fullName)), e.offset);
+                count++;
+            }
+            writeHeader(idx, new Header(Files.size(csv), modified(csv), count, h.capacity));
+            idx.force(false);
+        }
+    }
+
+    /** Replace the whole index with these rows (the CSV was just rewritten). */
+    synchronized void rebuild(List<Entry> rows) throws IOException {
+        int capacity = MIN_CAPACITY;
+        while (capacity < rows.size() * 3L) capacity <<= 1; // a third full, room to append
+        ByteBuffer table = ByteBuffer.allocate(HEADER + capacity * SLOT);
+        for (Entry e : rows) {
+            long hash = hash(StudentStorage.norm(e.fullName));
+            int i = slotOf(hash, capacity);
+            while (table.getLong(HEADER + i * SLOT + 8) != 0) i = (i + 1) & (capacity - 1);
+            table.putLong(HEADER + i * SLOT, hash);
+            table.putLong(HEADER + i * SLOT + 8, e.offset);
+        }
+        Header h = new Header(Files.size(csv), modified(csv), rows.size(), capacity);
+        h.write(table);
+
+        Files.createDirectories(file.getParent());
+        Path tmp = Files.createTempFile(file.getParent(), "Students", ".idx.tmp");
+        try {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                table.rewind();
+                while (table.hasRemaining()) out.write(table);
+                out.force(false);
+            }
+            AppFiles.moveIntoPlace(tmp, file);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** Drop the index; the next lookup rebuilds it. */
+    synchronized void invalidate() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /* ---------- internals ---------- */
+
+    private void ensureCurrent() throws IOException {
+        Header h = Files.exists(file) ? tryReadHeader() : null;
+        if (h == null || h.csvSize != Files.size(csv) || h.csvModified != modified(csv)) rebuildFromCsv();
+    }
+
+    private void rebuildFromCsv() throws IOException {
+        List<Entry> rows = new ArrayList<>();
+        if (Files.exists(csv)) {
+            try (CsvRecordReader in = CsvRecordReader.open(csv)) {
+                if (in.nextRecord() != null) { // header
+                    String[] r;
+                    while ((r = in.next()) != null) {
+                        if (r.length > 0) rows.add(new Entry(r[0], in.recordOffset()));
+                    }
+                }
+            }
+        }
+        rebuild(rows);
+    }
+
+    private static void insert(FileChannel idx, ByteBuffer slot, int capacity, long hash, long offset) throws IOException {
+        int i = slotOf(hash, capacity);
+        while (true) {
+            slot.clear();
+            readFully(idx, slot, HEADER + (long) i * SLOT);
+            if (slot.getLong(8) == 0) break;
+            i = (i + 1) & (capacity - 1);
+        }
+        slot.clear();
+        slot.putLong(hash).putLong(offset).flip();
+        while (slot.hasRemaining()) idx.write(slot, HEADER + (long) i * SLOT + slot.position());
+    }
+
+    private static String[] readRow(FileChannel data, long offset) throws IOException {
+        if (offset >= data.size()) return null;
+        data.position(offset);
+        // the channel stream is left open on purpose; closing it would close data
+        InputStream in = Channels.newInputStream(data);
+        return new CsvRecordReader(in).next();
+    }
+
+    private Header tryReadHeader() {
+        try (FileChannel idx = FileChannel.open(file, StandardOpenOption.READ)) {
+            Header h = readHeader(idx);
+            return idx.size() >= HEADER + (long) h.capacity * SLOT ? h : null;
+        } catch (IOException e) {
+            return null; // missing, short or foreign file: rebuild it
+        }
+    }
+
+    private static Header readHeader(FileChannel idx) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(HEADER);
+        readFully(idx, b, 0);
+        if (b.getInt(0) != MAGIC || b.getInt(4) != FORMAT) throw new IOException("Not a student index file");
+        int capacity = b.getInt(28);
+        if (capacity < MIN_CAPACITY || Integer.bitCount(capacity) != 1) throw new IOException("Bad index capacity");
+        return new Header(b.getLong(8), b.getLong(16), b.getInt(24), capacity);
+    }
+
+    private static void writeHeader(FileChannel idx, Header h) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(HEADER);
+        h.write(b);
+        b.rewind();
+        while (b.hasRemaining()) idx.write(b, b.position());
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer b, long at) throws IOException {
+        while (b.hasRemaining()) {
+            if (ch.read(b, at + b.position()) < 0) throw new IOException("Index file is truncated");
+        }
+    }
+
+    private static long modified(Path p) throws IOException {
+        return Files.getLastModifiedTime(p).toMillis();
+    }
+
+    private static int slotOf(long hash, int capacity) {
+        return (int) (hash ^ (hash >>> 32)) & (capacity - 1);
+    }
+
+    /** 64-bit FNV-1a over the UTF-8 name: wide enough that a probe rarely reads a row it didn't want. */
+    private static long hash(String normalizedName) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : normalizedName.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private record Header(long csvSize, long csvModified, int count, int capacity) {
+        void write(ByteBuffer b) {
+            b.putInt(0, MAGIC).putInt(4, FORMAT)
+             .putLong(8, csvSize).putLong(16, csvModified)
+             .putInt(24, count).putInt(28, capacity).putLong(32, 0);
+        }
+    }
+}
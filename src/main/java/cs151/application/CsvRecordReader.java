@@ -0,0 +1,127 @@
+package cs151.application;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Streams CSV records one at a time (quoted fields may span lines).
+ * Works on bytes so it can report the line number and byte offset where each
+ * record starts; nothing but the current record is held in memory.
+ */
+final class CsvRecordReader implements Closeable {
+
+    private final InputStream in;
+    private final byte[] chunk = new byte[1 << 16];
+    private int chunkPos, chunkLen;
+
+    private byte[] buf = new byte[256];   // current record
+    private int len;
+
+    private long pos;           // bytes consumed so far
+    private int line;           // physical lines consumed so far
+    private long recordOffset;  // byte offset of the last record returned
+    private int recordLine;     // 1-based line of the last record returned
+
+    CsvRecordReader(InputStream in) {
+        this.in = in;
+    }
+
+    static CsvRecordReader open(Path p) throws IOException {
+        return new CsvRecordReader(Files.newInputStream(p));
+    }
+
+    /** Next record split into columns, or null at end of input. */
+    String[] next() throws IOException {
+        String rec = nextRecord();
+        return rec == null ? null : parse(rec);
+    }
+
+    /** Next raw record text (lines joined with '\n'), or null at end of input. */
+    String nextRecord() throws IOException {
+        len = 0;
+        recordOffset = pos;
+        recordLine = line + 1;
+        int quotes = 0;
+        boolean any = false;
+        int c;
+        while ((c = read()) != -1) {
+            pos++;
+            any = true;
+            if (c == '\n') {
+                line++;
+                if (len > 0 && buf[len - 1] == '\r') len--;
+                // balanced quotes: the record ends here
+                if ((quotes & 1) == 0) return decode();
+                put('\n');
+                continue;
+            }
+            if (c == '"') quotes++;
+            put(c);
+        }
+        if (!any) return null;
+        // last record without a trailing newline
+        line++;
+        if (len > 0 && buf[len - 1] == '\r') len--;
+        return decode();
+    }
+
+    /** 1-based line number where the last returned record started. */
+    int lineNumber() { return recordLine; }
+
+    /** Byte offset where the last returned record started. */
+    long recordOffset() { return recordOffset; }
+
+    /** Bytes consumed so far. */
+    long bytesRead() { return pos; }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private int read() throws IOException {
+        if (chunkPos == chunkLen) {
+            chunkLen = in.read(chunk, 0, chunk.length);
+            chunkPos = 0;
+            if (chunkLen <= 0) { chunkLen = 0; return -1; }
+        }
+        return chunk[chunkPos++] & 0xFF;
+    }
+
+    private void put(int b) {
+        if (len == buf.length) buf = Arrays.copyOf(buf, len * 2);
+        buf[len++] = (byte) b;
+    }
+
+    private String decode() {
+        return new String(buf, 0, len, StandardCharsets.UTF_8);
+    }
+
+    /** Split one record into columns ("" escapes a quote inside quotes). */
+    static String[] parse(String line) {
+        ArrayList<String> out = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        boolean inQ = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (inQ) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') { cur.append('"'); i++; }
+                    else inQ = false;
+                } else cur.append(c);
+            } else {
+                if (c == '"') inQ = true;
+                else if (c == ',') { out.add(cur.toString()); cur.setLength(0); }
+                else cur.append(c);
+            }
+        }
+        out.add(cur.toString());
+        return out.toArray(String[]::new);
+    }
+}
@@ -0,0 +1,262 @@
+package cs151.application;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Students.csv, one row per student (the original format and the default store).
+ * Appends go to the end of the file; edits and deletes rewrite it through a
+ * temp file that is moved into place. Lookups by name go through
+ * {@link CsvNameIndex}, which every write here keeps in step.
+ */
+final class CsvStudentStore implements StudentStore {
+
+    private final Path csv;
+    private final CsvNameIndex index;
+
+    CsvStudentStore(Path csv, Path indexFile) {
+        this.csv = csv;
+        this.index = new CsvNameIndex(csv, indexFile);
+    }
+
+    @Override
+    public boolean exists(String fullName) throws IOException {
+        return get(fullName) != null;
+    }
+
+    @Override
+    public String[] get(String fullName) throws IOException {
+        return index.find(fullName);
+    }
+
+    @Override
+    public void append(String[] row) throws IOException {
+        appendAll(List.<String[]>of(row));
+    }
+
+    @Override
+    public void appendAll(List<String[]> rows) throws IOException {
+        if (rows.isEmpty()) return;
+        ensureHeader();
+        RowWriter w = new RowWriter(new FileOutputStream(csv.toFile(), true), Files.size(csv));
+        try (w) {
+            for (String[] r : rows) w.row(r);
+        }
+        DataFileWatcher.ownWrite(csv);
+        try {
+            index.added(w.written);
+        } catch (IOException e) {
+            e.printStackTrace();
+            index.invalidate(); // the rows are stored; the next lookup rebuilds the index
+        }
+    }
+
+    @Override
+    public String[] update(String originalFullName, String[] row) throws IOException {
+        String key = StudentStorage.norm(originalFullName);
+        List<String[]> rows = readAll();
+        for (int i = 0; i < rows.size(); i++) {
+            String[] r = rows.get(i);
+            if (r.length > 0 && StudentStorage.norm(r[0]).equals(key)) {
+                rows.set(i, row);
+                writeAll(rows);
+                return r;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String[] delete(String fullName) throws IOException {
+        String key = StudentStorage.norm(fullName);
+        List<String[]> rows = readAll();
+        for (int i = 0; i < rows.size(); i++) {
+            String[] r = rows.get(i);
+            if (r.length > 0 && StudentStorage.norm(r[0]).equals(key)) {
+                rows.remove(i);
+                writeAll(rows);
+                return r;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * One streaming rewrite however many rows change; the first row stored
+     * under a name is the one changed, and added rows go at the end.
+     */
+    @Override
+    public List<String[]> applyAll(List<StudentStorage.Change> changes) throws IOException {
+        Map<String, Integer> at = new HashMap<>();
+        List<String[]> added = new ArrayList<>();
+        for (int i = 0; i < changes.size(); i++) {
+            StudentStorage.Change c = changes.get(i);
+            if (c.fullName() == null) added.add(c.row());
+            else at.putIfAbsent(StudentStorage.norm(c.fullName()), i);
+        }
+        String[][] before = new String[changes.size()][];
+        if (!Files.exists(csv) && added.isEmpty()) return Arrays.asList(before);
+        rewrite(w -> {
+            scan(r -> {
+                Integer i = r.length > 0 ? at.remove(StudentStorage.norm(r[0])) : null;
+                if (i == null) {
+                    w.row(r);
+                    return;
+                }
+                before[i] = r;
+                String[] row = changes.get(i).row();
+                if (row != null) w.row(row);
+            }, null);
+            for (String[] r : added) w.row(r);
+        });
+        return Arrays.asList(before);
+    }
+
+    /** Progress is bytes read out of the file size, reported every few thousand rows. */
+    @Override
+    public void scan(StudentStorage.RowHandler handler, StudentStorage.ProgressHandler progress) throws IOException {
+        if (!Files.exists(csv)) return;
+        long total = Files.size(csv);
+        try (CsvRecordReader in = CsvRecordReader.open(csv)) {
+            if (in.nextRecord() == null) return; // header
+            String[] r;
+            int n = 0;
+            while ((r = in.next()) != null) {
+                handler.row(r);
+                if (progress != null && (++n & 0xFFF) == 0) progress.progress(in.bytesRead(), total);
+            }
+            if (progress != null) progress.progress(in.bytesRead(), total);
+        }
+    }
+
+    /** Only the header line; the rows are the caller's to check. */
+    @Override
+    public List<String> check() throws IOException {
+        if (!Files.exists(csv)) return List.of();
+        try (CsvRecordReader in = CsvRecordReader.open(csv)) {
+            String header = in.nextRecord();
+            return header == null || header.equals(StudentStorage.HEADER) ? List.of() : List.of("line 1: unexpected header");
+        }
+    }
+
+    @Override
+    public void replaceAll(List<String[]> rows) throws IOException {
+        writeAll(rows);
+    }
+
+    /**
+     * Rewrite the file in one streaming pass: drops rows with a blank name or a
+     * name already seen (first occurrence wins) and normalizes the Yes/No
+     * columns.
+     */
+    @Override
+    public int compact() throws IOException {
+        if (!Files.exists(csv)) return 0;
+        Set<String> seen = new HashSet<>();
+        int[] dropped = {0};
+        rewrite(w -> scan(r -> {
+            if (r.length == 0 || r[0].isBlank() || !seen.add(StudentStorage.norm(r[0]))) {
+                dropped[0]++;
+                return;
+            }
+            String[] out = Arrays.copyOf(r, Math.max(r.length, 10));
+            out[8] = StudentStorage.toYesNo(out[8]);
+            out[9] = StudentStorage.toYesNo(out[9]);
+            w.row(out);
+        }, null));
+        return dropped[0];
+    }
+
+    /* ---------- file ---------- */
+
+    private List<String[]> readAll() throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        scan(rows::add, null);
+        return rows;
+    }
+
+    private void writeAll(List<String[]> rows) throws IOException {
+        ensureHeader();
+        rewrite(w -> {
+            for (String[] r : rows) w.row(r);
+        });
+    }
+
+    private interface BodyWriter {
+        void write(RowWriter w) throws IOException;
+    }
+
+    /**
+     * Write header + body to a temp file, then swap it in so readers never see
+     * half a file. The index is rebuilt from the offsets noted while writing.
+     */
+    private void rewrite(BodyWriter body) throws IOException {
+        Files.createDirectories(csv.getParent());
+        Path tmp = Files.createTempFile(csv.getParent(), "Students", ".tmp");
+        try {
+            RowWriter w = new RowWriter(Files.newOutputStream(tmp), 0);
+            try (w) {
+                w.line(StudentStorage.HEADER);
+                body.write(w);
+            }
+            AppFiles.moveIntoPlace(tmp, csv);
+            DataFileWatcher.ownWrite(csv);
+            try {
+                index.rebuild(w.written);
+            } catch (IOException e) {
+                e.printStackTrace();
+                index.invalidate();
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** Writes rows as UTF-8 lines and notes the byte offset each one starts at. */
+    private static final class RowWriter implements Closeable {
+        private final OutputStream out;
+        private long offset;
+        final List<CsvNameIndex.Entry> written = new ArrayList<>();
+
+        RowWriter(OutputStream out, long offset) {
+            this.out = new BufferedOutputStream(out, 1 << 16);
+            this.offset = offset;
+        }
+
+        void row(String[] r) throws IOException {
+            if (r.length > 0) written.add(new CsvNameIndex.Entry(r[0], offset));
+            line(StudentStorage.toCsv(r));
+        }
+
+        void line(String text) throws IOException {
+            byte[] b = (text + "\n").getBytes(StandardCharsets.UTF_8);
+            out.write(b);
+            offset += b.length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    private void ensureHeader() throws IOException {
+        if (!Files.exists(csv) || Files.size(csv) == 0) {
+            Files.createDirectories(csv.getParent());
+            Files.writeString(csv, StudentStorage.HEADER + "\n", StandardCharsets.UTF_8);
+        }
+    }
+}
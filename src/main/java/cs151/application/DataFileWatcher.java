@@ -0,0 +1,186 @@
+package cs151.application;
+
+import javafx.application.Platform;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Notices when Students.csv or ProgrammingLanguage.csv is edited outside the app
+ * (e.g. fixed in a text editor) and applies just the changed rows to the open
+ * student tables. Comments.log written by another process (the app next to a
+ * {@code Cli serve}) makes the comment index reload.
+ *
+ * The last known rows are the current {@link StudentSnapshots} version, which
+ * the app's own writes keep up to date. Those writes also record the file's
+ * size and modified time; a watch event matching the recorded stamp is our own
+ * write and is skipped without reading the file. Anything else is re-read and
+ * diffed row by row against the snapshot.
+ */
+public final class DataFileWatcher {
+
+    /** Quiet time before reacting, so an editor's save (often several events) is read once. */
+    private static final long SETTLE_MILLIS = 250;
+
+    private static final Map<Path, Stamp> ownWrites = new HashMap<>();
+    private static final List<WeakReference<StudentTableModel>> tables = new ArrayList<>();
+    private static Thread thread;
+
+    private DataFileWatcher() {}
+
+    /** Start watching AppFiles.BASE_DIR on a daemon thread (no-op if already running). */
+    public static synchronized void start() {
+        if (thread != null) return;
+        try {
+            StudentSnapshots.current(); // the baseline later diffs are taken against
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        thread = new Thread(DataFileWatcher::run, "data-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Open tables register here; they are held weakly and drop out when their screen is gone. */
+    static synchronized void register(StudentTableModel model) {
+        tables.removeIf(ref -> ref.get() == null);
+        tables.add(new WeakReference<>(model));
+    }
+
+    /** Called right after the app itself writes a watched file. */
+    static synchronized void ownWrite(Path file) {
+        try {
+            ownWrites.put(file.getFileName(), Stamp.of(file));
+        } catch (IOException e) {
+            ownWrites.remove(file.getFileName());
+        }
+    }
+
+    /* ---------- watcher thread ---------- */
+
+    private static void run() {
+        Path dir = AppFiles.BASE_DIR;
+        try (WatchService ws = FileSystems.getDefault().newWatchService()) {
+            // atomic saves show up as CREATE (rename over the old file)
+            dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            Set<Path> pending = new HashSet<>();
+            while (true) {
+                WatchKey key = pending.isEmpty() ? ws.take() : ws.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    for (Path name : pending) changed(dir.resolve(name));
+                    pending.clear();
+                    continue;
+                }
+                for (WatchEvent<?> ev : key.pollEvents()) {
+                    if (ev.context() instanceof Path name && isWatched(name)) pending.add(name);
+                }
+                if (!key.reset()) return; // directory is gone
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static boolean isWatched(Path name) {
+        return name.equals(AppFiles.STUDENTS_CSV.getFileName()) || name.equals(AppFiles.LANG_CSV.getFileName())
+                || name.equals(CommentStore.get().file().getFileName());
+    }
+
+    private static void changed(Path file) {
+        try {
+            synchronized (DataFileWatcher.class) {
+                if (!Files.exists(file) || Stamp.of(file).equals(ownWrites.get(file.getFileName()))) return;
+            }
+            if (file.getFileName().equals(AppFiles.LANG_CSV.getFileName())) {
+                LanguageCatalog.get().reload();
+            } else if (file.getFileName().equals(CommentStore.get().file().getFileName())) {
+                CommentStore.get().reload();
+                StudentSnapshots.commentsChanged();
+            } else if (StudentStorage.isCsv()) { // with the page store Students.csv is only an interchange file
+                studentsChanged();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** Diff the file against the current snapshot and push only the differences. */
+    private static void studentsChanged() throws IOException {
+        StudentSnapshots.Snapshot known = StudentSnapshots.current();
+        Map<String, String[]> now = readRows();
+        List<String[]> before = new ArrayList<>(), after = new ArrayList<>();
+        for (Map.Entry<String, String[]> e : now.entrySet()) {
+            Student old = known.get(e.getKey());
+            if (old == null || !Arrays.equals(old.toRow(), e.getValue())) {
+                before.add(old == null ? null : old.toRow());
+                after.add(e.getValue());
+            }
+        }
+        for (Student s : known.students()) {
+            String[] r = s.toRow();
+            if (!now.containsKey(StudentStorage.norm(r[0]))) {
+                before.add(r);
+                after.add(null);
+            }
+        }
+        ownWrite(AppFiles.STUDENTS_CSV);
+        if (before.isEmpty()) return;
+
+        // snapshots and language usage follow; the events are external, so not journaled again
+        for (int i = 0; i < before.size(); i++) StudentStorage.externalChange(before.get(i), after.get(i));
+
+        List<Student> removed = new ArrayList<>(), changed = new ArrayList<>();
+        for (int i = 0; i < before.size(); i++) {
+            if (after.get(i) == null) removed.add(StudentStorage.toStudent(before.get(i)));
+            else changed.add(StudentStorage.toStudent(after.get(i)));
+        }
+        if (liveTables().isEmpty()) return; // headless (Cli serve): no toolkit, nothing on screen
+        Platform.runLater(() -> {
+            for (StudentTableModel m : liveTables()) m.applyExternal(changed, removed);
+        });
+    }
+
+    private static synchronized List<StudentTableModel> liveTables() {
+        List<StudentTableModel> out = new ArrayList<>();
+        for (WeakReference<StudentTableModel> ref : tables) {
+            StudentTableModel m = ref.get();
+            if (m != null) out.add(m);
+        }
+        return out;
+    }
+
+    /** Complete rows of the file keyed by normalized name, normalized the way snapshots hold them. */
+    private static Map<String, String[]> readRows() throws IOException {
+        Map<String, String[]> rows = new HashMap<>();
+        StudentStorage.forEachRow(r -> {
+            if (r.length >= 10) rows.putIfAbsent(StudentStorage.norm(r[0]), StudentStorage.toStudent(r).toRow());
+        });
+        return rows;
+    }
+
+    /** Size + modified time, enough to recognise a file we just wrote. */
+    private record Stamp(long size, long modified) {
+        static Stamp of(Path p) throws IOException {
+            return new Stamp(Files.size(p), Files.getLastModifiedTime(p).toMillis());
+        }
+    }
+}
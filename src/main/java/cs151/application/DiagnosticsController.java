@@ -0,0 +1,91 @@
+package cs151.application;
+
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Diagnostics screen: every {@link Metrics} timer (p50/p99/max), counter and
+ * gauge (students, data file sizes, heap). Values are read when the screen
+ * opens and on Refresh only; nothing runs in the background. When started
+ * with -Dapp.jfr=true the flight recording can be saved from here as well.
+ */
+public class DiagnosticsController {
+
+    @FXML private TableView<Metrics.Row> metricsTable;
+    @FXML private TableColumn<Metrics.Row, String> kindColumn;
+    @FXML private TableColumn<Metrics.Row, String> nameColumn;
+    @FXML private TableColumn<Metrics.Row, String> valueColumn;
+    @FXML private Button dumpRecordingButton;
+
+    @FXML
+    public void initialize() {
+        kindColumn.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().kind()));
+        nameColumn.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().name()));
+        valueColumn.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().value()));
+        metricsTable.setPlaceholder(new Label("Nothing measured yet"));
+        dumpRecordingButton.setDisable(!FlightEvents.isRecording()); // only with -Dapp.jfr=true
+        refresh();
+    }
+
+    @FXML
+    private void refresh() {
+        metricsTable.getItems().setAll(Metrics.snapshot());
+    }
+
+    /** Save the current values to a text file to attach to a bug report. */
+    @FXML
+    private void saveSnapshot(javafx.event.ActionEvent event) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Save Diagnostics Snapshot");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Text", "*.txt"));
+        chooser.setInitialFileName("diagnostics-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".txt");
+        File file = chooser.showSaveDialog(((Node) event.getSource()).getScene().getWindow());
+        if (file == null) return;
+        try {
+            Metrics.dump(file.toPath());
+            new Alert(Alert.AlertType.INFORMATION, "Saved " + file.getName() + ".", ButtonType.OK).showAndWait();
+        } catch (IOException e) {
+            e.printStackTrace();
+            new Alert(Alert.AlertType.ERROR, "Failed to save the snapshot.", ButtonType.OK).showAndWait();
+        }
+    }
+
+    /** Save the continuous flight recording (see FlightEvents) for a freeze report. */
+    @FXML
+    private void dumpRecording(javafx.event.ActionEvent event) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Save Flight Recording");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Flight Recording", "*.jfr"));
+        chooser.setInitialFileName("cs151-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".jfr");
+        File file = chooser.showSaveDialog(((Node) event.getSource()).getScene().getWindow());
+        if (file == null) return;
+        try {
+            FlightEvents.dump(file.toPath());
+            new Alert(Alert.AlertType.INFORMATION, "Saved " + file.getName() + ".", ButtonType.OK).showAndWait();
+        } catch (IOException | IllegalStateException e) {
+            e.printStackTrace();
+            new Alert(Alert.AlertType.ERROR, "Failed to save the flight recording.", ButtonType.OK).showAndWait();
+        }
+    }
+
+    @FXML
+    private void goBack(javafx.event.ActionEvent event) throws IOException {
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/cs151/application/hello-view.fxml"));
+        Scene scene = new Scene(Navigation.load(loader), 800, 500);
+        Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
+        stage.setScene(scene);
+        stage.setTitle("Home");
+        stage.show();
+    }
+}
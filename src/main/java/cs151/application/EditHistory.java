@@ -0,0 +1,387 @@
+package cs151.application;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Undo and redo for student edits made in the app (add, edit, delete, bulk
+ * actions, import). {@link StudentStorage} records each write here as one
+ * entry of row deltas: an edit keeps only the columns it changed, with their
+ * old and new values; an add or delete keeps the one row. Undoing an entry
+ * writes those rows back, one row write per student, not a file restore.
+ *
+ * Before anything is written, every row an entry touches must still hold the
+ * values the entry left there. A student changed since (in the app, or in the
+ * file by hand) makes undo fail with an IllegalStateException that lists the
+ * conflicts, and the entry stays on the stack.
+ *
+ * Entries are kept under -Dapp.undo.maxKb (default 4096) by dropping the
+ * oldest first; an entry bigger than the whole budget (a very large import)
+ * is not kept. With -Dapp.undo.persist=true the stacks are saved to undo.jsonl
+ * when the app closes and read back on the next start. Faculty comments added
+ * on the comments screen live in CommentStore and are not part of the history:
+ * undoing a delete restores the profile row but not those comments.
+ */
+public final class EditHistory {
+
+    public static final Path FILE = AppFiles.BASE_DIR.resolve("undo.jsonl");
+
+    /**
+     * One student's change. Names locate the row before and after the change
+     * (null before an add, null after a delete); before and after hold the
+     * values of the listed columns only.
+     */
+    record Delta(String nameBefore, String nameAfter, int[] columns, String[] before, String[] after) {
+
+        static Delta of(String[] before, String[] after) {
+            if (before == null || after == null) {
+                int[] all = new int[Student.COLUMNS];
+                for (int i = 0; i < all.length; i++) all[i] = i;
+                return new Delta(before == null ? null : before[0], after == null ? null : after[0], all, before, after);
+            }
+            int[] cols = new int[Student.COLUMNS];
+            int n = 0;
+            for (int i = 0; i < Student.COLUMNS; i++) if (!before[i].equals(after[i])) cols[n++] = i;
+            cols = Arrays.copyOf(cols, n);
+            String[] b = new String[n], a = new String[n];
+            for (int k = 0; k < n; k++) {
+                b[k] = before[cols[k]];
+                a[k] = after[cols[k]];
+            }
+            return new Delta(before[0], after[0], cols, b, a);
+        }
+
+        Delta inverse() {
+            return new Delta(nameAfter, nameBefore, columns, after, before);
+        }
+
+        boolean isEmpty() {
+            return columns.length == 0;
+        }
+
+        long bytes() {
+            long b = 64 + 4L * columns.length;
+            for (String[] values : new String[][]{before, after}) {
+                if (values != null) for (String s : values) b += 40 + s.length();
+            }
+            return b;
+        }
+    }
+
+    /** Everything one action changed. */
+    record Entry(String label, Instant time, List<Delta> deltas) {
+        long bytes() {
+            long b = 64 + label.length();
+            for (Delta d : deltas) b += d.bytes();
+            return b;
+        }
+
+        Entry inverse() {
+            List<Delta> inv = new ArrayList<>(deltas.size());
+            for (Delta d : deltas) inv.add(d.inverse());
+            return new Entry(label, time, inv);
+        }
+    }
+
+    /** What an undo or redo stored: the students as they are now, and the ones removed. */
+    public record Result(String label, List<Student> changed, List<Student> removed) {}
+
+    private static final EditHistory INSTANCE = new EditHistory();
+
+    private final long budgetBytes = Long.getLong("app.undo.maxKb", 4096) * 1024;
+    private final boolean persist = Boolean.getBoolean("app.undo.persist");
+    private final Deque<Entry> undo = new ArrayDeque<>(); // newest first; guarded by this
+    private final Deque<Entry> redo = new ArrayDeque<>(); // newest first; guarded by this
+    private volatile long bytes; // estimated size of both stacks
+    private boolean replaying; // an undo or redo is writing: don't record its writes
+
+    private EditHistory() {
+        Metrics.gauge("history.bytes", () -> bytes);
+        if (!persist) return;
+        try {
+            load();
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace(); // start with an empty history
+        }
+    }
+
+    public static EditHistory get() {
+        return INSTANCE;
+    }
+
+    /* ---------- recording (called by StudentStorage after each write) ---------- */
+
+    /** Record one row write: before is null for an add, after is null for a delete. */
+    synchronized void record(String[] before, String[] after) {
+        record(Collections.singletonList(before), Collections.singletonList(after));
+    }
+
+    /** Record several row writes made by one action (same pairing as {@link #record(String[], String[])}). */
+    synchronized void record(List<String[]> before, List<String[]> after) {
+        if (replaying) return;
+        List<Delta> deltas = new ArrayList<>(before.size());
+        for (int i = 0; i < before.size(); i++) {
+            String[] b = normalized(before.get(i)), a = normalized(after.get(i));
+            if (b == null && a == null) continue;
+            Delta d = Delta.of(b, a);
+            if (!d.isEmpty()) deltas.add(d);
+        }
+        if (deltas.isEmpty()) return;
+        Entry e = new Entry(label(deltas), Instant.now(), List.copyOf(deltas));
+        clear(redo);
+        if (e.bytes() > budgetBytes) return; // too big to keep; older entries stay undoable
+        push(undo, e);
+        trim();
+    }
+
+    /* ---------- undo / redo ---------- */
+
+    public synchronized boolean canUndo() {
+        return !undo.isEmpty();
+    }
+
+    public synchronized boolean canRedo() {
+        return !redo.isEmpty();
+    }
+
+    /** What undo would revert ("Delete Ann Lee"), or null if there is nothing to undo. */
+    public synchronized String undoLabel() {
+        return undo.isEmpty() ? null : undo.peekFirst().label();
+    }
+
+    public synchronized String redoLabel() {
+        return redo.isEmpty() ? null : redo.peekFirst().label();
+    }
+
+    /**
+     * Revert the newest entry and move it to the redo stack. Returns null if
+     * there is nothing to undo.
+     *
+     * @throws IllegalStateException if a student it touched has changed since; nothing is written
+     */
+    public synchronized Result undo() throws IOException {
+        if (undo.isEmpty()) return null;
+        Entry e = undo.peekFirst();
+        Result r = apply(e.inverse(), "undo");
+        pop(undo);
+        push(redo, e);
+        return r;
+    }
+
+    /** Re-apply the newest undone entry; the counterpart of {@link #undo()}. */
+    public synchronized Result redo() throws IOException {
+        if (redo.isEmpty()) return null;
+        Entry e = redo.peekFirst();
+        Result r = apply(e, "redo");
+        pop(redo);
+        push(undo, e);
+        return r;
+    }
+
+    /** Forget everything (the undo.jsonl file too, on the next save). */
+    public synchronized void clear() {
+        clear(undo);
+        clear(redo);
+    }
+
+    /**
+     * Move the rows from each delta's before state to its after state. Checked
+     * first; a single-student entry is one row write, a larger one (re-added
+     * rows included) is one {@link StudentStorage#applyBatch} write.
+     */
+    private Result apply(Entry e, String action) throws IOException {
+        List<String> problems = new ArrayList<>();
+        List<StudentStorage.Change> changes = new ArrayList<>();
+        List<Student> targets = new ArrayList<>(); // the stored student each change applies to (null for adds)
+        Set<String> inserted = new HashSet<>();
+        for (Delta d : e.deltas()) {
+            if (d.nameBefore() == null) {
+                if (StudentStorage.existsByName(d.nameAfter()) || !inserted.add(StudentStorage.norm(d.nameAfter()))) {
+                    problems.add(d.nameAfter() + ": a student with this name already exists");
+                } else {
+                    changes.add(StudentStorage.Change.insert(d.after().clone()));
+                    targets.add(null);
+                }
+                continue;
+            }
+            Student current = StudentStorage.findByName(d.nameBefore());
+            String[] row = current == null ? null : normalized(current.toRow());
+            if (row == null) {
+                problems.add(d.nameBefore() + ": no longer exists");
+            } else if (!holds(row, d.columns(), d.before())) {
+                problems.add(d.nameBefore() + ": changed since");
+            } else if (d.nameAfter() == null) {
+                changes.add(StudentStorage.Change.delete(current));
+                targets.add(current);
+            } else {
+                for (int k = 0; k < d.columns().length; k++) row[d.columns()[k]] = d.after()[k];
+                changes.add(new StudentStorage.Change(current.getFullName(), row));
+                targets.add(current);
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Cannot " + action + " \"" + e.label() + "\":\n" + String.join("\n", problems));
+        }
+
+        List<Student> changed = new ArrayList<>(), removed = new ArrayList<>();
+        replaying = true;
+        try (Metrics.Timing t = Metrics.time("history.apply")) {
+            if (changes.size() == 1) {
+                StudentStorage.Change c = changes.get(0);
+                if (c.fullName() == null) changed.add(StudentStorage.appendRow(c.row()));
+                else if (c.row() == null) removed.add(StudentStorage.deleteStudent(targets.get(0)));
+                else changed.add(StudentStorage.updateStudent(c.fullName(), StudentStorage.toStudent(c.row())));
+            } else {
+                StudentStorage.BatchResult r = StudentStorage.applyBatch(changes);
+                changed.addAll(r.updated());
+                removed.addAll(r.deleted());
+            }
+        } finally {
+            replaying = false;
+        }
+        removed.removeIf(s -> s == null); // removed by someone else meanwhile
+        Metrics.counter("history.applied").increment();
+        return new Result(e.label(), changed, removed);
+    }
+
+    /* ---------- helpers ---------- */
+
+    private static boolean holds(String[] row, int[] columns, String[] values) {
+        for (int k = 0; k < columns.length; k++) {
+            if (!row[columns[k]].equals(values[k])) return false;
+        }
+        return true;
+    }
+
+    /** The stored row as snapshots hold it (Yes/No normalized, no nulls), or null. */
+    private static String[] normalized(String[] row) {
+        if (row == null || row.length == 0) return null;
+        String[] r = StudentStorage.toStudent(row).toRow();
+        for (int i = 0; i < r.length; i++) if (r[i] == null) r[i] = "";
+        return r;
+    }
+
+    private static String label(List<Delta> deltas) {
+        boolean adds = true, deletes = true;
+        for (Delta d : deltas) {
+            adds &= d.nameBefore() == null;
+            deletes &= d.nameAfter() == null;
+        }
+        String verb = adds ? "Add" : deletes ? "Delete" : "Edit";
+        if (deltas.size() > 1) return verb + " " + deltas.size() + " students";
+        Delta d = deltas.get(0);
+        return verb + " " + (d.nameAfter() != null ? d.nameAfter() : d.nameBefore());
+    }
+
+    private void push(Deque<Entry> stack, Entry e) {
+        stack.addFirst(e);
+        bytes += e.bytes();
+    }
+
+    private void pop(Deque<Entry> stack) {
+        bytes -= stack.removeFirst().bytes();
+    }
+
+    private void clear(Deque<Entry> stack) {
+        for (Entry e : stack) bytes -= e.bytes();
+        stack.clear();
+    }
+
+    /** Drop the oldest redo entries, then the oldest undo entries, until the total fits. */
+    private void trim() {
+        for (Deque<Entry> stack : List.of(redo, undo)) {
+            for (Iterator<Entry> it = stack.descendingIterator(); it.hasNext() && bytes > budgetBytes; ) {
+                bytes -= it.next().bytes();
+                it.remove();
+            }
+        }
+    }
+
+    /* ---------- persistence (-Dapp.undo.persist=true) ---------- */
+
+    /** Write both stacks to undo.jsonl (called when the app closes); no-op unless persisting. */
+    public synchronized void save() throws IOException {
+        if (!persist) return;
+        Path tmp = Files.createTempFile(FILE.getParent(), "undo", ".tmp");
+        try (BufferedWriter w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            // oldest first, so load() can push them back in order
+            for (Iterator<Entry> it = undo.descendingIterator(); it.hasNext(); ) w.write(toJson("undo", it.next()) + "\n");
+            for (Iterator<Entry> it = redo.descendingIterator(); it.hasNext(); ) w.write(toJson("redo", it.next()) + "\n");
+        }
+        AppFiles.moveIntoPlace(tmp, FILE);
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(FILE)) return;
+        try (BufferedReader r = Files.newBufferedReader(FILE, StandardCharsets.UTF_8)) {
+            for (String line; (line = r.readLine()) != null; ) {
+                if (line.isBlank()) continue;
+                Map<?, ?> m = (Map<?, ?>) Json.parse(line);
+                push("redo".equals(m.get("stack")) ? redo : undo, fromJson(m));
+            }
+        }
+        trim();
+    }
+
+    private static String toJson(String stack, Entry e) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("{\"stack\":").append(Json.quote(stack))
+                .append(",\"label\":").append(Json.quote(e.label()))
+                .append(",\"time\":").append(Json.quote(e.time().toString()))
+                .append(",\"deltas\":[");
+        for (int i = 0; i < e.deltas().size(); i++) {
+            Delta d = e.deltas().get(i);
+            if (i > 0) sb.append(',');
+            sb.append("{\"nameBefore\":").append(d.nameBefore() == null ? "null" : Json.quote(d.nameBefore()))
+                    .append(",\"nameAfter\":").append(d.nameAfter() == null ? "null" : Json.quote(d.nameAfter()))
+                    .append(",\"columns\":").append(Arrays.toString(d.columns()).replace(" ", ""))
+                    .append(",\"before\":").append(values(d.before()))
+                    .append(",\"after\":").append(values(d.after()))
+                    .append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static String values(String[] values) {
+        if (values == null) return "null";
+        StringBuilder sb = new StringBuilder().append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(',');
+            Json.quote(sb, values[i]);
+        }
+        return sb.append(']').toString();
+    }
+
+    private static Entry fromJson(Map<?, ?> m) {
+        List<Delta> deltas = new ArrayList<>();
+        for (Object o : (List<?>) m.get("deltas")) {
+            Map<?, ?> d = (Map<?, ?>) o;
+            List<?> cols = (List<?>) d.get("columns");
+            int[] columns = new int[cols.size()];
+            for (int i = 0; i < columns.length; i++) columns[i] = ((Number) cols.get(i)).intValue();
+            deltas.add(new Delta((String) d.get("nameBefore"), (String) d.get("nameAfter"), columns,
+                    strings(d.get("before")), strings(d.get("after"))));
+        }
+        return new Entry((String) m.get("label"), Instant.parse((String) m.get("time")), List.copyOf(deltas));
+    }
+
+    private static String[] strings(Object list) {
+        if (list == null) return null;
+        return ((List<?>) list).stream().map(String::valueOf).toArray(String[]::new);
+    }
+}
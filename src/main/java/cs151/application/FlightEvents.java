@@ -0,0 +1,110 @@
+package cs151.application;
+
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+/**
+ * JDK Flight Recorder events for the calls that can stall the FX thread, and
+ * the optional continuous recording that captures them.
+ *
+ * The events cost next to nothing unless a recording is running. Start one
+ * with -Dapp.jfr=true (kept to -Dapp.jfr.maxAgeMinutes, default 30, and
+ * -Dapp.jfr.maxSizeMb, default 100), then dump it from the Diagnostics screen
+ * or with {@code jcmd <pid> JFR.dump name=cs151 filename=freeze.jfr}. Any other
+ * recording (e.g. -XX:StartFlightRecording) sees the events too.
+ */
+public final class FlightEvents {
+
+    static final String RECORDING_NAME = "cs151";
+
+    private static Recording recording; // guarded by FlightEvents.class
+
+    private FlightEvents() {}
+
+    /** Start the continuous recording if -Dapp.jfr=true was given (no-op otherwise or if already running). */
+    public static synchronized void startIfRequested() {
+        if (recording != null || !Boolean.getBoolean("app.jfr")) return;
+        try {
+            Recording r = new Recording(Configuration.getConfiguration("default"));
+            r.setName(RECORDING_NAME);
+            r.setToDisk(true);
+            r.setMaxAge(Duration.ofMinutes(Long.getLong("app.jfr.maxAgeMinutes", 30)));
+            r.setMaxSize(Long.getLong("app.jfr.maxSizeMb", 100) * 1024 * 1024);
+            r.start();
+            recording = r;
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            e.printStackTrace(); // the app runs fine without it
+        }
+    }
+
+    /** True while the recording started by {@link #startIfRequested()} is running. */
+    public static synchronized boolean isRecording() {
+        return recording != null;
+    }
+
+    /** Write what the continuous recording holds so far to a .jfr file. */
+    public static synchronized void dump(Path file) throws IOException {
+        if (recording == null) throw new IllegalStateException("No flight recording is running (start with -Dapp.jfr=true).");
+        recording.dump(file);
+    }
+
+    /* ---------- events ---------- */
+
+    @Name("cs151.StorageRead")
+    @Label("Student Rows Read")
+    @Category({"CS151", "Storage"})
+    @Description("A full pass over the stored student rows (CSV parse or page-store scan)")
+    static final class StorageRead extends Event {
+        @Label("Store") String store;
+        @Label("Rows") long rows;
+        @Label("File Size") @DataAmount long bytes;
+    }
+
+    @Name("cs151.StorageWrite")
+    @Label("Student Rows Written")
+    @Category({"CS151", "Storage"})
+    @Description("Rows appended, updated, deleted or rewritten")
+    static final class StorageWrite extends Event {
+        @Label("Operation") String operation;
+        @Label("Store") String store;
+        @Label("Rows") long rows;
+        @Label("File Size") @DataAmount long bytes;
+    }
+
+    @Name("cs151.Search")
+    @Label("Student Search")
+    @Category({"CS151", "UI"})
+    static final class Search extends Event {
+        @Label("Filter") String filter;
+        @Label("Rows Searched") long rows;
+        @Label("Matches") long matches;
+    }
+
+    @Name("cs151.SceneLoad")
+    @Label("Scene Load")
+    @Category({"CS151", "UI"})
+    @Description("FXML loaded for a screen switch")
+    static final class SceneLoad extends Event {
+        @Label("FXML") String fxml;
+    }
+
+    @Name("cs151.CommentSave")
+    @Label("Comment Save")
+    @Category({"CS151", "Storage"})
+    static final class CommentSave extends Event {
+        @Label("Student") String student;
+        @Label("Characters") int length;
+        @Label("Log Size") @DataAmount long bytes;
+    }
+}
@@ -0,0 +1,265 @@
+package cs151.application;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Optional read-only JSON API for other tools on the same machine, so they do
+ * not have to parse Students.csv (multi-line quoted fields and all) themselves.
+ *
+ * Listens on the loopback interface only. Start it with -Dapp.http.port=8151
+ * next to the UI, or headless with {@code Cli serve}. Every request runs on its
+ * own virtual thread. Answers come from the current {@link StudentSnapshots}
+ * version, so no request waits on the FX thread or on a write in progress, and
+ * one response never mixes two versions.
+ *
+ * <pre>
+ *   GET /students?name=&amp;status=&amp;lang=&amp;db=&amp;role=&amp;offset=0&amp;limit=100   search (JSON)
+ *   GET /students/{full name}                                          one student (JSON) or 404
+ *   GET /export?format=jsonl|csv&amp;name=...                            all matches, streamed
+ *   GET /version                                                       snapshot version and size
+ * </pre>
+ * Each response carries an ETag for the snapshot version it was built from;
+ * a request whose If-None-Match still matches gets 304 Not Modified and no body.
+ */
+public final class HttpApi {
+
+    static final int DEFAULT_PORT = 8151;
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 100_000;
+
+    /** Tells this run's ETags apart from a previous run's (snapshot versions restart at 1). */
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+    private static HttpServer server;         // guarded by HttpApi.class
+    private static ExecutorService executor;  // guarded by HttpApi.class
+
+    private HttpApi() {}
+
+    /** Start on -Dapp.http.port if it is set (no-op otherwise); failures are printed, not thrown. */
+    public static void startIfRequested() {
+        Integer port = Integer.getInteger("app.http.port");
+        if (port == null) return;
+        try {
+            start(port);
+        } catch (IOException e) {
+            e.printStackTrace(); // the app runs fine without it
+        }
+    }
+
+    /** Start listening on 127.0.0.1:port (0 picks a free port); returns the bound port. */
+    public static synchronized int start(int port) throws IOException {
+        if (server != null) return server.getAddress().getPort();
+        HttpServer s = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                Integer.getInteger("app.http.backlog", 1024));
+        s.createContext("/students", handler("students", true, HttpApi::students));
+        s.createContext("/export", handler("export", false, HttpApi::export));
+        s.createContext("/version", handler("version", false, HttpApi::version));
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        s.setExecutor(executor);
+        s.start();
+        server = s;
+        return s.getAddress().getPort();
+    }
+
+    public static synchronized void stop() {
+        if (server == null) return;
+        server.stop(1);
+        executor.shutdown();
+        server = null;
+        executor = null;
+    }
+
+    /* ---------- endpoints ---------- */
+
+    private interface Endpoint {
+        void handle(HttpExchange ex, StudentSnapshots.Snapshot snap, Map<String, String> query) throws IOException;
+    }
+
+    /**
+     * GET only, timed, and never leaks an exception to the client. Contexts match
+     * by prefix, so anything but the exact path (or a sub-path, when the endpoint
+     * takes one) is a 404 here.
+     */
+    private static HttpHandler handler(String name, boolean subPaths, Endpoint endpoint) {
+        return ex -> {
+            try (Metrics.Timing t = Metrics.time("http." + name)) {
+                Metrics.counter("http.requests").increment();
+                if (!ex.getRequestMethod().equals("GET")) {
+                    ex.getResponseHeaders().set("Allow", "GET");
+                    sendText(ex, 405, "Only GET is supported.");
+                    return;
+                }
+                String path = ex.getRequestURI().getPath(), context = ex.getHttpContext().getPath();
+                if (!path.equals(context) && !(subPaths && path.startsWith(context + "/"))) {
+                    sendText(ex, 404, "Not found: " + path);
+                    return;
+                }
+                endpoint.handle(ex, StudentSnapshots.current(), query(ex));
+            } catch (IllegalArgumentException e) {
+                sendText(ex, 400, e.getMessage());
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+                sendText(ex, 500, "Internal error: " + e.getMessage());
+            } finally {
+                ex.close();
+            }
+        };
+    }
+
+    private static void students(HttpExchange ex, StudentSnapshots.Snapshot snap, Map<String, String> q) throws IOException {
+        String path = ex.getRequestURI().getPath();
+        String rest = path.length() > "/students".length() ? path.substring("/students/".length()) : "";
+        if (!rest.isEmpty()) {
+            Student s = snap.get(rest);
+            if (s == null) sendText(ex, 404, "No student named " + rest);
+            else if (!notModified(ex, snap)) sendJson(ex, Json.student(CommentStore.get().withLogged(s.toRow())));
+            return;
+        }
+
+        int offset = number(q, "offset", 0, Integer.MAX_VALUE, 0);
+        int limit = number(q, "limit", 0, MAX_LIMIT, DEFAULT_LIMIT);
+        StudentFilter filter = filter(q);
+        if (notModified(ex, snap)) return;
+        CommentStore comments = CommentStore.get();
+        StringBuilder sb = new StringBuilder(256 + 256 * Math.min(limit, 1000));
+        sb.append("{\"version\":").append(snap.version()).append(",\"students\":[");
+        int total = 0, shown = 0;
+        for (Student s : snap.students()) {
+            if (!filter.matches(s)) continue;
+            if (total++ < offset || shown >= limit) continue;
+            if (shown++ > 0) sb.append(',');
+            sb.append(Json.student(comments.withLogged(s.toRow())));
+        }
+        sb.append("],\"total\":").append(total).append(",\"offset\":").append(offset).append('}');
+        Metrics.counter("search.matches").add(total);
+        sendJson(ex, sb.toString());
+    }
+
+    /** Chunked, written from one snapshot in {@link StudentSnapshots.Snapshot#students()} order. */
+    private static void export(HttpExchange ex, StudentSnapshots.Snapshot snap, Map<String, String> q) throws IOException {
+        String format = q.getOrDefault("format", "jsonl").toLowerCase(Locale.ROOT);
+        boolean csv = switch (format) {
+            case "csv" -> true;
+            case "jsonl", "ndjson" -> false;
+            default -> throw new IllegalArgumentException("format must be csv or jsonl: " + format);
+        };
+        StudentFilter filter = filter(q);
+        if (notModified(ex, snap)) return;
+        ex.getResponseHeaders().set("Content-Type", csv ? "text/csv; charset=utf-8" : "application/x-ndjson; charset=utf-8");
+        ex.sendResponseHeaders(200, 0);
+        try (Writer w = new BufferedWriter(new OutputStreamWriter(ex.getResponseBody(), StandardCharsets.UTF_8), 1 << 16)) {
+            if (csv) w.write(StudentStorage.HEADER + "\n");
+            CommentStore comments = CommentStore.get();
+            for (Student s : snap.students()) {
+                if (!filter.matches(s)) continue;
+                String[] r = comments.withLogged(s.toRow());
+                w.write(csv ? StudentStorage.toCsv(r) : Json.student(r));
+                w.write('\n');
+            }
+        }
+    }
+
+    private static void version(HttpExchange ex, StudentSnapshots.Snapshot snap, Map<String, String> q) throws IOException {
+        if (notModified(ex, snap)) return;
+        sendJson(ex, "{\"version\":" + snap.version() + ",\"students\":" + snap.size() + "}");
+    }
+
+    /* ---------- helpers ---------- */
+
+    private static StudentFilter filter(Map<String, String> q) {
+        return new StudentFilter(q.get("name"), q.get("status"), q.get("lang"), q.get("db"), q.get("role"));
+    }
+
+    private static int number(Map<String, String> q, String key, int min, int max, int fallback) {
+        String v = q.get(key);
+        if (v == null || v.isBlank()) return fallback;
+        try {
+            int n = Integer.parseInt(v.trim());
+            if (n >= min && n <= max) return n;
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        throw new IllegalArgumentException(key + " must be a number from " + min + " to " + max + ": " + v);
+    }
+
+    /** Query parameters (form-decoded); a repeated key keeps its first value. */
+    private static Map<String, String> query(HttpExchange ex) {
+        Map<String, String> out = new HashMap<>();
+        String raw = ex.getRequestURI().getRawQuery();
+        if (raw == null) return out;
+        for (String pair : raw.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String k = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String v = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            out.putIfAbsent(k, v);
+        }
+        return out;
+    }
+
+    /**
+     * Tag the response with the snapshot's ETag and answer 304 if the client
+     * already has it. Endpoints call this once their parameters checked out, so
+     * a bad request is a 400 whatever the client sends in If-None-Match.
+     */
+    private static boolean notModified(HttpExchange ex, StudentSnapshots.Snapshot snap) throws IOException {
+        String etag = "\"" + EPOCH + "-" + snap.version() + "\"";
+        Headers h = ex.getResponseHeaders();
+        h.set("ETag", etag);
+        h.set("Cache-Control", "no-cache");
+        if (!matches(ex.getRequestHeaders().getFirst("If-None-Match"), etag)) return false;
+        Metrics.counter("http.notModified").increment();
+        ex.sendResponseHeaders(304, -1);
+        return true;
+    }
+
+    /** If-None-Match holds this tag (or "*"); weak tags compare equal to strong ones here. */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String tag : ifNoneMatch.split(",")) {
+            String t = tag.trim();
+            if (t.startsWith("W/")) t = t.substring(2);
+            if (t.equals("*") || t.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    private static void sendJson(HttpExchange ex, String json) throws IOException {
+        send(ex, 200, "application/json; charset=utf-8", json);
+    }
+
+    private static void sendText(HttpExchange ex, int status, String text) {
+        try {
+            send(ex, status, "text/plain; charset=utf-8", text + "\n");
+        } catch (IOException | IllegalStateException ignored) {
+            // headers already sent (failed mid-export) or the client went away
+        }
+    }
+
+    private static void send(HttpExchange ex, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", contentType);
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package cs151.application;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Minimal JSON helpers (the app has no JSON library). */
+final class Json {
+
+    /** Student field names, in StudentStorage column order. */
+    static final String[] FIELDS = {
+            "fullName", "academicStatus", "employed", "jobDetails", "programmingLanguages",
+            "databases", "preferredRole", "facultyComment", "whitelisted", "blacklisted"
+    };
+
+    private Json() {}
+
+    /** A storage row as one JSON object; the Yes/No columns become booleans. */
+    static String student(String[] row) {
+        StringBuilder sb = new StringBuilder(256).append('{');
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (i > 0) sb.append(',');
+            String v = i < row.length && row[i] != null ? row[i] : "";
+            quote(sb, FIELDS[i]).append(':');
+            if (i == 2 || i == 8 || i == 9) sb.append(StudentStorage.toYesNo(v).equals("Yes"));
+            else quote(sb, v);
+        }
+        return sb.append('}').toString();
+    }
+
+    /** Back from {@link #student}: a storage row with Yes/No columns. */
+    static String[] row(Map<?, ?> student) {
+        String[] row = new String[FIELDS.length];
+        for (int i = 0; i < FIELDS.length; i++) {
+            Object v = student.get(FIELDS[i]);
+            row[i] = v instanceof Boolean b ? (b ? "Yes" : "No") : v == null ? "" : v.toString();
+        }
+        return row;
+    }
+
+    static String quote(String s) {
+        return quote(new StringBuilder(s.length() + 2), s).toString();
+    }
+
+    static StringBuilder quote(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        return sb.append('"');
+    }
+
+    /**
+     * Parse one JSON value: objects become LinkedHashMaps, arrays Lists,
+     * numbers Long or Double, plus String, Boolean and null.
+     */
+    static Object parse(String text) {
+        Parser p = new Parser(text);
+        Object v = p.value();
+        p.skipSpace();
+        if (p.pos != text.length()) throw p.error("Unexpected trailing text");
+        return v;
+    }
+
+    private static final class Parser {
+        private final String s;
+        private int pos;
+
+        Parser(String s) {
+            this.s = s;
+        }
+
+        Object value() {
+            skipSpace();
+            if (pos >= s.length()) throw error("Unexpected end");
+            char c = s.charAt(pos);
+            switch (c) {
+                case '{': return object();
+                case '[': return array();
+                case '"': return string();
+                case 't': return literal("true", Boolean.TRUE);
+                case 'f': return literal("false", Boolean.FALSE);
+                case 'n': return literal("null", null);
+                default: return number();
+            }
+        }
+
+        private Map<String, Object> object() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            pos++; // {
+            skipSpace();
+            if (peek('}')) return m;
+            do {
+                skipSpace();
+                String key = string();
+                skipSpace();
+                expect(':');
+                m.put(key, value());
+                skipSpace();
+            } while (consume(','));
+            expect('}');
+            return m;
+        }
+
+        private List<Object> array() {
+            List<Object> list = new ArrayList<>();
+            pos++; // [
+            skipSpace();
+            if (peek(']')) return list;
+            do {
+                list.add(value());
+                skipSpace();
+            } while (consume(','));
+            expect(']');
+            return list;
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (pos < s.length()) {
+                char c = s.charAt(pos++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= s.length()) break;
+                char e = s.charAt(pos++);
+                switch (e) {
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > s.length()) throw error("Bad \\u escape");
+                        sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                        pos += 4;
+                    }
+                    default -> sb.append(e); // " \ /
+                }
+            }
+            throw error("Unterminated string");
+        }
+
+        private Object number() {
+            int start = pos;
+            while (pos < s.length() && "+-0123456789.eE".indexOf(s.charAt(pos)) >= 0) pos++;
+            String n = s.substring(start, pos);
+            if (n.isEmpty()) throw error("Unexpected character");
+            try {
+                return n.matches("-?\\d+") ? (Object) Long.parseLong(n) : (Object) Double.parseDouble(n);
+            } catch (NumberFormatException e) {
+                throw error("Bad number " + n);
+            }
+        }
+
+        private Object literal(String word, Object v) {
+            if (!s.startsWith(word, pos)) throw error("Unexpected character");
+            pos += word.length();
+            return v;
+        }
+
+        void skipSpace() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+        }
+
+        private boolean peek(char c) {
+            if (pos < s.length() && s.charAt(pos) == c) { pos++; return true; }
+            return false;
+        }
+
+        private boolean consume(char c) {
+            skipSpace();
+            return peek(c);
+        }
+
+        private void expect(char c) {
+            if (!peek(c)) throw error("Expected '" + c + "'");
+        }
+
+        IllegalArgumentException error(String msg) {
+            return new IllegalArgumentException(msg + " at position " + pos);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package cs151.application;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The one place that reads and writes ProgrammingLanguage.csv.
+ * Names are cached after the first read with a case-insensitive set for the
+ * duplicate check, and every save swaps in a complete temp file.
+ *
+ * Also counts how many students list each language. The counts come from one
+ * pass over Students.csv on first use and are then kept current from
+ * StudentStorage's change events, so usage never needs another scan.
+ */
+public final class LanguageCatalog {
+
+    private static final LanguageCatalog INSTANCE = new LanguageCatalog(AppFiles.LANG_CSV);
+
+    private final Path file;
+    private List<String> names;      // file order, null until loaded
+    private Set<String> keys;        // lower-case names
+    private Map<String, Integer> usage; // lower-case name -> students, null until counted
+
+    private LanguageCatalog(Path file) {
+        this.file = file;
+        StudentStorage.addChangeListener(new StudentStorage.ChangeListener() {
+            @Override
+            public void rowChanged(String[] before, String[] after) {
+                recount(before, after);
+            }
+
+            @Override
+            public void reloaded() {
+                dropUsage();
+            }
+        });
+    }
+
+    public static LanguageCatalog get() {
+        return INSTANCE;
+    }
+
+    /** Languages in file order (creates the file with its header if missing). */
+    public synchronized List<String> names() throws IOException {
+        load();
+        return List.copyOf(names);
+    }
+
+    public synchronized boolean contains(String name) throws IOException {
+        load();
+        return keys.contains(key(name));
+    }
+
+    /** Add and save; false if the name (ignoring case) is already listed. */
+    public synchronized boolean add(String name) throws IOException {
+        load();
+        String n = name.trim();
+        if (n.isEmpty() || !keys.add(key(n))) return false;
+        names.add(n);
+        save();
+        return true;
+    }
+
+    /** Remove and save; false if it was not listed. Student rows are left as they are. */
+    public synchronized boolean remove(String name) throws IOException {
+        load();
+        if (!keys.remove(key(name))) return false;
+        names.removeIf(n -> key(n).equals(key(name)));
+        save();
+        return true;
+    }
+
+    /** Forget the cached names; the next call re-reads the file (it was edited outside the app). */
+    public synchronized void reload() {
+        names = null;
+        keys = null;
+    }
+
+    /** Number of students whose profile lists the language. */
+    public synchronized int usage(String name) throws IOException {
+        return usage().getOrDefault(key(name), 0);
+    }
+
+    /* ---------- file ---------- */
+
+    private void load() throws IOException {
+        if (names != null) return;
+        names = new ArrayList<>();
+        keys = new HashSet<>();
+        if (!Files.exists(file)) {
+            save();
+            return;
+        }
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (int i = 1; i < lines.size(); i++) { // skip header
+            String n = lines.get(i).trim();
+            if (!n.isEmpty() && keys.add(key(n))) names.add(n);
+        }
+    }
+
+    /** Header + names to a temp file, then swap it in. */
+    private void save() throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tmp = Files.createTempFile(file.getParent(), "ProgrammingLanguage", ".tmp");
+        try {
+            try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                w.write("Name\n");
+                for (String n : names) w.write(n + "\n");
+            }
+            AppFiles.moveIntoPlace(tmp, file);
+            DataFileWatcher.ownWrite(file);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /* ---------- usage index ---------- */
+
+    private Map<String, Integer> usage() throws IOException {
+        if (usage == null) {
+            Map<String, Integer> counts = new HashMap<>();
+            StudentStorage.forEachRow(r -> count(counts, r, 1));
+            usage = counts;
+        }
+        return usage;
+    }
+
+    private synchronized void recount(String[] before, String[] after) {
+        if (usage == null) return; // not counted yet; the first scan will see this row
+        count(usage, before, -1);
+        count(usage, after, 1);
+    }
+
+    private synchronized void dropUsage() {
+        usage = null;
+    }
+
+    /** Add delta for each distinct language listed in the row. */
+    private static void count(Map<String, Integer> counts, String[] row, int delta) {
+        if (row == null || row.length <= Student.PROGRAMMING_LANGUAGES) return;
+        Set<String> distinct = new HashSet<>();
+        for (String n : SkillCatalog.split(row[Student.PROGRAMMING_LANGUAGES])) {
+            String k = key(n);
+            if (distinct.add(k)) counts.merge(k, delta, (a, b) -> a + b == 0 ? null : a + b);
+        }
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,23 +1,70 @@
-package cs151.application;
-
-import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
-import javafx.stage.Stage;
-
-import java.io.IOException;
-
-public class Main extends Application {
-    @Override
-    public void start(Stage stage) throws IOException {
-        FXMLLoader fxmlLoader = new FXMLLoader(Main.class.getResource("hello-view.fxml"));
-        Scene scene = new Scene(fxmlLoader.load(), 800, 500);
-        stage.setTitle("Home Page");
-        stage.setScene(scene);
-        stage.show();
-    }
-
-    public static void main(String[] args) {
-        launch();
-    }
-}
\ No newline at end of file
+package cs151.application;
+
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+public class Main extends Application {
+    @Override
+    public void start(Stage stage) throws IOException {
+        FlightEvents.startIfRequested(); // -Dapp.jfr=true: continuous recording for freeze reports
+        FXMLLoader fxmlLoader = new FXMLLoader(Main.class.getResource("hello-view.fxml"));
+        Scene scene = new Scene(Navigation.load(fxmlLoader), 800, 500);
+        stage.setTitle("Home Page");
+        stage.setScene(scene);
+        reportFirstFrame(scene);
+        stage.show();
+        DataFileWatcher.start(); // pick up edits made to the data files outside the app
+        AuditJournal.start();
+        HttpApi.startIfRequested(); // -Dapp.http.port=8151: local JSON API for other tools
+        Backups.startIfRequested(); // -Dapp.backup.everyMinutes=60: deduplicated snapshots of the data files
+    }
+
+    @Override
+    public void stop() {
+        HttpApi.stop();
+        Backups.stop();
+        AuditJournal.stop(); // flush queued audit events before the JVM exits
+        try {
+            EditHistory.get().save(); // -Dapp.undo.persist=true: undo survives a restart
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Startup measurement hooks (used by the AppCDS training run and
+     * scripts/startup-benchmark.sh):
+     * -Dapp.startupReport=true prints the time from JVM start to the first laid-out home scene,
+     * -Dapp.exitAfterStartup=true quits right after that frame.
+     */
+    private static void reportFirstFrame(Scene scene) {
+        boolean report = Boolean.getBoolean("app.startupReport");
+        boolean exit = Boolean.getBoolean("app.exitAfterStartup");
+        if (!report && !exit) return;
+
+        Runnable[] listener = new Runnable[1];
+        listener[0] = () -> {
+            scene.removePostLayoutPulseListener(listener[0]);
+            // runLater lands after this pulse has been rendered
+            Platform.runLater(() -> {
+                if (report) {
+                    Instant jvmStart = ProcessHandle.current().info().startInstant().orElse(Instant.now());
+                    System.out.println("startup.firstSceneMillis=" + Duration.between(jvmStart, Instant.now()).toMillis());
+                }
+                if (exit) Platform.exit();
+            });
+        };
+        scene.addPostLayoutPulseListener(listener[0]);
+    }
+
+    public static void main(String[] args) {
+        launch();
+    }
+}
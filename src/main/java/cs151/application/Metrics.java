@@ -0,0 +1,233 @@
+package cs151.application;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process counters, gauges and latency histograms for the diagnostics
+ * screen and bug-report dumps.
+ *
+ * Recording is a couple of System.nanoTime calls and atomic adds, so it stays
+ * on all the time; gauges are only evaluated when someone looks at them.
+ * -Dapp.metrics=false turns recording off entirely.
+ *
+ * Typical use:
+ * <pre>
+ *     try (Metrics.Timing t = Metrics.time("storage.writeAllRows")) { ... }
+ *     Metrics.counter("storage.rowsRead").add(n);
+ * </pre>
+ */
+public final class Metrics {
+
+    private static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("app.metrics"));
+
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private static final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    static {
+        Runtime rt = Runtime.getRuntime();
+        gauge("heap.usedBytes", () -> rt.totalMemory() - rt.freeMemory());
+        gauge("heap.maxBytes", rt::maxMemory);
+        gauge("students", () -> {
+            try {
+                return StudentSnapshots.current().size();
+            } catch (IOException e) {
+                return -1;
+            }
+        });
+        for (Path p : List.of(AppFiles.STUDENTS_CSV, AppFiles.STUDENTS_DB, AppFiles.STUDENTS_INDEX, AppFiles.LANG_CSV,
+                AppFiles.BASE_DIR.resolve("Comments.log"), AppFiles.BASE_DIR.resolve("Comments.archive"), AuditJournal.FILE)) {
+            gauge("file." + p.getFileName() + ".bytes", () -> {
+                try {
+                    return Files.exists(p) ? Files.size(p) : 0;
+                } catch (IOException e) {
+                    return -1;
+                }
+            });
+        }
+    }
+
+    private Metrics() {}
+
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, n -> new Counter());
+    }
+
+    public static Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, n -> new Histogram());
+    }
+
+    /** Register (or replace) a value read only when a snapshot is taken. */
+    public static void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /** Start timing into the named histogram; close() records the elapsed time. */
+    public static Timing time(String name) {
+        return ENABLED ? new Timing(histogram(name), System.nanoTime()) : Timing.OFF;
+    }
+
+    /* ---------- types ---------- */
+
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void add(long n) {
+            if (ENABLED) value.add(n);
+        }
+
+        public void increment() {
+            add(1);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    /** Elapsed time of one timed block. */
+    public static final class Timing implements AutoCloseable {
+        static final Timing OFF = new Timing(null, 0);
+
+        private final Histogram target;
+        private final long start;
+
+        private Timing(Histogram target, long start) {
+            this.target = target;
+            this.start = start;
+        }
+
+        @Override
+        public void close() {
+            if (target != null) target.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Latency histogram in the HDR style: 16 linear sub-buckets per power of
+     * two, so any recorded value is reported within 1/16 (about 6%) of itself,
+     * from nanoseconds to hours, in a fixed array of counters.
+     */
+    public static final class Histogram {
+        private static final int SUB_BITS = 4;
+        private static final int SUB = 1 << SUB_BITS;
+        private static final int BUCKETS = (64 - SUB_BITS) * SUB;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder total = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        /** Record one value in nanoseconds (negative values count as 0). */
+        public void record(long nanos) {
+            if (!ENABLED) return;
+            long v = Math.max(0, nanos);
+            counts.incrementAndGet(index(v));
+            total.increment();
+            sum.add(v);
+            max.accumulateAndGet(v, Math::max);
+        }
+
+        static int index(long v) {
+            if (v < SUB) return (int) v;
+            int e = 63 - Long.numberOfLeadingZeros(v); // >= SUB_BITS
+            int sub = (int) (v >>> (e - SUB_BITS)) & (SUB - 1);
+            return (e - SUB_BITS + 1) * SUB + sub;
+        }
+
+        /** Middle of the bucket's value range. */
+        static long value(int index) {
+            if (index < SUB) return index;
+            int e = index / SUB + SUB_BITS - 1;
+            long low = (long) (SUB + index % SUB) << (e - SUB_BITS);
+            return low + (1L << (e - SUB_BITS)) / 2;
+        }
+
+        public long count() {
+            return total.sum();
+        }
+
+        public long maxNanos() {
+            return max.get();
+        }
+
+        public long meanNanos() {
+            long n = count();
+            return n == 0 ? 0 : sum.sum() / n;
+        }
+
+        /** Value at the percentile (0-100) in nanoseconds; never above the recorded max. */
+        public long percentileNanos(double percentile) {
+            long n = 0;
+            long[] c = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) n += c[i] = counts.get(i);
+            if (n == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += c[i];
+                if (seen >= rank) return Math.min(value(i), max.get());
+            }
+            return max.get();
+        }
+    }
+
+    /* ---------- snapshots ---------- */
+
+    /** One row of the diagnostics screen. */
+    public record Row(String kind, String name, String value) {}
+
+    /** Every metric as display rows: histograms, then counters, then gauges, each by name. */
+    public static List<Row> snapshot() {
+        List<Row> out = new ArrayList<>();
+        new TreeMap<>(histograms).forEach((name, h) -> out.add(new Row("timer", name,
+                h.count() + " calls, p50 " + millis(h.percentileNanos(50)) + ", p99 " + millis(h.percentileNanos(99))
+                        + ", max " + millis(h.maxNanos()))));
+        new TreeMap<>(counters).forEach((name, c) -> out.add(new Row("counter", name, String.valueOf(c.get()))));
+        new TreeMap<>(gauges).forEach((name, g) -> {
+            long v = g.getAsLong();
+            out.add(new Row("gauge", name, name.endsWith("Bytes") || name.endsWith(".bytes") ? bytes(v) : String.valueOf(v)));
+        });
+        return out;
+    }
+
+    /** Write a snapshot plus JVM details to a text file (attach it to a bug report). */
+    public static void dump(Path file) throws IOException {
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+             PrintWriter out = new PrintWriter(w)) {
+            out.println("# metrics snapshot " + Instant.now());
+            out.println("# java " + System.getProperty("java.version") + " (" + System.getProperty("java.vm.name") + "), "
+                    + System.getProperty("os.name") + " " + System.getProperty("os.arch") + ", "
+                    + Runtime.getRuntime().availableProcessors() + " cpus");
+            out.println("# data " + AppFiles.BASE_DIR);
+            for (Row r : snapshot()) out.println(r.kind() + "\t" + r.name() + "\t" + r.value());
+        }
+    }
+
+    static String millis(long nanos) {
+        return nanos >= 10_000_000 ? (nanos / 1_000_000) + " ms" : String.format(Locale.ROOT, "%.2f ms", nanos / 1e6);
+    }
+
+    private static String bytes(long v) {
+        if (v < 0) return "?";
+        if (v < 1024) return v + " B";
+        if (v < 1024 * 1024) return String.format(Locale.ROOT, "%.1f KB", v / 1024.0);
+        return String.format(Locale.ROOT, "%.1f MB", v / (1024.0 * 1024));
+    }
+}
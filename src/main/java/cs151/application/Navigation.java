@@ -0,0 +1,28 @@
+package cs151.application;
+
+import javafx.fxml.FXMLLoader;
+
+import java.io.IOException;
+
+/** Scene loading shared by the navigation handlers, so every screen switch is measured the same way. */
+final class Navigation {
+
+    private Navigation() {}
+
+    /**
+     * loader.load(), timed under "fxml.load &lt;file&gt;" in {@link Metrics} and
+     * recorded as a {@link FlightEvents.SceneLoad} event.
+     */
+    static <T> T load(FXMLLoader loader) throws IOException {
+        String url = String.valueOf(loader.getLocation());
+        String fxml = url.substring(url.lastIndexOf('/') + 1);
+        FlightEvents.SceneLoad ev = new FlightEvents.SceneLoad();
+        ev.begin();
+        try (Metrics.Timing t = Metrics.time("fxml.load " + fxml)) {
+            return loader.load();
+        } finally {
+            ev.fxml = fxml;
+            ev.commit();
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package cs151.application;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable hash map (a hash array mapped trie): put and remove return a new
+ * map that shares every untouched branch with the old one, so keeping older
+ * versions around costs only the few nodes on the changed path.
+ */
+final class PersistentMap<K, V> {
+
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(K key) {
+        return root == null ? null : (V) root.get(key, hash(key), 0);
+    }
+
+    PersistentMap<K, V> put(K key, V value) {
+        boolean[] added = new boolean[1];
+        Node r = root == null ? Bitmap.EMPTY : root;
+        Node n = r.put(key, value, hash(key), 0, added);
+        return n == r ? this : new PersistentMap<>(n, size + (added[0] ? 1 : 0));
+    }
+
+    PersistentMap<K, V> remove(K key) {
+        if (root == null) return this;
+        Node n = root.remove(key, hash(key), 0);
+        return n == root ? this : new PersistentMap<>(n, size - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        if (root != null) root.forEach((BiConsumer<Object, Object>) action);
+    }
+
+    /** Values in trie order (not insertion order), walked in place: nothing is copied. */
+    Iterator<V> values() {
+        return new Iterator<>() {
+            private Object[][] arrays = new Object[8][]; // slot arrays from the root down
+            private int[] pos = new int[8];
+            private int depth = -1;
+            private Object next;
+            private boolean ready;
+
+            {
+                if (root != null) push(root);
+            }
+
+            private void push(Node n) {
+                if (++depth == arrays.length) {
+                    arrays = Arrays.copyOf(arrays, depth * 2);
+                    pos = Arrays.copyOf(pos, depth * 2);
+                }
+                arrays[depth] = n instanceof Bitmap b ? b.slots : ((Collision) n).pairs;
+                pos[depth] = 0;
+            }
+
+            @Override
+            public boolean hasNext() {
+                while (!ready && depth >= 0) {
+                    Object[] a = arrays[depth];
+                    int i = pos[depth];
+                    if (i == a.length) {
+                        arrays[depth--] = null;
+                        continue;
+                    }
+                    pos[depth] = i + 2;
+                    if (a[i] == null) {
+                        push((Node) a[i + 1]);
+                    } else {
+                        next = a[i + 1];
+                        ready = true;
+                    }
+                }
+                return ready;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public V next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                ready = false;
+                return (V) next;
+            }
+        };
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /* ---------- nodes ---------- */
+
+    private interface Node {
+        Object get(Object key, int hash, int shift);
+        Node put(Object key, Object value, int hash, int shift, boolean[] added);
+        /** Same node if the key was absent; null if the node became empty. */
+        Node remove(Object key, int hash, int shift);
+        void forEach(BiConsumer<Object, Object> action);
+    }
+
+    /** Up to 32 slots picked by 5 bits of the hash; only occupied slots are stored. */
+    private static final class Bitmap implements Node {
+        static final Bitmap EMPTY = new Bitmap(0, new Object[0]);
+
+        final int bitmap;
+        final Object[] slots; // key, value pairs; key == null means value is a child Node
+
+        Bitmap(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        private static int bit(int hash, int shift) {
+            return 1 << ((hash >>> shift) & 31);
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        public Object get(Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) return null;
+            int i = index(bit);
+            Object k = slots[2 * i], v = slots[2 * i + 1];
+            if (k == null) return ((Node) v).get(key, hash, shift + 5);
+            return key.equals(k) ? v : null;
+        }
+
+        @Override
+        public Node put(Object key, Object value, int hash, int shift, boolean[] added) {
+            int bit = bit(hash, shift);
+            int i = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] s = new Object[slots.length + 2];
+                System.arraycopy(slots, 0, s, 0, 2 * i);
+                s[2 * i] = key;
+                s[2 * i + 1] = value;
+                System.arraycopy(slots, 2 * i, s, 2 * i + 2, slots.length - 2 * i);
+                added[0] = true;
+                return new Bitmap(bitmap | bit, s);
+            }
+            Object k = slots[2 * i], v = slots[2 * i + 1];
+            Node child;
+            if (k == null) {
+                Node old = (Node) v;
+                child = old.put(key, value, hash, shift + 5, added);
+                if (child == old) return this;
+            } else if (key.equals(k)) {
+                if (v == value) return this;
+                return with(2 * i + 1, value);
+            } else {
+                added[0] = true;
+                child = pair(k, v, hash(k), key, value, hash, shift + 5);
+            }
+            Object[] s = slots.clone();
+            s[2 * i] = null;
+            s[2 * i + 1] = child;
+            return new Bitmap(bitmap, s);
+        }
+
+        @Override
+        public Node remove(Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) return this;
+            int i = index(bit);
+            Object k = slots[2 * i], v = slots[2 * i + 1];
+            if (k == null) {
+                Node old = (Node) v;
+                Node child = old.remove(key, hash, shift + 5);
+                if (child == old) return this;
+                if (child != null) return with(2 * i + 1, child);
+            } else if (!key.equals(k)) {
+                return this;
+            }
+            if (bitmap == bit) return null;
+            Object[] s = new Object[slots.length - 2];
+            System.arraycopy(slots, 0, s, 0, 2 * i);
+            System.arraycopy(slots, 2 * i + 2, s, 2 * i, slots.length - 2 * i - 2);
+            return new Bitmap(bitmap & ~bit, s);
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < slots.length; i += 2) {
+                if (slots[i] == null) ((Node) slots[i + 1]).forEach(action);
+                else action.accept(slots[i], slots[i + 1]);
+            }
+        }
+
+        private Bitmap with(int slot, Object value) {
+            Object[] s = slots.clone();
+            s[slot] = value;
+            return new Bitmap(bitmap, s);
+        }
+
+        private static Node pair(Object k1, Object v1, int h1, Object k2, Object v2, int h2, int shift) {
+            if (h1 == h2) return new Collision(h1, new Object[]{k1, v1, k2, v2});
+            boolean[] ignored = new boolean[1];
+            return EMPTY.put(k1, v1, h1, shift, ignored).put(k2, v2, h2, shift, ignored);
+        }
+    }
+
+    /** Keys whose full hashes are equal, kept in a small array. */
+    private static final class Collision implements Node {
+        final int hash;
+        final Object[] pairs;
+
+        Collision(int hash, Object[] pairs) {
+            this.hash = hash;
+            this.pairs = pairs;
+        }
+
+        private int find(Object key) {
+            for (int i = 0; i < pairs.length; i += 2) {
+                if (key.equals(pairs[i])) return i;
+            }
+            return -1;
+        }
+
+        @Override
+        public Object get(Object key, int hash, int shift) {
+            int i = find(key);
+            return i < 0 ? null : pairs[i + 1];
+        }
+
+        @Override
+        public Node put(Object key, Object value, int hash, int shift, boolean[] added) {
+            if (hash != this.hash) {
+                // split: hang this node and the new key under a bitmap node at this level
+                Node n = new Bitmap(Bitmap.bit(this.hash, shift), new Object[]{null, this});
+                return n.put(key, value, hash, shift, added);
+            }
+            int i = find(key);
+            if (i >= 0) {
+                if (Objects.equals(pairs[i + 1], value)) return this;
+                Object[] p = pairs.clone();
+                p[i + 1] = value;
+                return new Collision(hash, p);
+            }
+            Object[] p = Arrays.copyOf(pairs, pairs.length + 2);
+            p[pairs.length] = key;
+            p[pairs.length + 1] = value;
+            added[0] = true;
+            return new Collision(hash, p);
+        }
+
+        @Override
+        public Node remove(Object key, int hash, int shift) {
+            int i = find(key);
+            if (i < 0) return this;
+            if (pairs.length == 2) return null;
+            Object[] p = new Object[pairs.length - 2];
+            System.arraycopy(pairs, 0, p, 0, i);
+            System.arraycopy(pairs, i + 2, p, i, pairs.length - i - 2);
+            return new Collision(hash, p);
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < pairs.length; i += 2) action.accept(pairs[i], pairs[i + 1]);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package cs151.application;
+
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+
+/** Reports screen: one small table of student counts per {@link CohortStats.Dimension}. */
+public class ReportsController {
+
+    private static final int COLUMNS = 3;
+
+    @FXML private Label totalLabel;
+    @FXML private GridPane grid;
+
+    @FXML
+    public void initialize() {
+        CohortStats.Report report;
+        try {
+            report = CohortStats.get().report();
+        } catch (IOException e) {
+            e.printStackTrace();
+            new Alert(Alert.AlertType.ERROR, "Failed to read student data.", ButtonType.OK).showAndWait();
+            return;
+        }
+        totalLabel.setText(report.total() == 1 ? "1 student" : report.total() + " students");
+
+        int i = 0;
+        for (CohortStats.Dimension d : CohortStats.Dimension.values()) {
+            Label title = new Label(d.title());
+            title.setStyle("-fx-font-weight: bold;");
+            TableView<CohortStats.Count> table = table(report.total());
+            table.getItems().setAll(report.of(d));
+            grid.add(new VBox(5.0, title, table), i % COLUMNS, i / COLUMNS);
+            i++;
+        }
+    }
+
+    private static TableView<CohortStats.Count> table(int total) {
+        TableView<CohortStats.Count> table = new TableView<>();
+        table.setPlaceholder(new Label("No students"));
+        table.setPrefHeight(200.0);
+
+        TableColumn<CohortStats.Count, String> value = new TableColumn<>("Value");
+        value.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().value()));
+        value.setPrefWidth(160.0);
+
+        TableColumn<CohortStats.Count, Integer> students = new TableColumn<>("Students");
+        students.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().students()));
+        students.setPrefWidth(70.0);
+
+        // languages and databases can add up to more than 100%: students list several
+        TableColumn<CohortStats.Count, String> share = new TableColumn<>("Share");
+        share.setCellValueFactory(c -> new ReadOnlyStringWrapper(
+                total == 0 ? "" : Math.round(100.0 * c.getValue().students() / total) + "%"));
+        share.setPrefWidth(60.0);
+
+        table.getColumns().add(value);
+        table.getColumns().add(students);
+        table.getColumns().add(share);
+        return table;
+    }
+
+    @FXML
+    private void goToSkillMatrix(javafx.event.ActionEvent event) throws IOException {
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/cs151/application/skill-matrix.fxml"));
+        Scene scene = new Scene(Navigation.load(loader), 1000, 650);
+        Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
+        stage.setScene(scene);
+        stage.setTitle("Languages × Databases");
+        stage.show();
+    }
+
+    @FXML
+    private void goBack(javafx.event.ActionEvent event) throws IOException {
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/cs151/application/hello-view.fxml"));
+        Scene scene = new Scene(Navigation.load(loader), 800, 500);
+        Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
+        stage.setScene(scene);
+        stage.setTitle("Home");
+        stage.show();
+    }
+}
@@ -0,0 +1,200 @@
+package cs151.application;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Headless scale check: fills the store with a {@link CohortGenerator} cohort
+ * of each requested size and times the operations the screens rely on. These
+ * are the bulk write, a cold load into {@link StudentSnapshots}, searches, and
+ * single adds, edits and deletes through StudentStorage.
+ *
+ * Results are compared with a recorded baseline (store, size, phase and
+ * throughput per line) so a change that makes any phase noticeably slower
+ * fails the run. Every stored student is replaced, so run it against an empty
+ * data folder (-Dapp.baseDir=...). The last cohort is left in place for a look
+ * in the UI.
+ */
+final class ScaleBench {
+
+    static final String BASELINE_HEADER = "store,size,phase,unit,per_second";
+
+    /** Throughput of one phase at one size. */
+    record Result(String store, int size, String phase, String unit, double perSecond) {
+        String key() {
+            return store + "," + size + "," + phase;
+        }
+    }
+
+    /** A result next to its baseline (null if none was recorded). */
+    record Verdict(Result result, Double baseline, boolean regressed) {}
+
+    private static final int WARM_UP_SIZE = 2_000;
+
+    /** Searches as people type them on the search screen; each round runs them all. */
+    private static final List<StudentFilter> SEARCHES = List.of(
+            new StudentFilter("an", "", "", "", ""),
+            new StudentFilter("", "senior", "", "", ""),
+            new StudentFilter("", "", "java", "", ""),
+            new StudentFilter("", "", "python, sql", "postgresql", ""),
+            new StudentFilter("", "", "", "mongodb", "backend"),
+            new StudentFilter("kim", "", "", "", "data"),
+            new StudentFilter("", "graduate", "c++", "mysql", "full stack"));
+    private static final int ROUNDS = 3;
+
+    private ScaleBench() {}
+
+    /**
+     * Run every phase at each size, after an unreported warm-up round so the
+     * first size is not timed cold. {@code ops} single-row operations are timed
+     * per size (0 picks a count that keeps the CSV store's rewrites bounded).
+     */
+    static List<Result> run(List<Integer> sizes, long seed, int ops, Consumer<String> progress) throws IOException {
+        progress.accept("warming up (" + WARM_UP_SIZE + " students)");
+        runSize(WARM_UP_SIZE, seed, opsFor(WARM_UP_SIZE, ops));
+        List<Result> out = new ArrayList<>();
+        for (int size : sizes) {
+            progress.accept("cohort of " + size);
+            List<Result> results = runSize(size, seed, opsFor(size, ops));
+            for (Result r : results) progress.accept("  " + format(r));
+            out.addAll(results);
+        }
+        return out;
+    }
+
+    private static int opsFor(int size, int ops) {
+        return ops > 0 ? ops : Math.max(10, Math.min(200, 2_000_000 / Math.max(1, size)));
+    }
+
+    private static List<Result> runSize(int size, long seed, int ops) throws IOException {
+        String store = StudentStorage.isCsv() ? "csv" : "btree";
+        List<Result> out = new ArrayList<>();
+        CohortGenerator gen = new CohortGenerator(seed);
+        List<String[]> cohort = gen.rows(0, size);
+
+        // bulk phases: best of a few rounds; each write drops the snapshot, so every load is cold
+        double write = 0, load = 0;
+        List<Student> students = List.of();
+        for (int round = 0; round < ROUNDS; round++) {
+            System.gc();
+            long start = System.nanoTime();
+            StudentStorage.writeAllRows(cohort);
+            write = Math.max(write, perSecond(size, start));
+            start = System.nanoTime();
+            students = StudentSnapshots.current().students();
+            load = Math.max(load, perSecond(students.size(), start));
+        }
+        out.add(new Result(store, size, "write", "rows", write));
+        out.add(new Result(store, size, "load", "rows", load));
+
+        double search = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            int matches = 0;
+            for (StudentFilter f : SEARCHES) {
+                for (Student s : students) if (f.matches(s)) matches++;
+            }
+            if (matches < 0) throw new AssertionError(); // keeps the loop from being optimized away
+            search = Math.max(search, perSecond((long) students.size() * SEARCHES.size(), start));
+        }
+        out.add(new Result(store, size, "search", "rows", search));
+
+        // single-row phases report the median call, so one slow flush does not decide the result;
+        // new names come from indexes past the cohort, so they never clash with it
+        List<String[]> added = new CohortGenerator(seed + 1).rows(size, size + ops);
+        out.add(median(store, size, "add", added, StudentStorage::appendRow));
+
+        Random pick = new Random(seed);
+        List<Student> edits = new ArrayList<>(ops);
+        for (int i = 0; i < ops; i++) {
+            Student s = StudentStorage.toStudent(cohort.get(pick.nextInt(size)));
+            edits.add(s.with(Student.FACULTY_COMMENT, s.getFacultyComment() + "\n[2025-01-01] Edited by scale bench " + i));
+        }
+        out.add(median(store, size, "update", edits, s -> StudentStorage.updateStudent(s.getFullName(), s)));
+
+        out.add(median(store, size, "delete", added, r -> StudentStorage.deleteStudent(StudentStorage.toStudent(r))));
+        return out;
+    }
+
+    /** One storage call per item. */
+    @FunctionalInterface
+    private interface Op<T> {
+        void run(T item) throws IOException;
+    }
+
+    private static <T> Result median(String store, int size, String phase, List<T> items, Op<T> op) throws IOException {
+        long[] nanos = new long[items.size()];
+        for (int i = 0; i < nanos.length; i++) {
+            long start = System.nanoTime();
+            op.run(items.get(i));
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        long mid = nanos.length == 0 ? 0 : nanos[nanos.length / 2];
+        return new Result(store, size, phase, "ops", 1e9 / Math.max(1, mid));
+    }
+
+    private static double perSecond(long n, long startNanos) {
+        return n / (Math.max(1, System.nanoTime() - startNanos) / 1e9);
+    }
+
+    /* ---------- baseline ---------- */
+
+    /** Per-second throughput by store,size,phase; empty if the file does not exist. */
+    static Map<String, Double> readBaseline(Path file) throws IOException {
+        Map<String, Double> out = new LinkedHashMap<>();
+        if (!Files.exists(file)) return out;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] c = line.split(",");
+            if (c.length < 5 || line.equals(BASELINE_HEADER)) continue;
+            try {
+                out.put(c[0] + "," + c[1] + "," + c[2], Double.parseDouble(c[4]));
+            } catch (NumberFormatException e) {
+                throw new IOException("Bad line in " + file.getFileName() + ": " + line);
+            }
+        }
+        return out;
+    }
+
+    /** Store these results as the new baseline, keeping recorded lines for other sizes or stores. */
+    static void writeBaseline(Path file, List<Result> results) throws IOException {
+        Map<String, String> lines = new LinkedHashMap<>();
+        if (Files.exists(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String[] c = line.split(",");
+                if (c.length >= 5 && !line.equals(BASELINE_HEADER)) lines.put(c[0] + "," + c[1] + "," + c[2], line);
+            }
+        }
+        for (Result r : results) {
+            lines.put(r.key(), r.key() + "," + r.unit() + "," + String.format(Locale.ROOT, "%.1f", r.perSecond()));
+        }
+        List<String> out = new ArrayList<>();
+        out.add(BASELINE_HEADER);
+        out.addAll(lines.values());
+        Files.write(file, out, StandardCharsets.UTF_8);
+    }
+
+    /** A phase regresses when it is more than {@code tolerance} (0.30 = 30%) slower than its baseline. */
+    static List<Verdict> compare(List<Result> results, Map<String, Double> baseline, double tolerance) {
+        List<Verdict> out = new ArrayList<>();
+        for (Result r : results) {
+            Double base = baseline.get(r.key());
+            out.add(new Verdict(r, base, base != null && r.perSecond() < base * (1 - tolerance)));
+        }
+        return out;
+    }
+
+    static String format(Result r) {
+        return String.format(Locale.ROOT, "%-6s %9d  %-7s %,14.0f %s/s", r.store(), r.size(), r.phase(), r.perSecond(), r.unit());
+    }
+}
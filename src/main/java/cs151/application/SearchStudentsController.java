@@ -1,236 +1,281 @@
-package cs151.application;
-
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Node;
-import javafx.scene.Scene;
-import javafx.scene.control.*;
-import javafx.scene.text.Text;
-import javafx.stage.Stage;
-
-import java.io.IOException;
-import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-
-public class SearchStudentsController {
-
-    @FXML private TextField nameField;
-    @FXML private TextField statusField;
-    @FXML private TextField langField;
-    @FXML private TextField dbField;
-    @FXML private TextField roleField;
-
-    @FXML private TableView<Student> studentsTable;
-    @FXML private TableColumn<Student, String> nameCol;
-    @FXML private TableColumn<Student, String> academicStatusCol;
-    @FXML private TableColumn<Student, String> employedCol;
-    @FXML private TableColumn<Student, String> jobCol;
-    @FXML private TableColumn<Student, String> languagesCol;
-    @FXML private TableColumn<Student, String> databasesCol;
-    @FXML private TableColumn<Student, String> roleCol;
-    @FXML private TableColumn<Student, String> facultyComment;
-    @FXML private TableColumn<Student, String> whiteListed;
-    @FXML private TableColumn<Student, String> blackListed;
-
-    private ObservableList<Student> fullList;
-
-    @FXML
-    public void initialize() {
-        nameCol.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(c.getValue().getFullName()));
-        academicStatusCol.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(c.getValue().getAcademicStatus()));
-        employedCol.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(c.getValue().getEmployed()));
-        jobCol.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(c.getValue().getJobDetails()));
-        languagesCol.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(c.getValue().getProgrammingLanguages()));
-        databasesCol.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(c.getValue().getDatabases()));
-        roleCol.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(c.getValue().getPreferredRole()));
-        facultyComment.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(c.getValue().getFacultyComment()));
-        whiteListed.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(c.getValue().getWhiteListed()));
-        blackListed.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(c.getValue().getBlackListed()));
-
-        // ✅ Show multiline comments in table
-        facultyComment.setCellFactory(col -> new TableCell<>() {
-            private final Text text = new Text();
-            {
-                text.wrappingWidthProperty().bind(col.widthProperty().subtract(16));
-                setGraphic(text);
-            }
-            @Override
-            protected void updateItem(String item, boolean empty) {
-                super.updateItem(item, empty);
-                text.setText(empty ? null : item);
-            }
-        });
-
-        studentsTable.setFixedCellSize(-1);
-
-        refreshList();
-    }
-
-    private void refreshList() {
-        try {
-            List<Student> list = new ArrayList<>();
-            for (String[] r : StudentStorage.readAllRows()) {
-                if (r.length >= 10) {
-                    list.add(new Student(
-                            r[0], r[1], r[2], r[3], r[4], r[5], r[6],
-                            r[7], StudentStorage.toYesNo(r[8]), StudentStorage.toYesNo(r[9])
-                    ));
-                }
-            }
-            fullList = FXCollections.observableArrayList(list);
-            studentsTable.setItems(fullList);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
-
-    @FXML
-    private void search() {
-        String name = nameField.getText().toLowerCase().trim();
-        String stat = statusField.getText().toLowerCase().trim();
-        String lang = langField.getText().toLowerCase().trim();
-        String db = dbField.getText().toLowerCase().trim();
-        String role = roleField.getText().toLowerCase().trim();
-
-        ObservableList<Student> filtered = FXCollections.observableArrayList();
-
-        for (Student s : fullList) {
-            if (contains(s.getFullName(), name) &&
-                    contains(s.getAcademicStatus(), stat) &&
-                    contains(s.getProgrammingLanguages(), lang) &&
-                    contains(s.getDatabases(), db) &&
-                    contains(s.getPreferredRole(), role)) {
-
-                filtered.add(s);
-            }
-        }
-
-        studentsTable.setItems(filtered);
-    }
-
-    private boolean contains(String value, String filter) {
-        return filter.isEmpty() || (value != null && value.toLowerCase().contains(filter));
-    }
-
-    @FXML
-    private void clearFilters() {
-        nameField.clear();
-        statusField.clear();
-        langField.clear();
-        dbField.clear();
-        roleField.clear();
-        studentsTable.setItems(fullList);
-    }
-
-    @FXML
-    private void editSelected(javafx.event.ActionEvent event) throws IOException {
-        Student sel = studentsTable.getSelectionModel().getSelectedItem();
-        if (sel == null) {
-            alert("No selection", "Select a row to edit.");
-            return;
-        }
-
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/cs151/application/define-students.fxml"));
-        Scene scene = new Scene(loader.load(), 900, 600);
-
-        // hand the selected student to the form controller
-        DefineStudentsController ctrl = loader.getController();
-        ctrl.editExistingStudent(sel);
-
-        Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
-        stage.setScene(scene);
-        stage.setTitle("Edit Student Profile");
-        stage.show();
-    }
-
-
-    @FXML
-    private void addComment() {
-        Student sel = studentsTable.getSelectionModel().getSelectedItem();
-        if (sel == null) {
-            alert("No selection", "Select a student to add a comment.");
-            return;
-        }
-
-        Dialog<ButtonType> dialog = new Dialog<>();
-        dialog.setTitle("Add Comment");
-        dialog.setHeaderText("Add a new comment for " + sel.getFullName());
-
-        TextArea textArea = new TextArea();
-        textArea.setPrefRowCount(5);
-        dialog.getDialogPane().setContent(textArea);
-
-        ButtonType saveBtn = new ButtonType("Save", ButtonBar.ButtonData.OK_DONE);
-        dialog.getDialogPane().getButtonTypes().addAll(saveBtn, ButtonType.CANCEL);
-
-        dialog.showAndWait().ifPresent(btn -> {
-            if (btn == saveBtn) {
-                String comment = textArea.getText().trim();
-                if (!comment.isEmpty()) {
-                    String dated = LocalDate.now() + ": " + comment;
-                    String existing = sel.getFacultyComment();
-
-                    sel.setFacultyComment(
-                            (existing == null || existing.isBlank())
-                                    ? dated
-                                    : existing + System.lineSeparator() + dated
-                    );
-
-                    try {
-                        StudentStorage.updateStudent(sel.getFullName(), sel);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-
-                    refreshList();
-                }
-            }
-        });
-    }
-
-    @FXML
-    private void deleteSelected() {
-        Student sel = studentsTable.getSelectionModel().getSelectedItem();
-        if (sel == null) {
-            alert("No selection", "Select a student to delete.");
-            return;
-        }
-
-        Alert confirm = new Alert(Alert.AlertType.CONFIRMATION,
-                "Delete profile for \"" + sel.getFullName() + "\"?",
-                ButtonType.YES, ButtonType.NO);
-        confirm.setHeaderText("Confirm Deletion");
-
-        confirm.showAndWait().ifPresent(bt -> {
-            if (bt == ButtonType.YES) {
-                try {
-                    StudentStorage.deleteStudent(sel);
-                    refreshList();
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    alert("Error", "Failed to delete student.");
-                }
-            }
-        });
-    }
-
-    @FXML
-    private void goBack(javafx.event.ActionEvent event) throws IOException {
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/cs151/application/view-students.fxml"));
-        Scene scene = new Scene(loader.load());
-        Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
-        stage.setScene(scene);
-        stage.setTitle("Home");
-        stage.show();
-    }
-
-    private void alert(String header, String msg) {
-        Alert a = new Alert(Alert.AlertType.WARNING, msg, ButtonType.OK);
-        a.setHeaderText(header);
-        a.showAndWait();
-    }
-}
+package cs151.application;
+
+import javafx.collections.transformation.FilteredList;
+import javafx.concurrent.Task;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+public class SearchStudentsController {
+
+    @FXML private TextField nameField;
+    @FXML private TextField statusField;
+    @FXML private TextField langField;
+    @FXML private TextField dbField;
+    @FXML private TextField roleField;
+
+    @FXML private TableView<Student> studentsTable;
+    @FXML private TableColumn<Student, String> nameCol;
+    @FXML private TableColumn<Student, String> academicStatusCol;
+    @FXML private TableColumn<Student, String> employedCol;
+    @FXML private TableColumn<Student, String> jobCol;
+    @FXML private TableColumn<Student, String> languagesCol;
+    @FXML private TableColumn<Student, String> databasesCol;
+    @FXML private TableColumn<Student, String> roleCol;
+    @FXML private TableColumn<Student, String> facultyComment;
+    @FXML private TableColumn<Student, String> whiteListed;
+    @FXML private TableColumn<Student, String> blackListed;
+
+    private StudentTableModel model;
+    private FilteredList<Student> filtered;
+    private StudentFilter currentFilter = StudentFilter.ALL;
+
+    @FXML
+    public void initialize() {
+        StudentColumns.bind(nameCol, academicStatusCol, employedCol, jobCol, languagesCol,
+                databasesCol, roleCol, facultyComment, whiteListed, blackListed);
+
+        facultyComment.setCellValueFactory(StudentColumns.comments());
+        // ✅ Show multiline comments in table
+        StudentColumns.wrapText(facultyComment);
+
+        studentsTable.setFixedCellSize(-1);
+        studentsTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+
+        model = new StudentTableModel(studentsTable);
+        filtered = new FilteredList<>(model.rows());
+        studentsTable.setItems(filtered);
+        refreshList();
+    }
+
+    private void refreshList() {
+        try {
+            model.setAll(StudentStorage.readAllStudents());
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    @FXML
+    private void search() {
+        StudentFilter filter = new StudentFilter(nameField.getText(), statusField.getText(),
+                langField.getText(), dbField.getText(), roleField.getText());
+
+        // filter the live list so later edits/deletes still show through
+        FlightEvents.Search ev = new FlightEvents.Search();
+        ev.begin();
+        try (Metrics.Timing t = Metrics.time("search.filter")) {
+            filtered.setPredicate(filter.isEmpty() ? null : filter::matches);
+        }
+        Metrics.counter("search.matches").add(filtered.size());
+        ev.end();
+        if (ev.shouldCommit()) {
+            ev.filter = String.join(" | ", nameField.getText(), statusField.getText(),
+                    langField.getText(), dbField.getText(), roleField.getText());
+            ev.rows = model.rows().size();
+            ev.matches = filtered.size();
+            ev.commit();
+        }
+        currentFilter = filter;
+    }
+
+    @FXML
+    private void clearFilters() {
+        nameField.clear();
+        statusField.clear();
+        langField.clear();
+        dbField.clear();
+        roleField.clear();
+        filtered.setPredicate(null);
+        currentFilter = StudentFilter.ALL;
+    }
+
+    @FXML
+    private void editSelected(javafx.event.ActionEvent event) throws IOException {
+        Student sel = studentsTable.getSelectionModel().getSelectedItem();
+        if (sel == null) {
+            alert("No selection", "Select a row to edit.");
+            return;
+        }
+
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/cs151/application/define-students.fxml"));
+        Scene scene = new Scene(Navigation.load(loader), 900, 600);
+
+        // hand the selected student to the form controller
+        DefineStudentsController ctrl = loader.getController();
+        ctrl.editExistingStudent(sel);
+
+        Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
+        stage.setScene(scene);
+        stage.setTitle("Edit Student Profile");
+        stage.show();
+    }
+
+
+    @FXML
+    private void undo() {
+        BulkActions.undo(model);
+    }
+
+    @FXML
+    private void redo() {
+        BulkActions.redo(model);
+    }
+
+    @FXML
+    private void whitelistSelected() {
+        BulkActions.markListed(BulkActions.selected(studentsTable), Student.WHITELISTED, model);
+    }
+
+    @FXML
+    private void blacklistSelected() {
+        BulkActions.markListed(BulkActions.selected(studentsTable), Student.BLACKLISTED, model);
+    }
+
+    @FXML
+    private void addComment() {
+        List<Student> selected = BulkActions.selected(studentsTable);
+        if (selected.size() > 1) {
+            BulkActions.addComment(selected, model);
+            return;
+        }
+        Student sel = studentsTable.getSelectionModel().getSelectedItem();
+        if (sel == null) {
+            alert("No selection", "Select a student to add a comment.");
+            return;
+        }
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Add Comment");
+        dialog.setHeaderText("Add a new comment for " + sel.getFullName());
+
+        TextArea textArea = new TextArea();
+        textArea.setPrefRowCount(5);
+        dialog.getDialogPane().setContent(textArea);
+
+        ButtonType saveBtn = new ButtonType("Save", ButtonBar.ButtonData.OK_DONE);
+        dialog.getDialogPane().getButtonTypes().addAll(saveBtn, ButtonType.CANCEL);
+
+        dialog.showAndWait().ifPresent(btn -> {
+            if (btn == saveBtn) {
+                String comment = textArea.getText().trim();
+                if (!comment.isEmpty()) {
+                    try {
+                        CommentStore.get().add(sel.getFullName(), comment);
+                        model.refresh(sel);
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        });
+    }
+
+    @FXML
+    private void deleteSelected() {
+        List<Student> selected = BulkActions.selected(studentsTable);
+        if (selected.size() > 1) {
+            BulkActions.delete(selected, model);
+            return;
+        }
+        Student sel = studentsTable.getSelectionModel().getSelectedItem();
+        if (sel == null) {
+            alert("No selection", "Select a student to delete.");
+            return;
+        }
+
+        Alert confirm = new Alert(Alert.AlertType.CONFIRMATION,
+                "Delete profile for \"" + sel.getFullName() + "\"?",
+                ButtonType.YES, ButtonType.NO);
+        confirm.setHeaderText("Confirm Deletion");
+
+        confirm.showAndWait().ifPresent(bt -> {
+            if (bt == ButtonType.YES) {
+                try {
+                    StudentStorage.deleteStudent(sel);
+                    model.remove(sel);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    alert("Error", "Failed to delete student.");
+                }
+            }
+        });
+    }
+
+    /** Stream the rows matching the last search from storage into a CSV or JSON Lines file. */
+    @FXML
+    private void exportResults(javafx.event.ActionEvent event) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Students");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV", "*.csv"),
+                new FileChooser.ExtensionFilter("JSON Lines", "*.jsonl"));
+        chooser.setInitialFileName("students.csv");
+        File file = chooser.showSaveDialog(((Node) event.getSource()).getScene().getWindow());
+        if (file == null) return;
+
+        StudentFilter filter = currentFilter;
+        Path dest = file.toPath();
+        StudentExport.Format format = StudentExport.Format.forFile(dest);
+        Task<Long> task = new Task<>() {
+            @Override
+            protected Long call() throws Exception {
+                return StudentExport.export(filter::matches, dest, format, this::updateProgress, this::isCancelled);
+            }
+        };
+
+        ProgressBar bar = new ProgressBar();
+        bar.setPrefWidth(320);
+        bar.progressProperty().bind(task.progressProperty());
+        Alert progress = new Alert(Alert.AlertType.NONE, "", ButtonType.CANCEL);
+        progress.setTitle("Export");
+        progress.setHeaderText("Exporting to " + file.getName());
+        progress.getDialogPane().setContent(bar);
+        // closing the dialog (Cancel) stops the export; its partial file is removed
+        progress.setOnHidden(e -> { if (task.isRunning()) task.cancel(); });
+
+        task.setOnSucceeded(e -> {
+            progress.close();
+            Alert done = new Alert(Alert.AlertType.INFORMATION,
+                    "Exported " + task.getValue() + " students to " + file.getName() + ".", ButtonType.OK);
+            done.setHeaderText("Export finished");
+            done.showAndWait();
+        });
+        task.setOnFailed(e -> {
+            progress.close();
+            task.getException().printStackTrace();
+            alert("Export failed", String.valueOf(task.getException().getMessage()));
+        });
+        task.setOnCancelled(e -> progress.close());
+
+        Thread t = new Thread(task, "student-export");
+        t.setDaemon(true);
+        t.start();
+        progress.show();
+    }
+
+    @FXML
+    private void goBack(javafx.event.ActionEvent event) throws IOException {
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/cs151/application/view-students.fxml"));
+        Scene scene = new Scene(Navigation.load(loader));
+        Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
+        stage.setScene(scene);
+        stage.setTitle("Home");
+        stage.show();
+    }
+
+    private void alert(String header, String msg) {
+        Alert a = new Alert(Alert.AlertType.WARNING, msg, ButtonType.OK);
+        a.setHeaderText(header);
+        a.showAndWait();
+    }
+}
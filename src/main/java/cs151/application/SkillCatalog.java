@@ -0,0 +1,129 @@
+package cs151.application;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns integer ids to skill names (case-insensitive) so each student's
+ * languages and databases can be parsed once into a {@link SkillSet}.
+ * Ids follow the LanguageCatalog / the database list order and are never
+ * reused during a run; names only found in student rows are added at the end.
+ */
+public final class SkillCatalog {
+
+    /** The choices offered by define-students.fxml. */
+    public static final List<String> DEFAULT_DATABASES = List.of("SQLite", "MySQL", "PostgreSQL", "MongoDB");
+
+    private static volatile SkillCatalog languages;
+    private static final SkillCatalog DATABASES = new SkillCatalog(DEFAULT_DATABASES);
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[0];
+
+    private SkillCatalog(List<String> seed) {
+        for (String s : seed) idOf(s);
+    }
+
+    /** Programming languages, seeded from the LanguageCatalog on first use. */
+    public static SkillCatalog languages() {
+        SkillCatalog c = languages;
+        if (c == null) {
+            synchronized (SkillCatalog.class) {
+                c = languages;
+                if (c == null) languages = c = new SkillCatalog(definedLanguages());
+            }
+        }
+        return c;
+    }
+
+    public static SkillCatalog databases() {
+        return DATABASES;
+    }
+
+    private static List<String> definedLanguages() {
+        try {
+            return LanguageCatalog.get().names();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return List.of();
+        }
+    }
+
+    /** Split a stored list; both "Java, Python" and "Java;Python" are accepted. */
+    public static List<String> split(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null) return out;
+        for (String part : text.split("[,;]")) {
+            String t = part.trim();
+            if (!t.isEmpty()) out.add(t);
+        }
+        return out;
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Id for the name, registering it if new. */
+    public int idOf(String name) {
+        String k = key(name);
+        Integer id = ids.get(k);
+        if (id != null) return id;
+        synchronized (this) {
+            id = ids.get(k);
+            if (id != null) return id;
+            String[] n = Arrays.copyOf(names, names.length + 1);
+            n[n.length - 1] = name.trim();
+            names = n;
+            ids.put(k, n.length - 1);
+            return n.length - 1;
+        }
+    }
+
+    /** Id for the name, or -1 if unknown. */
+    public int find(String name) {
+        Integer id = ids.get(key(name));
+        return id == null ? -1 : id;
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /** Parse a stored list into ids (unknown names are registered). */
+    public SkillSet parse(String text) {
+        List<String> parts = split(text);
+        if (parts.isEmpty()) return SkillSet.EMPTY;
+        int[] found = new int[parts.size()];
+        for (int i = 0; i < found.length; i++) found[i] = idOf(parts.get(i));
+        return SkillSet.of(found);
+    }
+
+    /** Display names of the set, joined the way the form stores them. */
+    public String format(SkillSet set) {
+        List<String> out = new ArrayList<>();
+        String[] n = names;
+        set.forEach(id -> out.add(n[id]));
+        return String.join(", ", out);
+    }
+
+    /** Every known skill whose name contains the (lower-case) fragment. */
+    public SkillSet matching(String fragment) {
+        String f = key(fragment);
+        String[] n = names;
+        List<Integer> hits = new ArrayList<>();
+        for (int i = 0; i < n.length; i++) {
+            if (n[i].toLowerCase(Locale.ROOT).contains(f)) hits.add(i);
+        }
+        return SkillSet.of(hits.stream().mapToInt(Integer::intValue).toArray());
+    }
+}
@@ -0,0 +1,191 @@
+package cs151.application;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * How many students know both language X and database Y, for every pair in
+ * the {@link SkillCatalog}s.
+ *
+ * The grid is indexed by skill id (language rows, database columns). It is
+ * filled on first use by one parallel pass over the current
+ * {@link StudentSnapshots} version, each worker counting into its own grid
+ * before the grids are summed. After that a stored add, edit or delete only
+ * touches the pairs of the student's own languages and databases (through
+ * StudentStorage's change events), however many students there are.
+ */
+public final class SkillMatrix {
+
+    /** One language/database pair and the number of students who list both. */
+    public record Pair(String language, String database, int students) {}
+
+    /** A copy of the grid at one moment, for the heat map. */
+    public record View(List<String> languages, List<String> databases, int[][] counts) {
+        public int max() {
+            int m = 0;
+            for (int[] row : counts) for (int c : row) m = Math.max(m, c);
+            return m;
+        }
+    }
+
+    private static final SkillMatrix INSTANCE = new SkillMatrix();
+
+    private Grid grid; // null until first use (and after a full reload)
+
+    private SkillMatrix() {
+        StudentStorage.addChangeListener(new StudentStorage.ChangeListener() {
+            @Override
+            public void rowChanged(String[] before, String[] after) {
+                apply(before, after);
+            }
+
+            @Override
+            public void reloaded() {
+                drop();
+            }
+        });
+    }
+
+    public static SkillMatrix get() {
+        return INSTANCE;
+    }
+
+    /** Students who list both skills (names are case-insensitive); 0 for unknown names. */
+    public synchronized int count(String language, String database) throws IOException {
+        int l = SkillCatalog.languages().find(language), d = SkillCatalog.databases().find(database);
+        return l < 0 || d < 0 ? 0 : grid().get(l, d);
+    }
+
+    /** The {@code limit} most common pairs, most students first (ties by name). */
+    public synchronized List<Pair> topPairs(int limit) throws IOException {
+        Grid g = grid();
+        Comparator<Pair> order = Comparator.comparingInt(Pair::students)
+                .thenComparing(Pair::language, String.CASE_INSENSITIVE_ORDER.reversed())
+                .thenComparing(Pair::database, String.CASE_INSENSITIVE_ORDER.reversed());
+        // min-heap of the best so far: one pass over the grid, nothing sorted but the result
+        PriorityQueue<Pair> best = new PriorityQueue<>(Math.max(1, limit), order);
+        SkillCatalog langs = SkillCatalog.languages(), dbs = SkillCatalog.databases();
+        for (int l = 0; l < g.rows.length; l++) {
+            int[] row = g.rows[l];
+            if (row == null) continue;
+            for (int d = 0; d < row.length; d++) {
+                if (row[d] == 0) continue;
+                if (best.size() < limit) {
+                    best.add(new Pair(langs.name(l), dbs.name(d), row[d]));
+                } else if (limit > 0 && row[d] >= best.peek().students()) {
+                    Pair p = new Pair(langs.name(l), dbs.name(d), row[d]);
+                    if (order.compare(p, best.peek()) > 0) {
+                        best.poll();
+                        best.add(p);
+                    }
+                }
+            }
+        }
+        List<Pair> out = new ArrayList<>(best);
+        out.sort(order.reversed());
+        return out;
+    }
+
+    /** Languages and databases that occur in at least one pair, with the grid between them. */
+    public synchronized View view() throws IOException {
+        Grid g = grid();
+        SkillCatalog langs = SkillCatalog.languages(), dbs = SkillCatalog.databases();
+        List<Integer> ls = new ArrayList<>();
+        boolean[] usedDb = new boolean[dbs.size()];
+        for (int l = 0; l < g.rows.length; l++) {
+            int[] row = g.rows[l];
+            if (row == null) continue;
+            boolean any = false;
+            for (int d = 0; d < row.length; d++) {
+                if (row[d] != 0) {
+                    any = true;
+                    usedDb[d] = true;
+                }
+            }
+            if (any) ls.add(l);
+        }
+        List<Integer> ds = new ArrayList<>();
+        for (int d = 0; d < usedDb.length; d++) if (usedDb[d]) ds.add(d);
+        ls.sort(Comparator.comparing(langs::name, String.CASE_INSENSITIVE_ORDER));
+
+        int[][] counts = new int[ls.size()][ds.size()];
+        for (int i = 0; i < ls.size(); i++) {
+            for (int j = 0; j < ds.size(); j++) counts[i][j] = g.get(ls.get(i), ds.get(j));
+        }
+        return new View(ls.stream().map(langs::name).toList(), ds.stream().map(dbs::name).toList(), counts);
+    }
+
+    /* ---------- building + deltas ---------- */
+
+    private Grid grid() throws IOException {
+        if (grid == null) {
+            SkillCatalog langs = SkillCatalog.languages(), dbs = SkillCatalog.databases();
+            // most students share their exact skill strings with others, so each distinct one is parsed once
+            Map<String, SkillSet> langSets = new ConcurrentHashMap<>(), dbSets = new ConcurrentHashMap<>();
+            grid = StudentSnapshots.current().students().parallelStream().collect(
+                    Grid::new,
+                    (g, s) -> g.add(langSets.computeIfAbsent(s.getProgrammingLanguages(), langs::parse),
+                            dbSets.computeIfAbsent(s.getDatabases(), dbs::parse), 1),
+                    Grid::addAll);
+        }
+        return grid;
+    }
+
+    private synchronized void apply(String[] before, String[] after) {
+        if (grid == null) return; // not built yet; the first query sees this row
+        if (before != null) add(before, -1);
+        if (after != null) add(after, 1);
+    }
+
+    private void add(String[] row, int delta) {
+        if (row.length < Student.COLUMNS) return; // incomplete rows are not students (see StudentSnapshots)
+        grid.add(SkillCatalog.languages().parse(row[Student.PROGRAMMING_LANGUAGES]),
+                SkillCatalog.databases().parse(row[Student.DATABASES]), delta);
+    }
+
+    private synchronized void drop() {
+        grid = null;
+    }
+
+    /** Counts by [language id][database id]; rows and columns grow as the catalogs do. */
+    private static final class Grid {
+        int[][] rows = new int[0][];
+
+        int get(int l, int d) {
+            int[] row = l < rows.length ? rows[l] : null;
+            return row == null || d >= row.length ? 0 : row[d];
+        }
+
+        void add(SkillSet langs, SkillSet dbs, int delta) {
+            if (langs.isEmpty() || dbs.isEmpty()) return;
+            langs.forEach(l -> dbs.forEach(d -> row(l, d)[d] += delta));
+        }
+
+        void addAll(Grid other) {
+            for (int l = 0; l < other.rows.length; l++) {
+                int[] src = other.rows[l];
+                if (src == null) continue;
+                for (int d = src.length - 1; d >= 0; d--) {
+                    if (src[d] != 0) row(l, d)[d] += src[d];
+                }
+            }
+        }
+
+        /** Row l, long enough to hold column d. */
+        private int[] row(int l, int d) {
+            if (l >= rows.length) rows = Arrays.copyOf(rows, Math.max(l + 1, rows.length * 2));
+            int[] row = rows[l];
+            if (row == null || d >= row.length) {
+                row = row == null ? new int[Math.max(d + 1, 8)] : Arrays.copyOf(row, Math.max(d + 1, row.length * 2));
+                rows[l] = row;
+            }
+            return row;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package cs151.application;
+
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.layout.GridPane;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Heat map of {@link SkillMatrix}: languages down the side, databases across
+ * the top, each cell shaded by how many students list both. The most common
+ * pairs are listed next to it.
+ */
+public class SkillMatrixController {
+
+    private static final int TOP_PAIRS = 20;
+
+    @FXML private GridPane heatMap;
+    @FXML private ListView<String> topPairsList;
+
+    @FXML
+    public void initialize() {
+        SkillMatrix.View view;
+        List<SkillMatrix.Pair> top;
+        try {
+            view = SkillMatrix.get().view();
+            top = SkillMatrix.get().topPairs(TOP_PAIRS);
+        } catch (IOException e) {
+            e.printStackTrace();
+            new Alert(Alert.AlertType.ERROR, "Failed to read student data.", ButtonType.OK).showAndWait();
+            return;
+        }
+
+        for (int j = 0; j < view.databases().size(); j++) {
+            heatMap.add(header(view.databases().get(j)), j + 1, 0);
+        }
+        int max = Math.max(1, view.max());
+        for (int i = 0; i < view.languages().size(); i++) {
+            String lang = view.languages().get(i);
+            heatMap.add(header(lang), 0, i + 1);
+            for (int j = 0; j < view.databases().size(); j++) {
+                int n = view.counts()[i][j];
+                heatMap.add(cell(n, max, lang + " + " + view.databases().get(j)), j + 1, i + 1);
+            }
+        }
+        if (view.languages().isEmpty()) heatMap.add(new Label("No student lists both a language and a database yet."), 0, 0);
+
+        for (SkillMatrix.Pair p : top) {
+            topPairsList.getItems().add(p.language() + " + " + p.database() + " (" + p.students()
+                    + (p.students() == 1 ? " student)" : " students)"));
+        }
+    }
+
+    private static Label header(String text) {
+        Label l = new Label(text);
+        l.setStyle("-fx-font-weight: bold;");
+        return l;
+    }
+
+    /** Shade of the home screen's blue, stronger for more students. */
+    private static Label cell(int n, int max, String pair) {
+        Label l = new Label(n == 0 ? "" : String.valueOf(n));
+        l.setMinSize(64, 28);
+        l.setAlignment(Pos.CENTER);
+        double alpha = n == 0 ? 0.0 : 0.12 + 0.88 * n / max;
+        l.setStyle("-fx-background-color: rgba(74, 144, 226, " + String.format(Locale.ROOT, "%.2f", alpha) + ");"
+                + (alpha > 0.55 ? " -fx-text-fill: white;" : ""));
+        l.setTooltip(new Tooltip(pair + ": " + n + (n == 1 ? " student" : " students")));
+        return l;
+    }
+
+    @FXML
+    private void goBack(javafx.event.ActionEvent event) throws IOException {
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/cs151/application/reports.fxml"));
+        Scene scene = new Scene(Navigation.load(loader), 1000, 650);
+        Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
+        stage.setScene(scene);
+        stage.setTitle("Reports");
+        stage.show();
+    }
+}
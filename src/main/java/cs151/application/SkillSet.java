@@ -0,0 +1,109 @@
+package cs151.application;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable set of skill ids from one {@link SkillCatalog}, stored as a bitmask
+ * (one long covers the first 64 skills). Filters and set operations are
+ * plain bitwise operations on the words.
+ */
+public final class SkillSet {
+
+    public static final SkillSet EMPTY = new SkillSet(new long[0]);
+
+    private final long[] words;
+
+    private SkillSet(long[] words) {
+        this.words = words;
+    }
+
+    static SkillSet of(int... ids) {
+        int max = -1;
+        for (int id : ids) max = Math.max(max, id);
+        if (max < 0) return EMPTY;
+        long[] w = new long[(max >> 6) + 1];
+        for (int id : ids) w[id >> 6] |= 1L << id;
+        return new SkillSet(w);
+    }
+
+    public boolean isEmpty() {
+        for (long w : words) if (w != 0) return false;
+        return true;
+    }
+
+    public boolean contains(int id) {
+        int i = id >> 6;
+        return id >= 0 && i < words.length && (words[i] & (1L << id)) != 0;
+    }
+
+    /** True if every skill in {@code other} is also in this set. */
+    public boolean containsAll(SkillSet other) {
+        for (int i = 0; i < other.words.length; i++) {
+            long mine = i < words.length ? words[i] : 0;
+            if ((other.words[i] & ~mine) != 0) return false;
+        }
+        return true;
+    }
+
+    public boolean intersects(SkillSet other) {
+        int n = Math.min(words.length, other.words.length);
+        for (int i = 0; i < n; i++) if ((words[i] & other.words[i]) != 0) return true;
+        return false;
+    }
+
+    public SkillSet and(SkillSet other) {
+        long[] w = new long[Math.min(words.length, other.words.length)];
+        for (int i = 0; i < w.length; i++) w[i] = words[i] & other.words[i];
+        return new SkillSet(w);
+    }
+
+    public SkillSet or(SkillSet other) {
+        long[] w = Arrays.copyOf(words, Math.max(words.length, other.words.length));
+        for (int i = 0; i < other.words.length; i++) w[i] |= other.words[i];
+        return new SkillSet(w);
+    }
+
+    public SkillSet andNot(SkillSet other) {
+        long[] w = words.clone();
+        int n = Math.min(w.length, other.words.length);
+        for (int i = 0; i < n; i++) w[i] &= ~other.words[i];
+        return new SkillSet(w);
+    }
+
+    public int size() {
+        int n = 0;
+        for (long w : words) n += Long.bitCount(w);
+        return n;
+    }
+
+    /** Visit ids in ascending order. */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < words.length; i++) {
+            long w = words[i];
+            while (w != 0) {
+                action.accept((i << 6) + Long.numberOfTrailingZeros(w));
+                w &= w - 1;
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SkillSet other)) return false;
+        int n = Math.max(words.length, other.words.length);
+        for (int i = 0; i < n; i++) {
+            long a = i < words.length ? words[i] : 0;
+            long b = i < other.words.length ? other.words[i] : 0;
+            if (a != b) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int n = words.length;
+        while (n > 0 && words[n - 1] == 0) n--;
+        return Arrays.hashCode(Arrays.copyOf(words, n));
+    }
+}
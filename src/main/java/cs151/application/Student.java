@@ -1,67 +1,86 @@
-package cs151.application;
-
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
-
-
-public class Student {
-    private final SimpleStringProperty fullName = new SimpleStringProperty();
-    private final SimpleStringProperty academicStatus = new SimpleStringProperty();
-    private final SimpleStringProperty employed = new SimpleStringProperty();
-    private final SimpleStringProperty jobDetails = new SimpleStringProperty();
-    private final SimpleStringProperty programmingLanguages = new SimpleStringProperty();
-    private final SimpleStringProperty databases = new SimpleStringProperty();
-    private final SimpleStringProperty preferredRole = new SimpleStringProperty();
-    private final SimpleStringProperty facultyComment = new SimpleStringProperty();
-    private final SimpleStringProperty whiteListed = new SimpleStringProperty();
-    private final SimpleStringProperty blackListed = new SimpleStringProperty();
-
-    public Student(){}
-
-    public Student(String name, String acad, String emp, String job, String langs, String dbs, String role, String facComment, String whiteListed, String blackListed) {
-        fullName.set(name); academicStatus.set(acad); employed.set(emp);
-        jobDetails.set(job); programmingLanguages.set(langs); databases.set(dbs); preferredRole.set(role);
-        facultyComment.set(facComment);
-        this.whiteListed.set(whiteListed);
-        this.blackListed.set(blackListed);
-    }
-
-    public String getFullName() { return fullName.get(); }
-    public String getAcademicStatus() { return academicStatus.get(); }
-    public String getEmployed() { return employed.get(); }
-    public String getJobDetails() { return jobDetails.get(); }
-    public String getProgrammingLanguages() { return programmingLanguages.get(); }
-    public String getDatabases() { return databases.get(); }
-    public String getPreferredRole() { return preferredRole.get(); }
-    public String getFacultyComment() { return facultyComment.get(); }
-    public String getWhiteListed() { return whiteListed.get(); }
-    public String getBlackListed() { return blackListed.get(); }
-    public StringProperty whiteListedProperty() { return whiteListed; }
-    public StringProperty blackListedProperty() { return blackListed; }
-
-    private static String nz(String s) { return s == null ? "" : s; }
-
-    public void setFullName(String v) { this.fullName.set(nz(v)); }
-    public void setAcademicStatus(String v) { this.academicStatus.set(nz(v)); }
-    public void setEmployed(String v) { this.employed.set(nz(v)); }
-    public void setJobDetails(String v) { this.jobDetails.set(nz(v)); }
-    public void setProgrammingLanguages(String v) { this.programmingLanguages.set(nz(v)); }
-    public void setDatabases(String v) { this.databases.set(nz(v)); }
-    public void setPreferredRole(String v) { this.preferredRole.set(nz(v)); }
-    public void setFacultyComment(String comment) {
-        this.facultyComment.set(comment);
-    }
-    public void setWhiteListed(String v) { this.whiteListed.set(nz(v)); }
-    public void setBlackListed(String v) { this.blackListed.set(nz(v)); }
-    // In Student.java
-    public void addComment(String newComment) {
-        String existing = getFacultyComment();
-        if (existing == null || existing.isBlank()) {
-            setFacultyComment(newComment.replace("\n", " "));
-        } else {
-            // Avoid raw newlines; join with a separator
-            setFacultyComment(existing + " | " + newComment.replace("\n", " "));
-        }
-    }
-
-}
\ No newline at end of file
+package cs151.application;
+
+import java.util.Arrays;
+
+/**
+ * One student profile: an immutable array of the ten stored columns.
+ * No JavaFX properties are kept per row; tables get observable values on
+ * demand through {@link StudentColumns}. Edits produce a new Student.
+ */
+public final class Student {
+    // column order, same as StudentStorage.HEADER
+    public static final int FULL_NAME = 0;
+    public static final int ACADEMIC_STATUS = 1;
+    public static final int EMPLOYED = 2;
+    public static final int JOB_DETAILS = 3;
+    public static final int PROGRAMMING_LANGUAGES = 4;
+    public static final int DATABASES = 5;
+    public static final int PREFERRED_ROLE = 6;
+    public static final int FACULTY_COMMENT = 7;
+    public static final int WHITELISTED = 8;
+    public static final int BLACKLISTED = 9;
+    public static final int COLUMNS = 10;
+
+    private final String[] fields;
+
+    // parsed on first use; a racing recompute yields an equal value
+    private SkillSet languageSkills;
+    private SkillSet databaseSkills;
+
+    public Student(String name, String acad, String emp, String job, String langs, String dbs, String role, String facComment, String whiteListed, String blackListed) {
+        this(new String[]{name, acad, emp, job, langs, dbs, role, facComment, whiteListed, blackListed});
+    }
+
+    // takes ownership of the array
+    private Student(String[] fields) {
+        for (int i = 0; i < fields.length; i++) fields[i] = nz(fields[i]);
+        this.fields = fields;
+    }
+
+    /** Wrap a stored row (copied, padded to ten columns). */
+    static Student fromRow(String[] row) {
+        return new Student(Arrays.copyOf(row, COLUMNS));
+    }
+
+    /** Column value by index (see the constants above); never null. */
+    public String get(int column) { return fields[column]; }
+
+    public String getFullName() { return fields[FULL_NAME]; }
+    public String getAcademicStatus() { return fields[ACADEMIC_STATUS]; }
+    public String getEmployed() { return fields[EMPLOYED]; }
+    public String getJobDetails() { return fields[JOB_DETAILS]; }
+    public String getProgrammingLanguages() { return fields[PROGRAMMING_LANGUAGES]; }
+    public String getDatabases() { return fields[DATABASES]; }
+    public String getPreferredRole() { return fields[PREFERRED_ROLE]; }
+    public String getFacultyComment() { return fields[FACULTY_COMMENT]; }
+    public String getWhiteListed() { return fields[WHITELISTED]; }
+    public String getBlackListed() { return fields[BLACKLISTED]; }
+
+    /** Programming languages as catalog ids (parsed once). */
+    public SkillSet languageSkills() {
+        SkillSet s = languageSkills;
+        if (s == null) languageSkills = s = SkillCatalog.languages().parse(getProgrammingLanguages());
+        return s;
+    }
+
+    /** Databases as catalog ids (parsed once). */
+    public SkillSet databaseSkills() {
+        SkillSet s = databaseSkills;
+        if (s == null) databaseSkills = s = SkillCatalog.databases().parse(getDatabases());
+        return s;
+    }
+
+    private static String nz(String s) { return s == null ? "" : s; }
+
+    /** Copy with one column changed. */
+    public Student with(int column, String value) {
+        String[] copy = fields.clone();
+        copy[column] = value;
+        return new Student(copy);
+    }
+
+    public Student withFacultyComment(String comment) { return with(FACULTY_COMMENT, comment); }
+
+    /** The columns as a new storage row. */
+    public String[] toRow() { return fields.clone(); }
+}
@@ -0,0 +1,65 @@
+package cs151.application;
+
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.text.Text;
+import javafx.util.Callback;
+
+import java.io.IOException;
+
+/**
+ * Shared cell wiring for the student tables.
+ * Students hold plain strings; an observable value is only created when a
+ * visible cell asks for one (no reflection, no per-row properties).
+ */
+final class StudentColumns {
+
+    private StudentColumns() {}
+
+    /** Cell value factory reading one column of the row. */
+    static Callback<TableColumn.CellDataFeatures<Student, String>, ObservableValue<String>> value(int column) {
+        return c -> new ReadOnlyStringWrapper(c.getValue().get(column));
+    }
+
+    /** Wire the ten columns, given in Student column order. */
+    @SafeVarargs
+    static void bind(TableColumn<Student, String>... columns) {
+        for (int i = 0; i < columns.length; i++) columns[i].setCellValueFactory(value(i));
+    }
+
+    /**
+     * Faculty comment column: the comment kept on the row, followed by the
+     * newest entry from the comment log (held in memory, so no file read per cell).
+     */
+    static Callback<TableColumn.CellDataFeatures<Student, String>, ObservableValue<String>> comments() {
+        return c -> {
+            Student s = c.getValue();
+            String text = s.getFacultyComment();
+            try {
+                CommentStore.Comment latest = CommentStore.get().latest(s.getFullName());
+                if (latest != null) text = text.isBlank() ? latest.toString() : text + "\n" + latest;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return new ReadOnlyStringWrapper(text);
+        };
+    }
+
+    /** Show multi-line text (faculty comments) wrapped to the column width. */
+    static void wrapText(TableColumn<Student, String> col) {
+        col.setCellFactory(c -> new TableCell<>() {
+            private final Text text = new Text();
+            {
+                text.wrappingWidthProperty().bind(c.widthProperty().subtract(16)); // padding
+                setGraphic(text);
+            }
+            @Override
+            protected void updateItem(String item, boolean empty) {
+                super.updateItem(item, empty);
+                text.setText(empty ? null : item); // shows real \n as line breaks
+            }
+        });
+    }
+}
@@ -8,15 +8,22 @@ import javafx.scene.control.*;
 import javafx.stage.Stage;
 
 import java.io.IOException;
-import java.time.LocalDate;
+import java.util.List;
 
 public class StudentCommentsController {
 
+    private static final int PAGE = 50;
+
     @FXML private Label studentNameLabel;
     @FXML private ListView<String> commentsListView;
     @FXML private TextArea newCommentArea;
+    @FXML private Button loadOlderButton;
 
     private Student currentStudent;
+    private int loaded;          // stored comments shown so far
+    private boolean legacyShown; // comments kept in the CSV cell, listed after the log
+    private int archived;        // comments in the archive, listed last
+    private boolean archiveShown;
 
     public void setStudent(Student student) {
         this.currentStudent = student;
@@ -24,21 +31,51 @@ public class StudentCommentsController {
         loadCommentsFromStudent();
     }
 
+    /** Show the newest page of comments. */
     private void loadCommentsFromStudent() {
         commentsListView.getItems().clear();
-
+        loaded = 0;
+        legacyShown = false;
+        archiveShown = false;
         if (currentStudent == null) return;
+        try {
+            archived = CommentStore.get().archivedCount(currentStudent.getFullName());
+        } catch (IOException e) {
+            e.printStackTrace();
+            archived = 0;
+        }
+        loadOlder();
+    }
 
-        String allComments = currentStudent.getFacultyComment();
-        if (allComments != null && !allComments.isBlank()) {
-            // Each comment is stored on its own line
-            String[] lines = allComments.split("\\R");
-            for (String line : lines) {
-                if (!line.isBlank()) {
-                    commentsListView.getItems().add(line.trim());
+    /** Append the next page of older comments (newest first); the archive comes last, in one go. */
+    @FXML
+    private void loadOlder() {
+        if (currentStudent == null) return;
+        try {
+            if (legacyShown) {
+                // only now is this student's archive decompressed
+                for (CommentStore.Comment c : CommentStore.get().archived(currentStudent.getFullName()))
+                    commentsListView.getItems().add(c.toString());
+                archiveShown = true;
+                loadOlderButton.setDisable(true);
+                return;
+            }
+            List<CommentStore.Comment> page = CommentStore.get().page(currentStudent.getFullName(), loaded, PAGE);
+            for (CommentStore.Comment c : page) commentsListView.getItems().add(c.toString());
+            loaded += page.size();
+            if (page.size() < PAGE && !legacyShown) {
+                // older comments written into the Faculty Comment cell, newest first
+                String[] lines = currentStudent.getFacultyComment().split("\\R");
+                for (int i = lines.length - 1; i >= 0; i--) {
+                    if (!lines[i].isBlank()) commentsListView.getItems().add(lines[i].trim());
                 }
+                legacyShown = true;
             }
+        } catch (IOException e) {
+            e.printStackTrace();
+            new Alert(Alert.AlertType.ERROR, "Failed to read comments.", ButtonType.OK).showAndWait();
         }
+        loadOlderButton.setDisable(legacyShown && (archiveShown || archived == 0));
     }
 
     @FXML
@@ -53,22 +90,11 @@ public class StudentCommentsController {
             return;
         }
 
-        // TODO: adjust this format to exactly match item 3 of section 2.1.2
-        // Example: [YYYY-MM-DD] Comment text
-        String today = LocalDate.now().toString();
-        String formatted = "[" + today + "] " + text;
-
-        String existing = currentStudent.getFacultyComment();
-        String sep = System.lineSeparator();
-        if (existing == null || existing.isBlank()) {
-            currentStudent.setFacultyComment(formatted);
-        } else {
-            currentStudent.setFacultyComment(existing + sep + formatted);
-        }
-
         try {
-            // Persist to storage
-            StudentStorage.updateStudent(currentStudent.getFullName(), currentStudent);
+            // one append to the comment log; Students.csv is not rewritten
+            CommentStore.Comment c = CommentStore.get().add(currentStudent.getFullName(), text);
+            commentsListView.getItems().add(0, c.toString());
+            loaded++;
         } catch (Exception e) {
             e.printStackTrace();
             new Alert(Alert.AlertType.ERROR, "Failed to save comment.", ButtonType.OK).showAndWait();
@@ -76,13 +102,12 @@ public class StudentCommentsController {
         }
 
         newCommentArea.clear();
-        loadCommentsFromStudent();
     }
 
     @FXML
     private void handleBack(javafx.event.ActionEvent event) throws IOException {
         FXMLLoader loader = new FXMLLoader(getClass().getResource("/cs151/application/view-students.fxml"));
-        Scene scene = new Scene(loader.load(), 900, 600);
+        Scene scene = new Scene(Navigation.load(loader), 900, 600);
 
         Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
         stage.setScene(scene);
@@ -0,0 +1,33 @@
+package cs151.application;
+
+import java.time.Instant;
+
+/**
+ * One stored change to a student row, numbered in the order it was written
+ * (in this process; in audit.jsonl, across every process that journals).
+ * before is null for an insert, after is null for a delete; both are storage
+ * rows in StudentStorage.HEADER column order. A COMMENT event is a faculty
+ * comment appended to the comment log: before and after are the student with
+ * logged comments merged in (see CommentStore#withLogged), the stored row is
+ * unchanged.
+ *
+ * external marks a change this process did not make but noticed in the data
+ * file (another process's write, a hand edit; see DataFileWatcher). Such events
+ * keep in-memory views current but are not journaled: the process that wrote
+ * the change journals it.
+ */
+public record StudentEvent(long seq, Type type, Instant time, String[] before, String[] after, boolean external) {
+
+    public enum Type { INSERT, UPDATE, DELETE, COMMENT }
+
+    /** A change made by this process. */
+    public StudentEvent(long seq, Type type, Instant time, String[] before, String[] after) {
+        this(seq, type, time, before, after, false);
+    }
+
+    /** Name of the student the event is about (the new name for a rename). */
+    public String fullName() {
+        String[] r = after != null ? after : before;
+        return r == null || r.length == 0 ? "" : r[0];
+    }
+}
@@ -0,0 +1,131 @@
+package cs151.application;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Change-data-capture feed over StudentStorage: every insert, update and delete
+ * becomes a numbered {@link StudentEvent}, and so does every faculty comment
+ * added to the comment log. Changes DataFileWatcher notices in the data file
+ * are published too, marked external.
+ *
+ * Each subscriber gets its own bounded queue drained by its own daemon thread,
+ * so a slow consumer never runs on the writing thread. When a queue is full
+ * the writer waits (backpressure) instead of dropping events. Bulk rewrites
+ * (compact, writeAllRows) are not itemized.
+ *
+ * Seqs number the events of this process in the order they were published.
+ * The audit journal renumbers them as it appends, so that the seqs in the file
+ * keep increasing when more than one process writes to the data folder.
+ */
+public final class StudentEvents {
+
+    /** Events a subscriber may have waiting before writers are held back. */
+    static final int QUEUE_CAPACITY = 1024;
+
+    private static final List<Subscription> subscribers = new CopyOnWriteArrayList<>();
+    private static long lastSeq;
+
+    static {
+        StudentStorage.addChangeListener(new StudentStorage.ChangeListener() {
+            @Override
+            public void rowChanged(String[] before, String[] after) {
+                publish(type(before, after), before, after, false);
+            }
+
+            @Override
+            public void externalRowChanged(String[] before, String[] after) {
+                publish(type(before, after), before, after, true);
+            }
+
+            @Override
+            public void commentAdded(String[] before, String[] after) {
+                publish(StudentEvent.Type.COMMENT, before, after, false);
+            }
+        });
+    }
+
+    private StudentEvents() {}
+
+    /** Deliver every later event to the consumer, in sequence order, on a background thread. */
+    public static Subscription subscribe(String name, Consumer<List<StudentEvent>> consumer) {
+        Subscription s = new Subscription(name, consumer);
+        subscribers.add(s);
+        s.thread.start();
+        return s;
+    }
+
+    // numbering and enqueueing under one lock keeps every queue in sequence order
+    private static synchronized void publish(StudentEvent.Type type, String[] before, String[] after, boolean external) {
+        StudentEvent e = new StudentEvent(++lastSeq, type, Instant.now(), copy(before), copy(after), external);
+        for (Subscription s : subscribers) s.offer(e);
+    }
+
+    private static StudentEvent.Type type(String[] before, String[] after) {
+        return before == null ? StudentEvent.Type.INSERT : after == null ? StudentEvent.Type.DELETE : StudentEvent.Type.UPDATE;
+    }
+
+    private static String[] copy(String[] row) {
+        return row == null ? null : row.clone();
+    }
+
+    /** A registered consumer; close() delivers what is queued and then stops. */
+    public static final class Subscription implements AutoCloseable {
+        private final BlockingQueue<StudentEvent> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final Consumer<List<StudentEvent>> consumer;
+        private final Thread thread;
+        private volatile boolean closed;
+
+        private Subscription(String name, Consumer<List<StudentEvent>> consumer) {
+            this.consumer = consumer;
+            this.thread = new Thread(this::drain, "events-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        private void offer(StudentEvent e) {
+            if (closed) return;
+            try {
+                queue.put(e); // blocks the writer while this consumer is QUEUE_CAPACITY behind
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void drain() {
+            List<StudentEvent> batch = new ArrayList<>();
+            while (!closed || !queue.isEmpty()) {
+                try {
+                    StudentEvent first = queue.poll(200, TimeUnit.MILLISECONDS);
+                    if (first == null) continue;
+                    batch.add(first);
+                    queue.drainTo(batch);
+                    consumer.accept(batch);
+                } catch (InterruptedException e) {
+                    return;
+                } catch (RuntimeException e) {
+                    e.printStackTrace(); // keep delivering later events
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        /** Stop receiving events, deliver the ones already queued, then return. */
+        @Override
+        public void close() {
+            closed = true;
+            subscribers.remove(this);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package cs151.application;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Streams the rows accepted by a predicate (a {@link StudentFilter}, plus list
+ * flags from the Cli) from storage straight into a CSV or JSON Lines file, in
+ * file order. Rows go from the reader to the writer one at a time, so memory
+ * use does not depend on the size of the cohort. Faculty comments from the
+ * comment log are merged into each row (see {@link CommentStore#withLogged}).
+ */
+public final class StudentExport {
+
+    public enum Format {
+        CSV, JSONL;
+
+        /** Pick the format from the file extension (.jsonl/.ndjson, otherwise CSV). */
+        public static Format forFile(Path p) {
+            String n = p.getFileName().toString().toLowerCase(Locale.ROOT);
+            return n.endsWith(".jsonl") || n.endsWith(".ndjson") ? JSONL : CSV;
+        }
+    }
+
+    /** Receives work done so far out of the total (bytes of Students.csv, rows for the page store). */
+    @FunctionalInterface
+    public interface Progress {
+        void update(long done, long total);
+    }
+
+    private StudentExport() {}
+
+    /**
+     * Export matching rows; returns how many were written. If {@code cancelled}
+     * turns true the partial file is removed and CancellationException is thrown.
+     */
+    public static long export(Predicate<String[]> include, Path dest, Format format,
+                              Progress progress, BooleanSupplier cancelled) throws IOException {
+        long[] written = {0};
+        boolean ok = false;
+        try (Writer w = Files.newBufferedWriter(dest, StandardCharsets.UTF_8)) {
+            if (format == Format.CSV) {
+                w.write(StudentStorage.HEADER);
+                w.write("\n");
+            }
+            CommentStore comments = CommentStore.get();
+            StudentStorage.forEachRow(r -> {
+                if (cancelled.getAsBoolean()) throw new CancellationException("Export cancelled");
+                if (!include.test(r)) return;
+                String[] out = comments.withLogged(r);
+                w.write(format == Format.CSV ? StudentStorage.toCsv(out) : Json.student(out));
+                w.write("\n");
+                written[0]++;
+            }, progress::update);
+            ok = true;
+        } finally {
+            if (!ok) Files.deleteIfExists(dest);
+        }
+        return written[0];
+    }
+}
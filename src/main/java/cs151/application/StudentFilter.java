@@ -0,0 +1,107 @@
+package cs151.application;
+
+import java.util.List;
+
+/**
+ * Search criteria shared by the search screen and the command line.
+ * Each field is a case-insensitive "contains" match; a blank field matches anything.
+ * Language and database criteria may list several skills ("java, mysql"); a
+ * student must have a matching skill for each, checked as bitmask tests on
+ * {@link Student#languageSkills()} / {@link Student#databaseSkills()}.
+ */
+public final class StudentFilter {
+
+    public static final StudentFilter ALL = new StudentFilter("", "", "", "", "");
+
+    private final String name;
+    private final String status;
+    private final SkillTerm lang;
+    private final SkillTerm db;
+    private final String role;
+
+    public StudentFilter(String name, String status, String lang, String db, String role) {
+        this.name = clean(name);
+        this.status = clean(status);
+        this.lang = new SkillTerm(SkillCatalog.languages(), clean(lang));
+        this.db = new SkillTerm(SkillCatalog.databases(), clean(db));
+        this.role = clean(role);
+    }
+
+    private static String clean(String s) {
+        return s == null ? "" : s.toLowerCase().trim();
+    }
+
+    public boolean isEmpty() {
+        return name.isEmpty() && status.isEmpty() && lang.isEmpty() && db.isEmpty() && role.isEmpty();
+    }
+
+    /** Match a raw storage row (column order as in StudentStorage.HEADER). */
+    public boolean matches(String[] row) {
+        return contains(col(row, Student.FULL_NAME), name) &&
+                contains(col(row, Student.ACADEMIC_STATUS), status) &&
+                lang.matches(col(row, Student.PROGRAMMING_LANGUAGES)) &&
+                db.matches(col(row, Student.DATABASES)) &&
+                contains(col(row, Student.PREFERRED_ROLE), role);
+    }
+
+    public boolean matches(Student s) {
+        return contains(s.getFullName(), name) &&
+                contains(s.getAcademicStatus(), status) &&
+                lang.matches(s.languageSkills()) &&
+                db.matches(s.databaseSkills()) &&
+                contains(s.getPreferredRole(), role);
+    }
+
+    private static String col(String[] row, int i) {
+        return i < row.length ? row[i] : null;
+    }
+
+    private static boolean contains(String value, String filter) {
+        return filter.isEmpty() || (value != null && value.toLowerCase().contains(filter));
+    }
+
+    /**
+     * One language/database criterion. Each listed fragment resolves to the set
+     * of catalog skills whose name contains it; the sets are rebuilt only when
+     * the catalog has grown since the last check.
+     */
+    private static final class SkillTerm {
+        private final SkillCatalog catalog;
+        private final List<String> parts;
+        private volatile Resolved resolved;
+
+        SkillTerm(SkillCatalog catalog, String text) {
+            this.catalog = catalog;
+            this.parts = SkillCatalog.split(text);
+        }
+
+        boolean isEmpty() {
+            return parts.isEmpty();
+        }
+
+        boolean matches(SkillSet skills) {
+            if (parts.isEmpty()) return true;
+            Resolved r = resolved;
+            if (r == null || r.catalogSize != catalog.size()) {
+                r = new Resolved(catalog.size(), parts.stream().map(catalog::matching).toArray(SkillSet[]::new));
+                resolved = r;
+            }
+            for (SkillSet any : r.sets) {
+                if (!skills.intersects(any)) return false;
+            }
+            return true;
+        }
+
+        /** Same rule on an unparsed column, for streaming rows. */
+        boolean matches(String value) {
+            if (parts.isEmpty()) return true;
+            List<String> have = SkillCatalog.split(value);
+            for (String part : parts) {
+                if (have.stream().noneMatch(h -> h.toLowerCase().contains(part))) return false;
+            }
+            return true;
+        }
+
+        private record Resolved(int catalogSize, SkillSet[] sets) {}
+    }
+}
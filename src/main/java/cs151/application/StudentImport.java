@@ -0,0 +1,116 @@
+package cs151.application;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bulk import of a student CSV (same columns as Students.csv, header optional).
+ * Rows are validated and normalized in parallel, de-duplicated against the
+ * stored names and within the batch using one hash set, and then written with a
+ * single append instead of one appendRow (and one full-file scan) per student.
+ */
+public final class StudentImport {
+
+    /** A row that was not imported, with the 1-based line it started on. */
+    public record Reject(int line, String reason) {
+        @Override
+        public String toString() {
+            return "line " + line + ": " + reason;
+        }
+    }
+
+    /** Outcome of one import: the rows written and the rows refused. */
+    public static final class Result {
+        private final List<String[]> added;
+        private final List<Reject> rejects;
+
+        private Result(List<String[]> added, List<Reject> rejects) {
+            this.added = Collections.unmodifiableList(added);
+            this.rejects = Collections.unmodifiableList(rejects);
+        }
+
+        public List<String[]> added() { return added; }
+        public List<Reject> rejects() { return rejects; }
+    }
+
+    private StudentImport() {}
+
+    /** Import every valid, not-yet-stored student from the given CSV file. */
+    public static Result importCsv(Path source) throws IOException {
+        // 1) stream the input, keeping only raw records + line numbers
+        List<Pending> pending = new ArrayList<>();
+        try (CsvRecordReader in = CsvRecordReader.open(source)) {
+            String[] r;
+            while ((r = in.next()) != null) {
+                if (in.lineNumber() == 1 && r.length > 0 && r[0].trim().equalsIgnoreCase("FullName")) continue;
+                pending.add(new Pending(in.lineNumber(), r));
+            }
+        }
+
+        // 2) validate + normalize in parallel (order is kept)
+        List<Pending> checked = pending.parallelStream().map(StudentImport::normalize).toList();
+
+        // 3) de-duplicate against storage and within the batch in one pass
+        Set<String> names = StudentStorage.existingNames();
+        List<String[]> added = new ArrayList<>();
+        List<Reject> rejects = new ArrayList<>();
+        for (Pending p : checked) {
+            if (p.error != null) {
+                rejects.add(new Reject(p.line, p.error));
+            } else if (!names.add(StudentStorage.norm(p.row[0]))) {
+                rejects.add(new Reject(p.line, "Duplicate student full name: " + p.row[0]));
+            } else {
+                added.add(p.row);
+            }
+        }
+
+        // 4) one sequential append for the whole batch
+        StudentStorage.appendRows(added);
+        return new Result(added, rejects);
+    }
+
+    private static Pending normalize(Pending p) {
+        String[] r = p.row;
+        if (r.length == 1 && r[0].isBlank()) return p.fail("Empty row");
+        if (r.length > 10) return p.fail("Expected 10 columns, found " + r.length);
+
+        String[] out = new String[10];
+        for (int i = 0; i < 10; i++) out[i] = i < r.length && r[i] != null ? r[i].trim() : "";
+        out[0] = out[0].replaceAll("\\s+", " ");
+        if (out[0].isEmpty()) return p.fail("Full Name is required");
+
+        out[2] = StudentStorage.toYesNo(out[2]);
+        out[4] = joinList(out[4]);
+        out[5] = joinList(out[5]);
+        out[8] = StudentStorage.toYesNo(out[8]);
+        out[9] = StudentStorage.toYesNo(out[9]);
+        if (out[8].equals("Yes") && out[9].equals("Yes"))
+            return p.fail("Whitelist and Blacklist are mutually exclusive");
+        return new Pending(p.line, out);
+    }
+
+    /** "Java;Python" and "Java , Python" both become "Java, Python" (the form's format). */
+    private static String joinList(String s) {
+        return String.join(", ", SkillCatalog.split(s));
+    }
+
+    private static final class Pending {
+        final int line;
+        final String[] row;
+        final String error;
+
+        Pending(int line, String[] row) { this(line, row, null); }
+
+        private Pending(int line, String[] row, String error) {
+            this.line = line;
+            this.row = row;
+            this.error = error;
+        }
+
+        Pending fail(String why) { return new Pending(line, row, why); }
+    }
+}
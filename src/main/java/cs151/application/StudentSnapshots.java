@@ -0,0 +1,153 @@
+package cs151.application;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Versioned, immutable views of the stored students.
+ *
+ * A reader takes {@link #current()} once and works on that snapshot for as long
+ * as it likes; a sort, export or report never sees an edit that lands halfway
+ * through. Writers (StudentStorage's change events) build the next version from
+ * a {@link PersistentMap} keyed by normalized name, which shares everything but
+ * the changed path, and publish it with one atomic swap. Readers take no lock.
+ */
+public final class StudentSnapshots {
+
+    private static final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private static final Object writeLock = new Object();
+    private static long lastVersion; // guarded by writeLock
+
+    static {
+        StudentStorage.addChangeListener(new StudentStorage.ChangeListener() {
+            @Override
+            public void rowChanged(String[] before, String[] after) {
+                apply(before, after);
+            }
+
+            @Override
+            public void reloaded() {
+                synchronized (writeLock) {
+                    if (current.get() != null) current.set(null); // rebuilt on next read
+                }
+            }
+
+            @Override
+            public void commentAdded(String[] before, String[] after) {
+                commentsChanged();
+            }
+        });
+    }
+
+    private StudentSnapshots() {}
+
+    /** The latest published version (read from Students.csv on first use). */
+    public static Snapshot current() throws IOException {
+        Snapshot s = current.get();
+        if (s != null) return s;
+        synchronized (writeLock) {
+            s = current.get();
+            if (s == null) {
+                s = load();
+                current.set(s);
+            }
+            return s;
+        }
+    }
+
+    private static Snapshot load() throws IOException {
+        var b = new Object() {
+            PersistentMap<String, Entry> map = PersistentMap.empty();
+            long order;
+        };
+        StudentStorage.forEachRow(r -> {
+            if (r.length < 10) return; // incomplete row, as before
+            String key = StudentStorage.norm(r[0]);
+            if (b.map.get(key) == null) b.map = b.map.put(key, new Entry(StudentStorage.toStudent(r), b.order++));
+        });
+        return new Snapshot(++lastVersion, b.map, b.order);
+    }
+
+    private static void apply(String[] before, String[] after) {
+        synchronized (writeLock) {
+            Snapshot s = current.get();
+            if (s == null) return; // nothing built yet; the first read sees the file
+            PersistentMap<String, Entry> map = s.map;
+            long next = s.nextOrder;
+            Entry old = null;
+            if (before != null) {
+                String key = StudentStorage.norm(before[0]);
+                old = map.get(key);
+                map = map.remove(key);
+            }
+            if (after != null) {
+                String key = StudentStorage.norm(after[0]);
+                Entry existing = map.get(key);
+                // an edit (even a rename) keeps the row where it was
+                long order = old != null ? old.order : existing != null ? existing.order : next++;
+                map = map.put(key, new Entry(StudentStorage.toStudent(after), order));
+            }
+            current.set(new Snapshot(++lastVersion, map, next));
+        }
+    }
+
+    /**
+     * Logged faculty comments changed what readers are shown (see
+     * CommentStore#withLogged): publish a new version with the same students, so
+     * anything keyed on the version (HTTP ETags) moves on.
+     */
+    static void commentsChanged() {
+        synchronized (writeLock) {
+            Snapshot s = current.get();
+            if (s != null) current.set(new Snapshot(++lastVersion, s.map, s.nextOrder));
+        }
+    }
+
+    private record Entry(Student student, long order) {}
+
+    /** One immutable version of the student set. */
+    public static final class Snapshot {
+        private final long version;
+        private final PersistentMap<String, Entry> map;
+        private final long nextOrder;
+        private volatile List<Student> ordered; // built on first students() call
+
+        private Snapshot(long version, PersistentMap<String, Entry> map, long nextOrder) {
+            this.version = version;
+            this.map = map;
+            this.nextOrder = nextOrder;
+        }
+
+        /** Grows with every published change (and every rebuild). */
+        public long version() {
+            return version;
+        }
+
+        public int size() {
+            return map.size();
+        }
+
+        /** The student with this full name (case and spacing ignored), or null. */
+        public Student get(String fullName) {
+            Entry e = map.get(StudentStorage.norm(fullName));
+            return e == null ? null : e.student;
+        }
+
+        /** All students in file order (unmodifiable). */
+        public List<Student> students() {
+            List<Student> list = ordered;
+            if (list == null) {
+                List<Entry> entries = new ArrayList<>(map.size());
+                map.forEach((k, e) -> entries.add(e));
+                entries.sort(Comparator.comparingLong(Entry::order));
+                List<Student> out = new ArrayList<>(entries.size());
+                for (Entry e : entries) out.add(e.student);
+                ordered = list = List.copyOf(out);
+            }
+            return list;
+        }
+    }
+}
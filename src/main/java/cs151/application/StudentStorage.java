@@ -1,216 +1,479 @@
-package cs151.application;
-
-import java.io.*;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Objects;
-
-public final class StudentStorage {
-    // Keep this path consistent for all reads/writes
-    private static final Path CSV_PATH = AppFiles.STUDENTS_CSV;
-
-    private static final String HEADER =
-            "FullName,AcademicStatus,Employed,JobDetails,ProgrammingLanguages,Databases,PreferredRole,Faculty Comment,Whitelisted,Blacklisted";
-
-    private StudentStorage() {}
-
-    private static String norm(String s) {
-        return s == null ? "" : s.trim().replaceAll("\\s+", " ").toLowerCase();
-    }
-
-    /** True if a row with the same full name already exists. */
-    public static boolean existsByName(String fullName) throws IOException {
-        String key = norm(fullName);
-        for (String[] row : readAllRows()) {
-            if (row.length > 0 && norm(row[0]).equals(key)) return true; // col 0 = Full Name
-        }
-        return false;
-    }
-
-    /** Append one row (creates file + header if missing). */
-    public static void appendRow(String[] row) throws IOException {
-        ensureHeader();
-        if (row == null || row.length == 0)
-            throw new IllegalArgumentException("Empty row");
-        if (row[0] == null || row[0].isBlank())
-            throw new IllegalArgumentException("Full Name is required");
-
-        // Duplicate
-        if (existsByName(row[0])) {
-            throw new IllegalStateException("Duplicate student full name: " + row[0]);
-        }
-        try (Writer w = new BufferedWriter(new OutputStreamWriter(
-                new FileOutputStream(CSV_PATH.toFile(), true), StandardCharsets.UTF_8))) {
-            w.write(toCsv(row));
-            w.write("\n");
-        }
-    }
-
-    /** Overwrite file with given rows (keeps header). */
-    public static void writeAllRows(List<String[]> rows) throws IOException {
-        ensureHeader();
-        java.util.Set<String> seen = new java.util.HashSet<>();
-        for (String[] r : rows) {
-            if (r == null || r.length == 0) continue;
-            String key = norm(r[0]);
-            if (!seen.add(key)) {
-                throw new IllegalStateException("Duplicate student full name in batch: " + r[0]);
-            }
-        }
-        try (Writer w = new BufferedWriter(new OutputStreamWriter(
-                new FileOutputStream(CSV_PATH.toFile(), false), StandardCharsets.UTF_8))) {
-            w.write(HEADER);
-            w.write("\n");
-            for (String[] r : rows) {
-                w.write(toCsv(r));
-                w.write("\n");
-            }
-        }
-    }
-
-    /** Read all rows, skipping the header. */
-    public static List<String[]> readAllRows() throws IOException {
-        List<String[]> rows = new ArrayList<>();
-        if (!Files.exists(CSV_PATH)) return rows;
-
-        try (BufferedReader br = Files.newBufferedReader(CSV_PATH, StandardCharsets.UTF_8)) {
-            StringBuilder record = new StringBuilder();
-            String line;
-            boolean header = true;
-
-            while ((line = br.readLine()) != null) {
-                if (header) {
-                    header = false;
-                    continue;
-                }
-
-                // Append this line to current record
-                if (record.length() > 0) record.append("\n");
-                record.append(line);
-
-                // If quotes are balanced, we reached the end of the record
-                if (isCompleteRecord(record.toString())) {
-                    rows.add(parseCsvLine(record.toString()));
-                    record.setLength(0);
-                }
-            }
-
-            // In case last record has no trailing newline
-            if (record.length() > 0) {
-                rows.add(parseCsvLine(record.toString()));
-            }
-        }
-        return rows;
-    }
-
-    /** True if the quoted field count is balanced (record complete). */
-    private static boolean isCompleteRecord(String record) {
-        long quoteCount = record.chars().filter(ch -> ch == '"').count();
-        return quoteCount % 2 == 0;
-    }
-
-    /** Delete first row that matches the given Student (all fields). */
-    public static void deleteStudent(Student s) throws IOException {
-        List<String[]> rows = readAllRows();
-        Iterator<String[]> it = rows.iterator();
-        while (it.hasNext()) {
-            String[] r = it.next();
-            if (matches(r, s)) { it.remove(); break; }
-        }
-        writeAllRows(rows);
-    }
-
-    /** Update an existing student row matched by Full Name. */
-    public static void updateStudent(String originalFullName, Student s) throws IOException {
-        List<String[]> rows = readAllRows();
-        boolean updated = false;
-
-        for (int i = 0; i < rows.size(); i++) {
-            String[] r = rows.get(i);
-            if (eq(r[0], originalFullName)) {
-                rows.set(i, new String[]{
-                        s.getFullName(),
-                        s.getAcademicStatus(),
-                        s.getEmployed(),
-                        s.getJobDetails(),
-                        s.getProgrammingLanguages(),
-                        s.getDatabases(),
-                        s.getPreferredRole(),
-                        s.getFacultyComment(),
-                        toYesNo(s.getWhiteListed()),
-                        toYesNo(s.getBlackListed())
-                });
-                updated = true;
-                break;
-            }
-        }
-
-        if (!updated) {
-            throw new IllegalStateException("Student not found to update: " + originalFullName);
-        }
-        writeAllRows(rows);
-    }
-
-    private static boolean matches(String[] r, Student s) {
-        return eq(r[0], s.getFullName());
-    }
-
-    private static boolean eq(String a, String b) {
-        return Objects.toString(a, "").equals(Objects.toString(b, ""));
-    }
-
-    /* ---------- helpers ---------- */
-
-    private static void ensureHeader() throws IOException {
-        if (!Files.exists(CSV_PATH) || Files.size(CSV_PATH) == 0) {
-            Files.createDirectories(CSV_PATH.getParent());
-            Files.writeString(CSV_PATH, HEADER + "\n", StandardCharsets.UTF_8);
-        }
-    }
-
-    private static String toCsv(String[] cols) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < cols.length; i++) {
-            if (i > 0) sb.append(',');
-            String s = cols[i] == null ? "" : cols[i];
-            s = s.replace("\"", "\"\""); // escape quotes
-            sb.append('"').append(s).append('"');
-        }
-        return sb.toString();
-    }
-
-    private static String[] parseCsvLine(String line) {
-        ArrayList<String> out = new ArrayList<>();
-        StringBuilder cur = new StringBuilder();
-        boolean inQ = false;
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
-            if (inQ) {
-                if (c == '"') {
-                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') { cur.append('"'); i++; }
-                    else inQ = false;
-                } else cur.append(c);
-            } else {
-                if (c == '"') inQ = true;
-                else if (c == ',') { out.add(cur.toString()); cur.setLength(0); }
-                else cur.append(c);
-            }
-        }
-        out.add(cur.toString());
-        return out.toArray(String[]::new);
-    }
-
-    private static boolean parseBool(String s) {
-        if (s == null) return false;
-        String t = s.trim().toLowerCase();
-        return t.equals("true") || t.equals("yes") || t.equals("y") || t.equals("1");
-    }
-
-    static String toYesNo(String s) {
-        return parseBool(s) ? "Yes" : "No";
-    }
+package cs151.application;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Facade for student persistence: validates rows, keeps names unique, tells
+ * listeners about every change, and hands the storage itself to the configured
+ * {@link StudentStore} (-Dapp.store=csv, the default, or btree).
+ */
+public final class StudentStorage {
+
+    private static final StudentStore STORE = openStore();
+
+    static final String HEADER =
+            "FullName,AcademicStatus,Employed,JobDetails,ProgrammingLanguages,Databases,PreferredRole,Faculty Comment,Whitelisted,Blacklisted";
+
+    private static final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private StudentStorage() {}
+
+    private static StudentStore openStore() {
+        String kind = System.getProperty("app.store", "csv");
+        if (!kind.equalsIgnoreCase("btree")) return new CsvStudentStore(AppFiles.STUDENTS_CSV, AppFiles.STUDENTS_INDEX);
+        try {
+            BTreeStudentStore db = new BTreeStudentStore(AppFiles.STUDENTS_DB,
+                    Integer.getInteger("app.store.cachePages", 512));
+            // first run on the page store: bring the CSV data over once
+            if (db.isEmpty() && Files.exists(AppFiles.STUDENTS_CSV)) {
+                Set<String> seen = new HashSet<>();
+                List<String[]> rows = new ArrayList<>();
+                new CsvStudentStore(AppFiles.STUDENTS_CSV, AppFiles.STUDENTS_INDEX).scan(r -> {
+                    if (r.length > 0 && !r[0].isBlank() && seen.add(norm(r[0]))) rows.add(r);
+                }, null);
+                db.appendAll(rows);
+            }
+            return db;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open " + AppFiles.STUDENTS_DB, e);
+        }
+    }
+
+    /** True when rows live in Students.csv (false for the page store). */
+    static boolean isCsv() {
+        return STORE instanceof CsvStudentStore;
+    }
+
+    /**
+     * Told, on the writing thread and after the write, about each row this class
+     * stores: before is null for an insert, after is null for a delete.
+     */
+    public interface ChangeListener {
+        void rowChanged(String[] before, String[] after);
+
+        /**
+         * A row changed by someone else, noticed in the data file (see
+         * DataFileWatcher). Caches treat it like any change; the audit feed
+         * marks it so it is not journaled a second time.
+         */
+        default void externalRowChanged(String[] before, String[] after) {
+            rowChanged(before, after);
+        }
+
+        /** The whole file was rewritten (bulk write, compact); rebuild anything derived from it. */
+        default void reloaded() {}
+
+        /**
+         * A faculty comment was appended to the comment log. The rows are the
+         * student as {@link CommentStore#withLogged} shows it before and after;
+         * the stored row itself did not change.
+         */
+        default void commentAdded(String[] before, String[] after) {}
+    }
+
+    public static void addChangeListener(ChangeListener l) {
+        listeners.add(l);
+    }
+
+    public static void removeChangeListener(ChangeListener l) {
+        listeners.remove(l);
+    }
+
+    private static void fireChanged(String[] before, String[] after) {
+        for (ChangeListener l : listeners) l.rowChanged(before, after);
+    }
+
+    /** Rows changed by someone else (see DataFileWatcher); refreshes what our own writes would, marked external. */
+    static void externalChange(String[] before, String[] after) {
+        for (ChangeListener l : listeners) l.externalRowChanged(before, after);
+    }
+
+    private static void fireReloaded() {
+        for (ChangeListener l : listeners) l.reloaded();
+    }
+
+    /** Called by CommentStore after it appended {@code c} for each of the named students. */
+    static void commentsAdded(CommentStore comments, List<String> names, CommentStore.Comment c) throws IOException {
+        if (listeners.isEmpty()) return;
+        String line = c.toString();
+        for (String name : names) {
+            String[] row = STORE.get(name);
+            if (row == null) continue; // comment for a profile that is gone
+            String[] after = comments.withLogged(toStudent(row).toRow());
+            String[] before = after.clone();
+            String cell = after[Student.FACULTY_COMMENT];
+            before[Student.FACULTY_COMMENT] = cell.substring(0, Math.max(0, cell.length() - line.length() - 1));
+            for (ChangeListener l : listeners) l.commentAdded(before, after);
+        }
+    }
+
+    static String norm(String s) {
+        return s == null ? "" : s.trim().replaceAll("\\s+", " ").toLowerCase();
+    }
+
+    /** True if a row with the same full name already exists. */
+    public static boolean existsByName(String fullName) throws IOException {
+        try (Metrics.Timing t = Metrics.time("storage.existsByName")) {
+            return STORE.exists(fullName);
+        }
+    }
+
+    /** The stored student with this full name (case and spacing ignored), or null. */
+    public static Student findByName(String fullName) throws IOException {
+        String[] r = STORE.get(fullName);
+        return r == null ? null : toStudent(r);
+    }
+
+    /** Append one row (creates file + header if missing). Returns the stored student. */
+    public static Student appendRow(String[] row) throws IOException {
+        if (row == null || row.length == 0)
+            throw new IllegalArgumentException("Empty row");
+        if (row[0] == null || row[0].isBlank())
+            throw new IllegalArgumentException("Full Name is required");
+
+        // Duplicate
+        if (existsByName(row[0])) {
+            throw new IllegalStateException("Duplicate student full name: " + row[0]);
+        }
+        FlightEvents.StorageWrite ev = new FlightEvents.StorageWrite();
+        ev.begin();
+        try (Metrics.Timing t = Metrics.time("storage.appendRow")) {
+            STORE.append(row);
+        }
+        recordWrite(ev, "append", 1);
+        Metrics.counter("storage.rowsWritten").increment();
+        fireChanged(null, row);
+        EditHistory.get().record(null, row);
+        return toStudent(row);
+    }
+
+    /** Normalized names of every stored row, collected in one pass. */
+    static Set<String> existingNames() throws IOException {
+        Set<String> names = new HashSet<>();
+        forEachRow(r -> { if (r.length > 0) names.add(norm(r[0])); });
+        return names;
+    }
+
+    /**
+     * Append many rows with one sequential write. The caller has already
+     * validated them and checked names against {@link #existingNames()}.
+     */
+    static void appendRows(List<String[]> rows) throws IOException {
+        if (rows.isEmpty()) return;
+        FlightEvents.StorageWrite ev = new FlightEvents.StorageWrite();
+        ev.begin();
+        try (Metrics.Timing t = Metrics.time("storage.appendRows")) {
+            STORE.appendAll(rows);
+        }
+        recordWrite(ev, "appendAll", rows.size());
+        Metrics.counter("storage.rowsWritten").add(rows.size());
+        for (String[] r : rows) fireChanged(null, r);
+        EditHistory.get().record(Collections.nCopies(rows.size(), null), rows);
+    }
+
+    /** Overwrite file with given rows (keeps header). */
+    public static void writeAllRows(List<String[]> rows) throws IOException {
+        Set<String> seen = new HashSet<>();
+        for (String[] r : rows) {
+            if (r == null || r.length == 0) continue;
+            String key = norm(r[0]);
+            if (!seen.add(key)) {
+                throw new IllegalStateException("Duplicate student full name in batch: " + r[0]);
+            }
+        }
+        FlightEvents.StorageWrite ev = new FlightEvents.StorageWrite();
+        ev.begin();
+        try (Metrics.Timing t = Metrics.time("storage.writeAllRows")) {
+            STORE.replaceAll(rows);
+        }
+        recordWrite(ev, "writeAll", rows.size());
+        Metrics.counter("storage.rowsWritten").add(rows.size());
+        fireReloaded();
+    }
+
+    /**
+     * Drop rows with a blank name or a name already seen (first occurrence
+     * wins) and normalize the Yes/No columns. Returns the number of rows removed.
+     */
+    public static int compact() throws IOException {
+        FlightEvents.StorageWrite ev = new FlightEvents.StorageWrite();
+        ev.begin();
+        int dropped = STORE.compact();
+        recordWrite(ev, "compact", dropped);
+        fireReloaded();
+        return dropped;
+    }
+
+    /** Read all rows, skipping the header. */
+    public static List<String[]> readAllRows() throws IOException {
+        try (Metrics.Timing t = Metrics.time("storage.readAllRows")) {
+            List<String[]> rows = new ArrayList<>();
+            forEachRow(rows::add);
+            return rows;
+        }
+    }
+
+    /** Problems with the store itself (the CSV header, or the page file's structure); empty when it is sound. */
+    static List<String> check() throws IOException {
+        return STORE.check();
+    }
+
+    /** Receives rows one at a time from {@link #forEachRow}. */
+    @FunctionalInterface
+    public interface RowHandler {
+        void row(String[] cols) throws IOException;
+    }
+
+    /** Stream every row (header skipped) without building a list. */
+    public static void forEachRow(RowHandler handler) throws IOException {
+        forEachRow(handler, null);
+    }
+
+    /** Receives work done so far out of the total during a scan (bytes for CSV, rows for the page store). */
+    @FunctionalInterface
+    public interface ProgressHandler {
+        void progress(long done, long total);
+    }
+
+    /** Like {@link #forEachRow(RowHandler)}, reporting progress every few thousand rows. */
+    public static void forEachRow(RowHandler handler, ProgressHandler progress) throws IOException {
+        long[] n = {0};
+        FlightEvents.StorageRead ev = new FlightEvents.StorageRead();
+        ev.begin();
+        try (Metrics.Timing t = Metrics.time("storage.scan")) {
+            STORE.scan(r -> {
+                n[0]++;
+                handler.row(r);
+            }, progress);
+        } finally {
+            Metrics.counter("storage.rowsRead").add(n[0]);
+            ev.end();
+            if (ev.shouldCommit()) {
+                ev.store = storeName();
+                ev.rows = n[0];
+                ev.bytes = storeBytes();
+                ev.commit();
+            }
+        }
+    }
+
+    /** Build a Student from a stored row (Yes/No columns normalized). */
+    public static Student toStudent(String[] r) {
+        String[] c = Arrays.copyOf(r, Student.COLUMNS);
+        c[Student.WHITELISTED] = toYesNo(c[Student.WHITELISTED]);
+        c[Student.BLACKLISTED] = toYesNo(c[Student.BLACKLISTED]);
+        return Student.fromRow(c);
+    }
+
+    /** All complete rows as Students, from the current snapshot (file order). */
+    public static List<Student> readAllStudents() throws IOException {
+        return new ArrayList<>(StudentSnapshots.current().students());
+    }
+
+    /**
+     * Delete the row stored under the student's full name (case and spacing
+     * ignored, the same match existsByName uses).
+     * Returns the removed student, or null if no row matched.
+     */
+    public static Student deleteStudent(Student s) throws IOException {
+        String[] removed;
+        FlightEvents.StorageWrite ev = new FlightEvents.StorageWrite();
+        ev.begin();
+        try (Metrics.Timing t = Metrics.time("storage.deleteStudent")) {
+            removed = STORE.delete(s.getFullName());
+        }
+        recordWrite(ev, "delete", removed == null ? 0 : 1);
+        if (removed == null) return null;
+        fireChanged(removed, null);
+        EditHistory.get().record(removed, null);
+        CommentStore.get().delete(removed[0]);
+        return toStudent(removed);
+    }
+
+    /**
+     * Update an existing student row matched by Full Name (case and spacing
+     * ignored). Renaming onto another stored student's name is rejected, as
+     * adding a duplicate is. Returns the stored student.
+     */
+    public static Student updateStudent(String originalFullName, Student s) throws IOException {
+        String[] updated = s.toRow();
+        updated[Student.WHITELISTED] = toYesNo(updated[Student.WHITELISTED]);
+        updated[Student.BLACKLISTED] = toYesNo(updated[Student.BLACKLISTED]);
+        if (!norm(originalFullName).equals(norm(updated[0])) && existsByName(updated[0])) {
+            throw new IllegalStateException("Duplicate student full name: " + updated[0]);
+        }
+
+        String[] before;
+        FlightEvents.StorageWrite ev = new FlightEvents.StorageWrite();
+        ev.begin();
+        try (Metrics.Timing t = Metrics.time("storage.updateStudent")) {
+            before = STORE.update(originalFullName, updated);
+        }
+        recordWrite(ev, "update", before == null ? 0 : 1);
+        if (before == null) {
+            throw new IllegalStateException("Student not found to update: " + originalFullName);
+        }
+        fireChanged(before, updated);
+        EditHistory.get().record(before, updated);
+        CommentStore.get().rename(originalFullName, updated[0]); // no-op unless the name changed
+        return toStudent(updated);
+    }
+
+    /**
+     * One edit (row is the new stored row), delete (row is null) or add
+     * (fullName is null) in an {@link #applyBatch} call.
+     */
+    public record Change(String fullName, String[] row) {
+
+        /** Store the student's values in place of the row stored under originalFullName. */
+        public static Change update(String originalFullName, Student s) {
+            String[] row = s.toRow();
+            row[Student.WHITELISTED] = toYesNo(row[Student.WHITELISTED]);
+            row[Student.BLACKLISTED] = toYesNo(row[Student.BLACKLISTED]);
+            return new Change(originalFullName, row);
+        }
+
+        public static Change delete(Student s) {
+            return new Change(s.getFullName(), null);
+        }
+
+        /** Store the row as a new student. */
+        public static Change insert(String[] row) {
+            return new Change(null, row);
+        }
+    }
+
+    /** What a batch stored: the students edited or added, as they are now, and the ones removed. */
+    public record BatchResult(List<Student> updated, List<Student> deleted) {}
+
+    /**
+     * Apply many edits, deletes and adds with one write (one file rewrite for
+     * the CSV store) instead of one per student. Everything is checked first:
+     * every student edited or deleted must exist and appear once, and edited or
+     * added rows need a name that is not taken and must not be both whitelisted
+     * and blacklisted. If any check fails, nothing is written and the
+     * IllegalStateException lists every problem.
+     */
+    public static BatchResult applyBatch(List<Change> changes) throws IOException {
+        List<String> problems = new ArrayList<>();
+        Set<String> targets = new HashSet<>(), newNames = new HashSet<>();
+        for (Change c : changes) {
+            String key = c.fullName() == null ? null : norm(c.fullName()); // null for an add
+            if (key == null) {
+                if (c.row() == null) problems.add("A change needs a student or a row");
+            } else if (!targets.add(key)) {
+                problems.add(c.fullName() + ": listed more than once");
+            } else if (!STORE.exists(c.fullName())) {
+                problems.add(c.fullName() + ": not found");
+            }
+            String[] row = c.row();
+            if (row == null) continue;
+            if (row.length < Student.COLUMNS || row[0] == null || row[0].isBlank()) {
+                problems.add((key == null ? "New student" : c.fullName()) + ": Full Name is required");
+                continue;
+            }
+            if (toYesNo(row[Student.WHITELISTED]).equals("Yes") && toYesNo(row[Student.BLACKLISTED]).equals("Yes")) {
+                problems.add(row[0] + ": Whitelist and Blacklist are mutually exclusive");
+            }
+            String newKey = norm(row[0]);
+            if (!newKey.equals(key) && (STORE.exists(row[0]) || !newNames.add(newKey))) {
+                problems.add(row[0] + ": duplicate student full name");
+            }
+        }
+        if (!problems.isEmpty()) throw new IllegalStateException(String.join("\n", problems));
+        if (changes.isEmpty()) return new BatchResult(List.of(), List.of());
+
+        List<String[]> before;
+        FlightEvents.StorageWrite ev = new FlightEvents.StorageWrite();
+        ev.begin();
+        try (Metrics.Timing t = Metrics.time("storage.applyBatch")) {
+            before = STORE.applyAll(changes);
+        }
+        recordWrite(ev, "batch", changes.size());
+        Metrics.counter("storage.rowsWritten").add(changes.size());
+
+        List<Student> updated = new ArrayList<>(), deleted = new ArrayList<>();
+        List<String[]> stored = new ArrayList<>(), after = new ArrayList<>();
+        for (int i = 0; i < changes.size(); i++) {
+            Change c = changes.get(i);
+            String[] old = before.get(i);
+            if (c.fullName() == null) {
+                fireChanged(null, c.row());
+                stored.add(null);
+                after.add(c.row());
+                updated.add(toStudent(c.row()));
+                continue;
+            }
+            if (old == null) continue; // removed by someone else since the checks
+            fireChanged(old, c.row());
+            stored.add(old);
+            after.add(c.row());
+            if (c.row() == null) {
+                CommentStore.get().delete(old[0]);
+                deleted.add(toStudent(old));
+            } else {
+                CommentStore.get().rename(old[0], c.row()[0]); // no-op unless the name changed
+                updated.add(toStudent(c.row()));
+            }
+        }
+        EditHistory.get().record(stored, after);
+        return new BatchResult(updated, deleted);
+    }
+
+    /* ---------- helpers ---------- */
+
+    /** Finish a write event; its details (file size needs a stat) are only gathered if a recording wants it. */
+    private static void recordWrite(FlightEvents.StorageWrite ev, String operation, long rows) {
+        ev.end();
+        if (!ev.shouldCommit()) return;
+        ev.operation = operation;
+        ev.store = storeName();
+        ev.rows = rows;
+        ev.bytes = storeBytes();
+        ev.commit();
+    }
+
+    private static String storeName() {
+        return isCsv() ? "csv" : "btree";
+    }
+
+    private static long storeBytes() {
+        try {
+            Path p = isCsv() ? AppFiles.STUDENTS_CSV : AppFiles.STUDENTS_DB;
+            return Files.exists(p) ? Files.size(p) : 0;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    static String toCsv(String[] cols) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < cols.length; i++) {
+            if (i > 0) sb.append(',');
+            String s = cols[i] == null ? "" : cols[i];
+            s = s.replace("\"", "\"\""); // escape quotes
+            sb.append('"').append(s).append('"');
+        }
+        return sb.toString();
+    }
+
+    private static boolean parseBool(String s) {
+        if (s == null) return false;
+        String t = s.trim().toLowerCase();
+        return t.equals("true") || t.equals("yes") || t.equals("y") || t.equals("1");
+    }
+
+    static String toYesNo(String s) {
+        return parseBool(s) ? "Yes" : "No";
+    }
 }
\ No newline at end of file
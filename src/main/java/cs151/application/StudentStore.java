@@ -0,0 +1,57 @@
+package cs151.application;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Where student rows live. {@link StudentStorage} is the facade the app calls;
+ * it validates rows, fires change events and delegates the actual storage to
+ * one of these, picked with -Dapp.store=csv (default) or -Dapp.store=btree.
+ *
+ * Rows are String[] in StudentStorage.HEADER column order and are keyed by the
+ * normalized full name (see StudentStorage.norm).
+ */
+interface StudentStore extends Closeable {
+
+    boolean exists(String fullName) throws IOException;
+
+    /** The stored row for the name, or null. */
+    String[] get(String fullName) throws IOException;
+
+    /** Add a row whose name is not stored yet (the facade has checked). */
+    void append(String[] row) throws IOException;
+
+    /** Add many new rows in one write. */
+    void appendAll(List<String[]> rows) throws IOException;
+
+    /** Replace the row stored under originalFullName; returns the old row, or null if there was none. */
+    String[] update(String originalFullName, String[] row) throws IOException;
+
+    /** Remove the row for the name; returns it, or null if there was none. */
+    String[] delete(String fullName) throws IOException;
+
+    /**
+     * Apply every change in one write: a change's row replaces the one stored
+     * under its name, a null row deletes it, and a change with no name adds its
+     * row (the facade has checked the name is free). Returns the rows replaced
+     * or removed, in change order (null where nothing was stored, and for adds).
+     */
+    List<String[]> applyAll(List<StudentStorage.Change> changes) throws IOException;
+
+    /** Visit every row; progress (may be null) gets work done out of the total. */
+    void scan(StudentStorage.RowHandler handler, StudentStorage.ProgressHandler progress) throws IOException;
+
+    /** Replace the whole contents. */
+    void replaceAll(List<String[]> rows) throws IOException;
+
+    /** Drop blank and duplicate rows and tidy the storage; returns rows removed. */
+    int compact() throws IOException;
+
+    /** Problems with the storage itself, beyond what its rows say (empty when it is sound). */
+    List<String> check() throws IOException;
+
+    /** Release any open files; the store is not used afterwards. */
+    @Override
+    default void close() throws IOException {}
+}
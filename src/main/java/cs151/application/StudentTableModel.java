@@ -0,0 +1,120 @@
+package cs151.application;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableView;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Backing list for the student tables.
+ * Storage mutations hand back the affected row; this applies it as a single
+ * set/remove/add on the list so the TableView keeps its selection and scroll
+ * position instead of being reloaded from the file.
+ */
+final class StudentTableModel {
+
+    private final TableView<Student> table;
+    private final ObservableList<Student> rows = FXCollections.observableArrayList();
+
+    StudentTableModel(TableView<Student> table) {
+        this.table = table;
+        DataFileWatcher.register(this);
+    }
+
+    /** The source list; tables may wrap it in a SortedList/FilteredList. */
+    ObservableList<Student> rows() {
+        return rows;
+    }
+
+    /** Replace everything (initial load only). */
+    void setAll(List<Student> students) {
+        try (Metrics.Timing t = Metrics.time("table.setAll")) {
+            rows.setAll(students);
+        }
+    }
+
+    /** Swap in the stored version of an edited row, keeping it selected. */
+    void replace(Student before, Student after) {
+        if (after == null) return;
+        int i = indexOf(before);
+        if (i < 0) {
+            rows.add(after);
+            return;
+        }
+        boolean wasSelected = table.getSelectionModel().getSelectedItems().contains(before);
+        rows.set(i, after);
+        if (wasSelected) table.getSelectionModel().select(after);
+    }
+
+    /** Redraw one row whose displayed data changed outside the Student (e.g. a new comment). */
+    void refresh(Student s) {
+        int i = indexOf(s);
+        if (i >= 0) rows.set(i, s);
+    }
+
+    void remove(Student s) {
+        int i = indexOf(s);
+        if (i >= 0) rows.remove(i);
+    }
+
+    void add(Student s) {
+        if (s != null) rows.add(s);
+    }
+
+    void addAll(List<Student> students) {
+        rows.addAll(students);
+    }
+
+    /**
+     * Apply many stored changes at once (edits made outside the app, bulk
+     * actions), matched by normalized full name: changed rows are swapped in
+     * place or added, removed rows are dropped.
+     */
+    void applyExternal(List<Student> changed, List<Student> removed) {
+        try (Metrics.Timing t = Metrics.time("table.applyExternal")) {
+            applyExternalRows(changed, removed);
+        }
+    }
+
+    /**
+     * One pass to index the rows by name, then each change is a map lookup and
+     * a set at its index; adds and removals are one list change each. Student
+     * has identity equality, so the sets below match exact instances.
+     */
+    private void applyExternalRows(List<Student> changed, List<Student> removed) {
+        Map<String, Integer> at = new HashMap<>();
+        for (int i = 0; i < rows.size(); i++) at.putIfAbsent(StudentStorage.norm(rows.get(i).getFullName()), i);
+        Set<Student> selected = new HashSet<>(table.getSelectionModel().getSelectedItems());
+        Set<Student> gone = new HashSet<>();
+        for (Student s : removed) {
+            Integer i = at.get(StudentStorage.norm(s.getFullName()));
+            if (i != null) gone.add(rows.get(i));
+        }
+        List<Student> added = new ArrayList<>();
+        for (Student s : changed) {
+            Integer i = at.get(StudentStorage.norm(s.getFullName()));
+            if (i == null) {
+                added.add(s);
+                continue;
+            }
+            Student before = rows.set(i, s);
+            if (selected.contains(before)) table.getSelectionModel().select(s);
+        }
+        rows.addAll(added);
+        if (!gone.isEmpty()) rows.removeAll(gone);
+    }
+
+    // identity match: the table hands us the exact instance it displays
+    private int indexOf(Student s) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i) == s) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,147 @@
+package cs151.application;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One cohort's data folder (a semester, say) and its cached students. The
+ * main workspace is the folder the app runs on (AppFiles.BASE_DIR); it is
+ * served from {@link StudentStorage} and the shared {@link StudentSnapshots}
+ * and is edited as usual. The others are opened beside it through
+ * {@link Workspaces} and are read-only: they are for browsing and cross-cohort
+ * search, and nothing is ever written to their folders (not even a
+ * Students.idx). To edit another cohort, run the app on its folder.
+ *
+ * A folder holding Students.db is scanned with a read-only page store,
+ * anything else from Students.csv. The cached students are reloaded when the
+ * data file's size or modified time changes, and dropped by Workspaces when
+ * memory runs short.
+ */
+public final class Workspace {
+
+    private static final int CACHE_PAGES = 64;
+
+    private final Path dir;
+    private final boolean main;
+    final AtomicInteger pins = new AtomicInteger(); // searches in progress; pinned workspaces are not evicted
+
+    private List<Student> students;    // null until loaded (and after eviction)
+    private volatile long bytes;       // rough heap size of students
+    private long loadedSize = -1;
+    private FileTime loadedModified;
+
+    Workspace(Path dir, boolean main) {
+        this.dir = dir;
+        this.main = main;
+    }
+
+    /** The folder name ("Fall2025"). */
+    public String name() {
+        Path n = dir.getFileName();
+        return n == null ? dir.toString() : n.toString();
+    }
+
+    public Path dir() {
+        return dir;
+    }
+
+    public boolean isMain() {
+        return main;
+    }
+
+    /** True while this workspace's students are held in memory (always for the main one). */
+    public synchronized boolean isLoaded() {
+        return main || students != null;
+    }
+
+    /** Estimated bytes held by the cached students (0 for the main workspace, which the snapshots own). */
+    long bytes() {
+        return bytes;
+    }
+
+    /** True if the folder holds student data this class can read. */
+    static boolean hasData(Path dir) {
+        return Files.exists(dir.resolve(AppFiles.STUDENTS_DB.getFileName()))
+                || Files.exists(dir.resolve(AppFiles.STUDENTS_CSV.getFileName()));
+    }
+
+    /** All students in stored order; loaded on first use and again after the data file changes. */
+    synchronized List<Student> students() throws IOException {
+        if (main) return StudentSnapshots.current().students();
+        Path file = dataFile();
+        long size = Files.exists(file) ? Files.size(file) : -1;
+        FileTime modified = size < 0 ? null : Files.getLastModifiedTime(file);
+        if (students != null && size == loadedSize && modified != null && modified.equals(loadedModified)) {
+            return students;
+        }
+
+        // same rules as StudentSnapshots: complete rows only, first row wins per name
+        List<Student> out = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        long[] estimate = {0};
+        try (StudentStore store = openStore()) {
+            store.scan(r -> {
+                if (r.length < Student.COLUMNS || !seen.add(StudentStorage.norm(r[0]))) return;
+                out.add(StudentStorage.toStudent(r));
+                estimate[0] += estimate(r);
+            }, null);
+        }
+        students = List.copyOf(out);
+        bytes = estimate[0];
+        loadedSize = size;
+        loadedModified = modified;
+        return students;
+    }
+
+    /**
+     * The student stored under the name (case and spacing ignored), or null;
+     * looked up in the cached students, since another cohort's name index
+     * would have to be rebuilt (written) to be trusted.
+     */
+    synchronized Student find(String fullName) throws IOException {
+        if (main) return StudentSnapshots.current().get(fullName);
+        String key = StudentStorage.norm(fullName);
+        for (Student s : students()) {
+            if (StudentStorage.norm(s.getFullName()).equals(key)) return s;
+        }
+        return null;
+    }
+
+    /** Drop the cached students; the next use reloads them. */
+    synchronized void evict() {
+        if (main) return;
+        students = null;
+        bytes = 0;
+        loadedSize = -1;
+        loadedModified = null;
+    }
+
+    /* ---------- store ---------- */
+
+    private Path dataFile() {
+        Path db = dir.resolve(AppFiles.STUDENTS_DB.getFileName());
+        return Files.exists(db) ? db : dir.resolve(AppFiles.STUDENTS_CSV.getFileName());
+    }
+
+    /** Opened for one scan; only scan is used, so the CSV store's index file is never built. */
+    private StudentStore openStore() throws IOException {
+        Path db = dir.resolve(AppFiles.STUDENTS_DB.getFileName());
+        return Files.exists(db) ? new BTreeStudentStore(db, CACHE_PAGES, true)
+                : new CsvStudentStore(dir.resolve(AppFiles.STUDENTS_CSV.getFileName()),
+                                      dir.resolve(AppFiles.STUDENTS_INDEX.getFileName()));
+    }
+
+    /** Object headers, the String objects and their Latin-1 bytes; close enough to budget by. */
+    private static long estimate(String[] row) {
+        long b = 16 + 16 + 16 + 8L * row.length; // Student, its array, the lazily parsed skill sets
+        for (String s : row) b += 40 + (s == null ? 0 : s.length());
+        return b;
+    }
+}
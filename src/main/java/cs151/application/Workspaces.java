@@ -0,0 +1,177 @@
+package cs151.application;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The cohort folders open at the same time: the main one the app runs on plus
+ * any others opened with {@link #open(Path)} or listed in -Dapp.workspaces
+ * (folders separated by the platform path separator, ':' or ';'). The extra
+ * ones are read-only; see {@link Workspace}.
+ *
+ * Students of the extra workspaces are cached in memory while they are in use.
+ * Their total is kept under -Dapp.workspaces.maxMb (default 256) by dropping
+ * the least recently used caches first. A workspace that a search is reading
+ * is never dropped; the next use of a dropped one reloads it from disk.
+ * Skill names are resolved through the one shared {@link SkillCatalog}, so a
+ * filter built once matches in every workspace.
+ */
+public final class Workspaces {
+
+    /** One matching student and the workspace it came from. */
+    public record Hit(Workspace workspace, Student student) {}
+
+    private static final Workspaces INSTANCE = new Workspaces();
+
+    private final long budgetBytes = Long.getLong("app.workspaces.maxMb", 256) * 1024 * 1024;
+    private final Workspace main = new Workspace(AppFiles.BASE_DIR, true);
+    private final Map<Path, Workspace> open = new LinkedHashMap<>(16, 0.75f, true); // LRU order; guarded by this
+    private final ExecutorService searchPool = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+                Thread t = new Thread(r, "workspace-search");
+                t.setDaemon(true);
+                return t;
+            });
+
+    private Workspaces() {
+        for (String d : System.getProperty("app.workspaces", "").split(File.pathSeparator)) {
+            if (d.isBlank()) continue;
+            try {
+                open(Paths.get(d.trim()));
+            } catch (IOException e) {
+                e.printStackTrace(); // the other workspaces are still usable
+            }
+        }
+        Metrics.gauge("workspaces.open", () -> list().size());
+        Metrics.gauge("workspaces.cachedBytes", this::cachedBytes);
+    }
+
+    public static Workspaces get() {
+        return INSTANCE;
+    }
+
+    public Workspace main() {
+        return main;
+    }
+
+    /** Open (or return the already open) workspace for a folder holding Students.csv or Students.db. */
+    public synchronized Workspace open(Path dir) throws IOException {
+        Path d = dir.toAbsolutePath().normalize();
+        if (d.equals(main.dir())) return main;
+        Workspace w = open.get(d);
+        if (w != null) return w;
+        if (!Files.isDirectory(d)) throw new NoSuchFileException(d.toString());
+        if (!Workspace.hasData(d)) throw new NoSuchFileException(d.resolve(AppFiles.STUDENTS_CSV.getFileName()).toString());
+        w = new Workspace(d, false);
+        open.put(d, w);
+        return w;
+    }
+
+    /** Forget a workspace and free its cache (the main one stays open). */
+    public synchronized void close(Workspace w) {
+        if (w.isMain() || open.remove(w.dir()) == null) return;
+        w.evict();
+    }
+
+    /** The main workspace first, then the others by name. */
+    public synchronized List<Workspace> list() {
+        List<Workspace> out = new ArrayList<>(open.values());
+        out.sort(Comparator.comparing(Workspace::name, String.CASE_INSENSITIVE_ORDER));
+        out.add(0, main);
+        return out;
+    }
+
+    /** The workspace's students, loading them if needed (which may drop other caches). */
+    public List<Student> students(Workspace w) throws IOException {
+        w.pins.incrementAndGet();
+        try {
+            touch(w);
+            return w.students();
+        } finally {
+            w.pins.decrementAndGet();
+            trim();
+        }
+    }
+
+    /**
+     * Students matching the filter in each of the given workspaces, searched in
+     * parallel. Hits keep workspace order, then stored order within each.
+     */
+    public List<Hit> search(StudentFilter filter, Collection<Workspace> in) throws IOException {
+        List<Future<List<Hit>>> parts = new ArrayList<>();
+        for (Workspace w : in) {
+            parts.add(searchPool.submit(() -> {
+                w.pins.incrementAndGet();
+                try {
+                    touch(w);
+                    List<Hit> hits = new ArrayList<>();
+                    for (Student s : w.students()) if (filter.matches(s)) hits.add(new Hit(w, s));
+                    return hits;
+                } finally {
+                    w.pins.decrementAndGet();
+                    trim();
+                }
+            }));
+        }
+        List<Hit> out = new ArrayList<>();
+        try {
+            for (Future<List<Hit>> f : parts) out.addAll(f.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Search interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) throw io;
+            if (cause instanceof UncheckedIOException io) throw io.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            throw new IOException(cause);
+        } finally {
+            for (Future<List<Hit>> f : parts) f.cancel(true);
+        }
+        return out;
+    }
+
+    /** Estimated bytes held by the extra workspaces' caches. */
+    public synchronized long cachedBytes() {
+        long b = 0;
+        for (Workspace w : open.values()) b += w.bytes();
+        return b;
+    }
+
+    /* ---------- LRU ---------- */
+
+    private synchronized void touch(Workspace w) {
+        open.get(w.dir()); // access order: now the most recently used
+    }
+
+    /**
+     * Drop the least recently used idle caches until the total fits the budget.
+     * The most recently used one is kept even if it alone is over budget.
+     */
+    private synchronized void trim() {
+        long total = cachedBytes();
+        for (Iterator<Workspace> it = open.values().iterator(); it.hasNext() && total > budgetBytes; ) {
+            Workspace w = it.next();
+            if (!it.hasNext()) break; // the most recently used
+            if (w.pins.get() > 0 || w.bytes() == 0) continue;
+            total -= w.bytes();
+            w.evict();
+        }
+    }
+}
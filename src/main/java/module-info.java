@@ -1,9 +1,11 @@
-module cs151.application {
-    requires javafx.controls;
-    requires javafx.fxml;
-
-    requires com.dlsc.formsfx;
-
-    opens cs151.application to javafx.fxml;
-    exports cs151.application;
+module cs151.application {
+    requires javafx.controls;
+    requires javafx.fxml;
+
+    requires com.dlsc.formsfx;
+    requires jdk.jfr;
+    requires jdk.httpserver;
+
+    opens cs151.application to javafx.fxml;
+    exports cs151.application;
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+@echo off
+rem Starts CSSMS with the AppCDS archive built by "mvn -Pappcds package".
+rem Run from the project folder: target\cssms.cmd
+rem CSSMS_CDS=off skips the application archive (for comparisons); JAVA_OPTS adds JVM options.
+setlocal
+set APP_HOME=%~dp0
+if "%APP_HOME:~-1%"=="\" set APP_HOME=%APP_HOME:~0,-1%
+set JAVA=java
+if defined JAVA_HOME set JAVA=%JAVA_HOME%\bin\java
+
+set CDS_OPTS=-XX:SharedArchiveFile="%APP_HOME%\app.jsa" -XX:+AutoCreateSharedArchive
+if "%CSSMS_CDS%"=="off" set CDS_OPTS=
+
+"%JAVA%" %CDS_OPTS% %JAVA_OPTS% --module-path "%APP_HOME%\lib;%APP_HOME%\${project.build.finalName}.jar" --module cs151.application/cs151.application.Main %*
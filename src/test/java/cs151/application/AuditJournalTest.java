@@ -0,0 +1,156 @@
+package cs151.application;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private static String[] row(String name, String role) {
+        return new String[]{name, "Senior", "No", "", "Java", "", role, "", "No", "No"};
+    }
+
+    private static List<StudentEvent> events(long firstSeq, int n) {
+        List<StudentEvent> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            long seq = firstSeq + i;
+            out.add(new StudentEvent(seq, StudentEvent.Type.UPDATE, Instant.ofEpochMilli(1_700_000_000_000L + seq),
+                    row("Student " + seq, "Backend"), row("Student " + seq, "Frontend")));
+        }
+        return out;
+    }
+
+    private static List<StudentEvent> replay(Path file, long from) throws IOException {
+        List<StudentEvent> out = new ArrayList<>();
+        AuditJournal.replay(file, from, out::add);
+        return out;
+    }
+
+    @Test
+    void eventsRoundTrip() throws IOException {
+        Path file = dir.resolve("audit.jsonl");
+        AuditJournal.append(file, events(1, 3));
+        StudentEvent insert = new StudentEvent(4, StudentEvent.Type.INSERT, Instant.now(), null, row("New\nLine", "Data"));
+        AuditJournal.append(file, List.of(insert));
+
+        List<StudentEvent> back = replay(file, 1);
+        assertEquals(4, back.size());
+        assertEquals(StudentEvent.Type.UPDATE, back.get(0).type());
+        assertArrayEquals(row("Student 1", "Frontend"), back.get(0).after());
+        assertNull(back.get(3).before());
+        assertEquals("New\nLine", back.get(3).fullName());
+        assertEquals(insert.time(), back.get(3).time());
+        assertEquals(2, replay(file, 3).size());
+        assertEquals(4, AuditJournal.lastSeq(file));
+    }
+
+    @Test
+    void tornTailIsCutAndNumberingContinues() throws IOException {
+        Path file = dir.resolve("audit.jsonl");
+        AuditJournal.append(file, events(1, 5));
+        long good = Files.size(file);
+        Files.writeString(file, "{\"seq\":6,\"type\":\"upd", StandardOpenOption.APPEND); // the process died here
+
+        assertEquals(5, AuditJournal.lastSeq(file)); // the torn line is stepped over
+        AuditJournal.repairTail(file);
+        assertEquals(good, Files.size(file));
+        AuditJournal.append(file, events(6, 1));
+        assertEquals(6, replay(file, 0).size());
+        assertEquals(6, AuditJournal.lastSeq(file));
+    }
+
+    @Test
+    void damagedLinesAreSkipped() throws IOException {
+        Path file = dir.resolve("audit.jsonl");
+        AuditJournal.append(file, events(1, 2));
+        Files.writeString(file, "not json at all\n\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        AuditJournal.append(file, events(3, 1));
+        Files.writeString(file, "{\"seq\":\"x\"}\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        List<StudentEvent> back = replay(file, 0);
+        assertEquals(List.of(1L, 2L, 3L), back.stream().map(StudentEvent::seq).toList());
+        assertEquals(3, AuditJournal.lastSeq(file));
+    }
+
+    @Test
+    void lastSeqReadsPastOneWindow() throws IOException {
+        Path file = dir.resolve("audit.jsonl");
+        StudentEvent big = new StudentEvent(1, StudentEvent.Type.INSERT, Instant.now(), null, row("x".repeat(20_000), ""));
+        AuditJournal.append(file, List.of(big));
+        assertEquals(1, AuditJournal.lastSeq(file));
+        assertEquals(0, AuditJournal.lastSeq(dir.resolve("missing.jsonl")));
+        assertTrue(replay(dir.resolve("missing.jsonl"), 0).isEmpty());
+    }
+
+    @Test
+    void appendsAreNumberedAfterTheFileNotTheCaller() throws IOException {
+        Path file = dir.resolve("audit.jsonl");
+        AuditJournal.append(file, events(1, 2));
+        AuditJournal.append(file, events(1, 2)); // another process, counting from 1 on its own
+        assertEquals(List.of(1L, 2L, 3L, 4L), replay(file, 0).stream().map(StudentEvent::seq).toList());
+    }
+
+    @Test
+    void readersLeaveAnAppendInProgressAlone() throws IOException {
+        Path file = dir.resolve("audit.jsonl");
+        AuditJournal.append(file, events(1, 2));
+        Files.writeString(file, "{\"seq\":3,\"type\":\"upd", StandardOpenOption.APPEND); // still being written
+        long size = Files.size(file);
+
+        assertEquals(2, AuditJournal.lastSeq(file));
+        assertEquals(2, replay(file, 0).size());
+        assertEquals(size, Files.size(file));
+    }
+
+    /** The app (this JVM, watching the folder) and a Cli import in another process write one data folder. */
+    @Test
+    void twoWritersJournalEachChangeOnce() throws Exception {
+        StudentStorage.writeAllRows(List.of());
+        Files.deleteIfExists(AuditJournal.FILE);
+        DataFileWatcher.start();
+        AuditJournal.start();
+        try {
+            StudentStorage.appendRow(row("Ann Local", "Backend"));
+
+            Path in = dir.resolve("in.csv");
+            Files.writeString(in, StudentStorage.HEADER + "\n" + StudentStorage.toCsv(row("Bo Remote", "Frontend")) + "\n");
+            Path log = dir.resolve("import.out");
+            Process cli = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-Dapp.baseDir=" + AppFiles.BASE_DIR.toAbsolutePath(), "-cp", System.getProperty("java.class.path"),
+                    "cs151.application.Cli", "import", in.toString())
+                    .redirectErrorStream(true).redirectOutput(log.toFile()).start();
+            assertTrue(cli.waitFor(60, TimeUnit.SECONDS));
+            assertEquals(0, cli.exitValue(), Files.readString(log));
+
+            // the watcher applies the import here as an external change
+            for (int i = 0; i < 100 && StudentSnapshots.current().get("Bo Remote") == null; i++) Thread.sleep(100);
+            assertNotNull(StudentSnapshots.current().get("Bo Remote"));
+            StudentStorage.appendRow(row("Cy Local", "Data"));
+        } finally {
+            AuditJournal.stop();
+        }
+
+        List<StudentEvent> journaled = replay(AuditJournal.FILE, 0);
+        assertEquals(List.of(1L, 2L, 3L), journaled.stream().map(StudentEvent::seq).toList());
+        assertEquals(List.of("Ann Local", "Bo Remote", "Cy Local"),
+                journaled.stream().map(StudentEvent::fullName).sorted().toList());
+    }
+}
@@ -0,0 +1,167 @@
+package cs151.application;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BTreeStudentStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private static String[] row(String name, String comment) {
+        return new String[]{name, "Senior", "No", "", "Java", "MySQL", "Backend Developer", comment, "No", "No"};
+    }
+
+    private static List<String[]> rows(String prefix, int n) {
+        List<String[]> out = new ArrayList<>();
+        // every 40th row is long enough to need overflow pages
+        for (int i = 0; i < n; i++) out.add(row(prefix + " " + i, i % 40 == 0 ? "x".repeat(9000) : "comment " + i));
+        return out;
+    }
+
+    private static List<String[]> scan(BTreeStudentStore s) throws IOException {
+        List<String[]> out = new ArrayList<>();
+        s.scan(out::add, null);
+        return out;
+    }
+
+    @Test
+    void rowsSurviveReopen() throws IOException {
+        Path db = dir.resolve("Students.db");
+        List<String[]> written = rows("Student", 3000);
+        try (BTreeStudentStore s = new BTreeStudentStore(db, 16)) {
+            s.appendAll(written);
+            s.update("student 7", row("Seven Renamed", "moved"));
+            s.delete("Student 8");
+        }
+        try (BTreeStudentStore s = new BTreeStudentStore(db, 16)) {
+            assertEquals(2999, scan(s).size());
+            assertArrayEquals(written.get(40), s.get("STUDENT  40"));
+            assertEquals("moved", s.get("seven renamed")[Student.FACULTY_COMMENT]);
+            assertNull(s.get("Student 7"));
+            assertFalse(s.exists("Student 8"));
+        }
+    }
+
+    @Test
+    void scanIsInNameOrder() throws IOException {
+        try (BTreeStudentStore s = new BTreeStudentStore(dir.resolve("Students.db"), 8)) {
+            s.appendAll(List.of(row("Carol", ""), row("alice", ""), row("Bob", "")));
+            List<String> names = scan(s).stream().map(r -> r[0]).toList();
+            assertEquals(List.of("alice", "Bob", "Carol"), names);
+        }
+    }
+
+    @Test
+    void renamingAnOverflowRowReusesItsPages() throws IOException {
+        Path db = dir.resolve("Students.db");
+        try (BTreeStudentStore s = new BTreeStudentStore(db, 16)) {
+            s.appendAll(rows("Student", 500));
+            s.update("Student 0", row("Name A", "y".repeat(9000)));
+            long size = Files.size(db);
+            for (int i = 0; i < 50; i++) {
+                String from = i % 2 == 0 ? "Name A" : "Name B", to = i % 2 == 0 ? "Name B" : "Name A";
+                s.update(from, row(to, "y".repeat(9000)));
+            }
+            assertEquals(size, Files.size(db));
+        }
+    }
+
+    @Test
+    void namesLongerThanAKeyStayDistinct() throws IOException {
+        String a = "N".repeat(300), b = "N".repeat(300) + " B";
+        try (BTreeStudentStore s = new BTreeStudentStore(dir.resolve("Students.db"), 8)) {
+            s.appendAll(List.of(row(a, "first"), row(b, "second")));
+            assertEquals("first", s.get(a)[Student.FACULTY_COMMENT]);
+            assertEquals("second", s.get(b)[Student.FACULTY_COMMENT]);
+            assertEquals(2, scan(s).size());
+        }
+    }
+
+    @Test
+    void compactKeepsEveryRow() throws IOException {
+        Path db = dir.resolve("Students.db");
+        try (BTreeStudentStore s = new BTreeStudentStore(db, 16)) {
+            s.appendAll(rows("Student", 2000));
+            for (int i = 0; i < 2000; i += 2) s.delete("Student " + i);
+            long before = Files.size(db);
+            s.compact();
+            assertEquals(1000, scan(s).size());
+            assertTrue(Files.size(db) < before);
+            assertEquals("comment 1", s.get("Student 1")[Student.FACULTY_COMMENT]);
+        }
+    }
+
+    @Test
+    void interruptedWriteIsRolledBackOnOpen() throws IOException {
+        Path db = dir.resolve("Students.db");
+        BTreeStudentStore s = new BTreeStudentStore(db, 8); // small cache: the batch evicts pages mid-write
+        s.appendAll(rows("Student", 1000));
+        byte[] committed = Files.readAllBytes(db);
+
+        List<String[]> batch = rows("Added", 2000);
+        batch.add(null); // fails after most of the batch reached the file
+        assertThrows(NullPointerException.class, () -> s.appendAll(batch));
+        assertTrue(Files.exists(dir.resolve("Students.db-journal")));
+        assertFalse(Arrays.equals(committed, Files.readAllBytes(db)));
+        s.close(); // as if the process died here
+
+        try (BTreeStudentStore reopened = new BTreeStudentStore(db, 8)) {
+            assertArrayEquals(committed, Files.readAllBytes(db));
+            assertFalse(Files.exists(dir.resolve("Students.db-journal")));
+            assertEquals(1000, scan(reopened).size());
+            assertNull(reopened.get("Added 0"));
+        }
+    }
+
+    @Test
+    void tornJournalHeaderIsIgnored() throws IOException {
+        Path db = dir.resolve("Students.db");
+        try (BTreeStudentStore s = new BTreeStudentStore(db, 8)) {
+            s.appendAll(rows("Student", 100));
+        }
+        byte[] committed = Files.readAllBytes(db);
+        Files.write(dir.resolve("Students.db-journal"), new byte[]{0x53, 0x54}); // crash while starting the journal
+        try (BTreeStudentStore s = new BTreeStudentStore(db, 8)) {
+            assertArrayEquals(committed, Files.readAllBytes(db));
+            assertEquals(100, scan(s).size());
+        }
+        assertFalse(Files.exists(dir.resolve("Students.db-journal")));
+    }
+
+    @Test
+    void checkFindsABrokenLeafChain() throws IOException {
+        Path db = dir.resolve("Students.db");
+        try (BTreeStudentStore s = new BTreeStudentStore(db, 16)) {
+            s.appendAll(rows("Student", 3000));
+            for (int i = 1; i < 3000; i += 7) s.delete("Student " + i);
+            s.update("student 40", row("Forty Renamed", "short now"));
+            assertEquals(List.of(), s.check());
+        }
+        byte[] bytes = Files.readAllBytes(db);
+        int page = 1;
+        while (bytes[page * BTreeStudentStore.PAGE] != 1 || ByteBuffer.wrap(bytes, page * BTreeStudentStore.PAGE + 3, 4).getInt() == 0) page++;
+        ByteBuffer.wrap(bytes).putInt(page * BTreeStudentStore.PAGE + 3, 0); // a leaf that ends the chain early
+        Files.write(db, bytes);
+        try (BTreeStudentStore s = new BTreeStudentStore(db, 16, true)) {
+            List<String> problems = s.check();
+            assertEquals(1, problems.size(), problems.toString());
+            assertTrue(problems.get(0).startsWith("leaf page " + page + " links to page 0"), problems.get(0));
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package cs151.application;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackupsTest {
+
+    @TempDir
+    Path dir;
+
+    private Path data;
+    private Path students;
+    private Backups backups;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        data = Files.createDirectories(dir.resolve("data"));
+        students = data.resolve("Students.csv");
+        CohortGenerator.write(students, 3000, 151);
+        Files.writeString(data.resolve("ProgrammingLanguage.csv"), "Java\nPython\nC++\n");
+        backups = new Backups(data, data.resolve("backups")); // where Cli looks with app.baseDir=data
+    }
+
+    /** Insert one student halfway down Students.csv, as an edit would. */
+    private void insertStudent(String name) throws IOException {
+        List<String> lines = new ArrayList<>(Files.readAllLines(students, StandardCharsets.UTF_8));
+        lines.add(lines.size() / 2, "\"" + name + "\",\"Senior\",\"No\",\"\",\"Java\",\"\",\"Tester\",\"\",\"No\",\"No\"");
+        Files.write(students, lines, StandardCharsets.UTF_8);
+        // a new mtime even on file systems with coarse timestamps
+        Files.setLastModifiedTime(students, FileTime.fromMillis(Files.getLastModifiedTime(students).toMillis() + 2000));
+    }
+
+    private int chunkFiles() throws IOException {
+        try (Stream<Path> s = Files.walk(data.resolve("backups").resolve("chunks"))) {
+            return (int) s.filter(Files::isRegularFile).count();
+        }
+    }
+
+    @Test
+    void restoreGivesBackTheSameBytes() throws IOException {
+        Backups.Snapshot s = backups.create().snapshot();
+        Path into = dir.resolve("restored");
+        assertNull(backups.restore(s, into));
+        assertArrayEquals(Files.readAllBytes(students), Files.readAllBytes(into.resolve("Students.csv")));
+        assertArrayEquals(Files.readAllBytes(data.resolve("ProgrammingLanguage.csv")),
+                Files.readAllBytes(into.resolve("ProgrammingLanguage.csv")));
+    }
+
+    @Test
+    void unchangedFilesMakeNoNewSnapshot() throws IOException {
+        Backups.Created first = backups.create();
+        Backups.Created second = backups.create();
+        assertTrue(second.unchanged());
+        assertEquals(0, second.filesRead());
+        assertEquals(first.snapshot().id(), second.snapshot().id());
+        assertEquals(1, backups.list().size());
+    }
+
+    @Test
+    void oneEditStoresOnlyTheChunksAroundIt() throws IOException {
+        Backups.Created first = backups.create();
+        insertStudent("Zed Testcase");
+        Backups.Created second = backups.create();
+        assertFalse(second.unchanged());
+        assertEquals(1, second.filesRead());
+        assertTrue(first.newChunks() > 4, "cohort too small to chunk: " + first.newChunks());
+        assertTrue(second.newChunks() <= 2, "one insert stored " + second.newChunks() + " chunks");
+    }
+
+    @Test
+    void diffNamesTheAddedStudent() throws IOException {
+        Backups.Snapshot first = backups.create().snapshot();
+        insertStudent("Zed Testcase");
+
+        Backups.Diff current = backups.diff(first, null);
+        assertEquals(List.of("Zed Testcase"), current.students().added());
+        assertTrue(current.students().removed().isEmpty());
+        assertTrue(current.students().changed().isEmpty());
+
+        Backups.Snapshot second = backups.create().snapshot();
+        Backups.Diff stored = backups.diff(first, second);
+        assertEquals(current.students(), stored.students());
+        for (Backups.FileDiff f : stored.files()) {
+            assertEquals(f.name().equals("Students.csv") ? Backups.Change.CHANGED : Backups.Change.SAME, f.change(), f.name());
+        }
+    }
+
+    @Test
+    void pruneKeepsWhatTheNewestSnapshotsUse() throws IOException {
+        backups.create();
+        insertStudent("Zed One");
+        backups.create();
+        insertStudent("Zed Two");
+        Backups.Snapshot newest = backups.create().snapshot();
+        int before = chunkFiles();
+
+        Backups.Pruned pruned = backups.prune(1);
+        assertEquals(2, pruned.snapshots());
+        assertTrue(pruned.chunks() > 0);
+        assertEquals(before - pruned.chunks(), chunkFiles());
+        assertEquals(List.of(newest.id()), backups.list().stream().map(Backups.Snapshot::id).toList());
+
+        Path into = dir.resolve("restored");
+        backups.restore(backups.find("latest"), into);
+        assertArrayEquals(Files.readAllBytes(students), Files.readAllBytes(into.resolve("Students.csv")));
+    }
+
+    @Test
+    void damagedChunkFailsRestoreWithoutTouchingTheTarget() throws IOException {
+        Backups.Snapshot s = backups.create().snapshot();
+        Backups.Chunk c = s.file("Students.csv").chunks().get(3);
+        Path chunk = data.resolve("backups").resolve("chunks").resolve(c.hash().substring(0, 2)).resolve(c.hash().substring(2) + ".z");
+        Files.write(chunk, new byte[] {1, 2, 3});
+
+        Path into = Files.createDirectories(dir.resolve("restored"));
+        Files.writeString(into.resolve("Students.csv"), "left alone\n");
+        assertThrows(IOException.class, () -> backups.restore(s, into));
+        assertEquals("left alone\n", Files.readString(into.resolve("Students.csv")));
+        try (Stream<Path> left = Files.list(into)) {
+            assertEquals(1, left.count()); // no temp files left behind
+        }
+    }
+
+    @Test
+    void pruneInAnotherProcessWaitsForTheLock() throws Exception {
+        backups.create();
+        insertStudent("Zed One");
+        backups.create();
+
+        Process prune;
+        try (FileChannel ch = FileChannel.open(data.resolve("backups").resolve("lock"), StandardOpenOption.WRITE);
+             FileLock held = ch.lock()) { // as a backup in progress would
+            prune = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-Dapp.baseDir=" + data, "-cp", System.getProperty("java.class.path"),
+                    "cs151.application.Cli", "backup", "prune", "--keep", "1")
+                    .redirectErrorStream(true).redirectOutput(dir.resolve("prune.out").toFile()).start();
+            assertFalse(prune.waitFor(3, TimeUnit.SECONDS), "prune did not wait: " + Files.readString(dir.resolve("prune.out")));
+            assertEquals(2, backups.list().size());
+        }
+        assertTrue(prune.waitFor(60, TimeUnit.SECONDS));
+        assertEquals(0, prune.exitValue(), Files.readString(dir.resolve("prune.out")));
+        assertEquals(1, backups.list().size());
+    }
+}
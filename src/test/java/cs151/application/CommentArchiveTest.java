@@ -0,0 +1,103 @@
+package cs151.application;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CommentArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    private static List<CommentStore.Comment> comments(String prefix, int n) {
+        List<CommentStore.Comment> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) out.add(new CommentStore.Comment(Instant.ofEpochMilli(1_600_000_000_000L + i), prefix + " " + i));
+        return out;
+    }
+
+    @Test
+    void blocksRoundTripAcrossReopen() throws IOException {
+        Path file = dir.resolve("Comments.archive");
+        CommentArchive a = new CommentArchive(file);
+        Map<String, List<CommentStore.Comment>> run = new LinkedHashMap<>();
+        run.put("ann lee", comments("ann", 500));
+        run.put("bo kim", comments("bo", 3));
+        a.append(run);
+        a.append(Map.of("ann lee", comments("later", 2)));
+
+        CommentArchive again = new CommentArchive(file);
+        assertEquals(502, again.count("ann lee"));
+        List<CommentStore.Comment> ann = again.read("ann lee");
+        assertEquals("ann 0", ann.get(0).text());
+        assertEquals("later 1", ann.get(501).text());
+        assertEquals(comments("bo", 3), again.read("bo kim"));
+        assertEquals(0, again.count("nobody"));
+    }
+
+    @Test
+    void renameAndDeleteAreReplayed() throws IOException {
+        Path file = dir.resolve("Comments.archive");
+        CommentArchive a = new CommentArchive(file);
+        a.append(Map.of("ann lee", comments("ann", 2), "bo kim", comments("bo", 2)));
+        a.append(Map.of("ann park", comments("park", 1)));
+        a.rename("ann lee", "ann park");
+        a.delete("bo kim");
+
+        CommentArchive again = new CommentArchive(file);
+        assertEquals(0, again.count("ann lee"));
+        assertEquals(List.of("ann 0", "ann 1", "park 0"), again.read("ann park").stream().map(CommentStore.Comment::text).toList());
+        assertEquals(0, again.count("bo kim"));
+    }
+
+    @Test
+    void tornLastRecordIsIgnoredAndOverwritten() throws IOException {
+        Path file = dir.resolve("Comments.archive");
+        new CommentArchive(file).append(Map.of("ann lee", comments("ann", 10)));
+        long good = Files.size(file);
+        new CommentArchive(file).append(Map.of("bo kim", comments("bo", 50)));
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(good + 20); // the second block was cut off by a crash
+        }
+
+        CommentArchive a = new CommentArchive(file);
+        assertEquals(10, a.count("ann lee"));
+        assertEquals(0, a.count("bo kim"));
+        a.append(Map.of("bo kim", comments("bo", 2)));
+        CommentArchive again = new CommentArchive(file);
+        assertEquals(comments("bo", 2), again.read("bo kim"));
+        assertEquals(10, again.read("ann lee").size());
+    }
+
+    @Test
+    void runCountsOnlyOnceItsRecordIsWhole() throws IOException {
+        Path file = dir.resolve("Comments.archive");
+        CommentArchive.Run run = new CommentArchive.Run(Instant.ofEpochMilli(1_600_000_001_000L), Map.of("ann lee", List.of("2020-01-05: old")));
+        new CommentArchive(file).appendRun(Map.of("ann lee", comments("ann", 10)), run);
+        assertEquals(run, new CommentArchive(file).pending());
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(ch.size() - 3); // the crash hit before the run's last record was written
+        }
+
+        CommentArchive a = new CommentArchive(file);
+        assertEquals(0, a.count("ann lee"));
+        assertNull(a.pending());
+        a.appendRun(Map.of("ann lee", comments("ann", 2)), run);
+        a.finishRun();
+        CommentArchive again = new CommentArchive(file);
+        assertEquals(2, again.count("ann lee"));
+        assertNull(again.pending());
+    }
+}
@@ -0,0 +1,155 @@
+package cs151.application;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommentStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private static String[] row(String name, String comment) {
+        return new String[]{name, "Senior", "No", "", "Java", "", "Dev", comment, "No", "No"};
+    }
+
+    private static List<String> texts(List<CommentStore.Comment> comments) {
+        return comments.stream().map(CommentStore.Comment::text).toList();
+    }
+
+    @Test
+    void commentsSurviveReopenNewestFirst() throws IOException {
+        Path log = dir.resolve("Comments.log");
+        CommentStore s = new CommentStore(log);
+        s.add("Ann Lee", "first");
+        s.add("ann  lee", "second\twith\ttabs\nand a newline");
+        s.addAll(List.of("Ann Lee", "Bo Kim"), "to both");
+
+        CommentStore again = new CommentStore(log);
+        assertEquals(List.of("to both", "second\twith\ttabs\nand a newline", "first"), texts(again.page("ANN LEE", 0, 10)));
+        assertEquals(List.of("second\twith\ttabs\nand a newline"), texts(again.page("Ann Lee", 1, 1)));
+        assertEquals(1, again.count("Bo Kim"));
+        assertEquals("to both", again.latest("Bo Kim").text());
+    }
+
+    @Test
+    void renameAndDeleteAreReplayed() throws IOException {
+        Path log = dir.resolve("Comments.log");
+        CommentStore s = new CommentStore(log);
+        s.add("Ann Lee", "old name");
+        s.add("Ann Park", "already there");
+        s.rename("Ann Lee", "Ann Park");
+        s.add("Bo Kim", "gone soon");
+        s.delete("Bo Kim");
+
+        CommentStore again = new CommentStore(log);
+        assertEquals(0, again.count("Ann Lee"));
+        assertEquals(List.of("already there", "old name"), texts(again.page("Ann Park", 0, 10)));
+        assertEquals(0, again.count("Bo Kim"));
+        assertNull(again.latest("Bo Kim"));
+    }
+
+    @Test
+    void tornLastLineIsDropped() throws IOException {
+        Path log = dir.resolve("Comments.log");
+        new CommentStore(log).add("Ann Lee", "kept");
+        Files.writeString(log, "C\tann lee\t1700000000000\thalf wri", StandardOpenOption.APPEND); // crash mid-append
+
+        long size = Files.size(log);
+
+        CommentStore s = new CommentStore(log);
+        assertEquals(List.of("kept"), texts(s.page("Ann Lee", 0, 10)));
+        assertEquals(size, Files.size(log)); // a reader may be looking at an append in progress: left alone
+        s.add("Ann Lee", "after the crash");
+        assertEquals(List.of("after the crash", "kept"), texts(new CommentStore(log).page("Ann Lee", 0, 10)));
+    }
+
+    @Test
+    void withLoggedAppendsDatedLines() throws IOException {
+        CommentStore s = new CommentStore(dir.resolve("Comments.log"));
+        String[] row = {"Ann Lee", "Senior", "No", "", "Java", "", "Dev", "on the row", "No", "No"};
+        assertSame(row, s.withLogged(row));
+
+        CommentStore.Comment a = s.add("Ann Lee", "one"), b = s.add("Ann Lee", "two");
+        String[] merged = s.withLogged(row);
+        assertEquals("on the row\n" + a + "\n" + b, merged[Student.FACULTY_COMMENT]);
+        assertEquals("on the row", row[Student.FACULTY_COMMENT]);
+        row[Student.FACULTY_COMMENT] = "";
+        assertEquals(a + "\n" + b, s.withLogged(row)[Student.FACULTY_COMMENT]);
+    }
+
+    @Test
+    void archiveMovesADatedEntryWithTheLinesUnderIt() throws IOException {
+        StudentStorage.writeAllRows(List.<String[]>of(row("Ann Lee",
+                "no date here\n2020-01-05: old one\n  continued here\n2099-01-01: not yet\nits tail")));
+        CommentStore s = new CommentStore(dir.resolve("Comments.log"));
+
+        CommentStore.Archived moved = s.archiveOlderThan(Instant.now().minus(Duration.ofDays(30)));
+        assertEquals(new CommentStore.Archived(0, 1), moved);
+        assertEquals(List.of("old one\n  continued here"), texts(s.archived("Ann Lee")));
+        assertEquals("no date here\n2099-01-01: not yet\nits tail",
+                StudentStorage.findByName("Ann Lee").toRow()[Student.FACULTY_COMMENT]);
+    }
+
+    /** The archive was written, then the process died before Comments.log and the rows were rewritten. */
+    @Test
+    void rerunAfterACrashDoesNotArchiveTwice() throws IOException {
+        Instant cutoff = Instant.now().minus(Duration.ofDays(30));
+        Instant logged = Instant.parse("2020-02-01T10:00:00Z");
+        StudentStorage.writeAllRows(List.<String[]>of(row("Ann Lee", "2020-01-05: old one\nmore")));
+        Path log = dir.resolve("Comments.log");
+        Files.writeString(log, "C\tann lee\t" + logged.toEpochMilli() + "\tlogged old\n");
+        Instant day = LocalDate.parse("2020-01-05").atStartOfDay(ZoneId.systemDefault()).toInstant();
+        new CommentArchive(dir.resolve("Comments.archive")).appendRun(
+                Map.of("ann lee", List.of(new CommentStore.Comment(day, "old one\nmore"), new CommentStore.Comment(logged, "logged old"))),
+                new CommentArchive.Run(cutoff, Map.of("ann lee", List.of("2020-01-05: old one\nmore"))));
+
+        CommentStore s = new CommentStore(log);
+        assertEquals(new CommentStore.Archived(0, 0), s.archiveOlderThan(cutoff));
+        assertEquals(List.of("logged old", "old one\nmore"), texts(s.archived("Ann Lee")));
+        assertEquals(0, s.count("Ann Lee"));
+        assertEquals("", StudentStorage.findByName("Ann Lee").toRow()[Student.FACULTY_COMMENT]);
+        assertNull(new CommentArchive(dir.resolve("Comments.archive")).pending());
+
+        assertEquals(new CommentStore.Archived(0, 0), s.archiveOlderThan(cutoff));
+        assertEquals(2, s.archivedCount("Ann Lee"));
+    }
+
+    @Test
+    void archiveInAnotherProcessWaitsForTheLock() throws Exception {
+        StudentStorage.writeAllRows(List.<String[]>of(row("Ann Lee", "2020-01-05: old one")));
+        Process archive;
+        try (FileChannel ch = FileChannel.open(AppFiles.BASE_DIR.resolve("Comments.lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock held = ch.lock()) { // as an append in progress would
+            archive = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-Dapp.baseDir=" + AppFiles.BASE_DIR.toAbsolutePath(), "-cp", System.getProperty("java.class.path"),
+                    "cs151.application.Cli", "archive", "--older-than", "30")
+                    .redirectErrorStream(true).redirectOutput(dir.resolve("archive.out").toFile()).start();
+            assertFalse(archive.waitFor(3, TimeUnit.SECONDS), "archive did not wait: " + Files.readString(dir.resolve("archive.out")));
+            assertEquals("2020-01-05: old one", StudentStorage.findByName("Ann Lee").toRow()[Student.FACULTY_COMMENT]);
+        }
+        assertTrue(archive.waitFor(60, TimeUnit.SECONDS));
+        assertEquals(0, archive.exitValue(), Files.readString(dir.resolve("archive.out")));
+        assertEquals("", StudentStorage.findByName("Ann Lee").toRow()[Student.FACULTY_COMMENT]);
+    }
+}
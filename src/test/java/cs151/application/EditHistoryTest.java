@@ -0,0 +1,143 @@
+package cs151.application;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Runs against the data folder the build points app.baseDir at. */
+class EditHistoryTest {
+
+    private final EditHistory history = EditHistory.get();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        StudentStorage.writeAllRows(List.of());
+        List<String[]> rows = new ArrayList<>();
+        for (String[] r : new CohortGenerator(5).rows(0, 5)) {
+            r[Student.WHITELISTED] = "No";
+            r[Student.BLACKLISTED] = "No";
+            rows.add(r);
+        }
+        StudentStorage.writeAllRows(rows);
+        history.clear();
+    }
+
+    private static Path dataFile() {
+        return Files.exists(AppFiles.STUDENTS_DB) ? AppFiles.STUDENTS_DB : AppFiles.STUDENTS_CSV;
+    }
+
+    private static List<StudentStorage.Change> whitelistFirstTwo() throws IOException {
+        List<Student> all = StudentStorage.readAllStudents();
+        return List.of(
+                StudentStorage.Change.update(all.get(0).getFullName(), all.get(0).with(Student.WHITELISTED, "Yes")),
+                StudentStorage.Change.update(all.get(1).getFullName(), all.get(1).with(Student.WHITELISTED, "Yes")));
+    }
+
+    @Test
+    void batchUndoAndRedoRoundTrip() throws IOException {
+        List<String[]> start = StudentStorage.readAllRows();
+        StudentStorage.applyBatch(whitelistFirstTwo());
+        List<String[]> edited = StudentStorage.readAllRows();
+        assertTrue(history.canUndo());
+
+        EditHistory.Result undone = history.undo();
+        assertEquals(2, undone.changed().size());
+        assertRowsEqual(start, StudentStorage.readAllRows());
+        assertTrue(history.canRedo());
+
+        history.redo();
+        assertRowsEqual(edited, StudentStorage.readAllRows());
+        assertFalse(history.canRedo());
+    }
+
+    @Test
+    void undoOfADeleteAddsTheStudentBack() throws IOException {
+        List<String[]> start = StudentStorage.readAllRows();
+        Student gone = StudentStorage.readAllStudents().get(2);
+        StudentStorage.deleteStudent(gone);
+        assertNull(StudentStorage.findByName(gone.getFullName()));
+
+        history.undo();
+        assertArrayEquals(gone.toRow(), StudentStorage.findByName(gone.getFullName()).toRow());
+        assertEquals(start.size(), StudentStorage.readAllRows().size());
+    }
+
+    @Test
+    void undoOfABatchDeleteIsOneWrite() throws IOException {
+        List<Student> all = StudentStorage.readAllStudents();
+        StudentStorage.applyBatch(List.of(
+                StudentStorage.Change.delete(all.get(0)),
+                StudentStorage.Change.delete(all.get(3)),
+                StudentStorage.Change.update(all.get(1).getFullName(), all.get(1).with(Student.WHITELISTED, "Yes"))));
+        assertEquals(3, StudentStorage.readAllRows().size());
+        long batches = Metrics.histogram("storage.applyBatch").count();
+
+        EditHistory.Result undone = history.undo();
+        assertEquals(batches + 1, Metrics.histogram("storage.applyBatch").count());
+        assertEquals(3, undone.changed().size());
+        for (Student s : all) assertArrayEquals(s.toRow(), StudentStorage.findByName(s.getFullName()).toRow());
+        assertEquals(all.size(), StudentStorage.readAllRows().size());
+
+        history.redo();
+        assertNull(StudentStorage.findByName(all.get(0).getFullName()));
+        assertNull(StudentStorage.findByName(all.get(3).getFullName()));
+    }
+
+    @Test
+    void batchRejectsAnAddWithATakenName() throws IOException {
+        byte[] before = Files.readAllBytes(dataFile());
+        String[] copy = StudentStorage.readAllRows().get(0).clone();
+        String[] fresh = copy.clone();
+        fresh[0] = "Zed Testcase";
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> StudentStorage.applyBatch(List.of(
+                StudentStorage.Change.insert(fresh), StudentStorage.Change.insert(copy))));
+        assertTrue(e.getMessage().contains(copy[0] + ": duplicate student full name"), e.getMessage());
+        assertArrayEquals(before, Files.readAllBytes(dataFile()));
+    }
+
+    @Test
+    void handEditSinceBlocksUndoAndWritesNothing() throws IOException {
+        StudentStorage.applyBatch(whitelistFirstTwo());
+        List<String[]> rows = StudentStorage.readAllRows();
+        rows.get(1)[Student.WHITELISTED] = "No"; // edited by hand after the batch
+        StudentStorage.writeAllRows(rows);
+        byte[] before = Files.readAllBytes(dataFile());
+        String label = history.undoLabel();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, history::undo);
+        assertTrue(e.getMessage().contains(rows.get(1)[0] + ": changed since"), e.getMessage());
+        assertArrayEquals(before, Files.readAllBytes(dataFile()));
+        assertEquals(label, history.undoLabel());
+        assertFalse(history.canRedo());
+    }
+
+    @Test
+    void undoingAnAddIsBlockedOnceTheStudentIsEditedByHand() throws IOException {
+        String[] row = new CohortGenerator(6).rows(0, 1).get(0);
+        row[0] = "Zed Testcase";
+        StudentStorage.appendRow(row);
+        List<String[]> rows = StudentStorage.readAllRows();
+        for (String[] r : rows) if (r[0].equals("Zed Testcase")) r[Student.PREFERRED_ROLE] = "Tester";
+        StudentStorage.writeAllRows(rows);
+
+        assertThrows(IllegalStateException.class, history::undo);
+        assertEquals("Tester", StudentStorage.findByName("Zed Testcase").toRow()[Student.PREFERRED_ROLE]);
+    }
+
+    private static void assertRowsEqual(List<String[]> expected, List<String[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) assertArrayEquals(expected.get(i), actual.get(i));
+    }
+}
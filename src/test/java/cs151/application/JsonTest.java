@@ -0,0 +1,40 @@
+package cs151.application;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonTest {
+
+    @Test
+    void studentRoundTrip() {
+        String[] row = {"Zoë \"Z\" Li", "Junior", "Yes", "Intern\nat\tACME", "Java, C\\C++", "",
+                "Frontend Developer", "[2025-01-02] line one\r\nline two \u0001", "No", "Yes"};
+        String json = Json.student(row);
+        assertArrayEquals(row, Json.row((Map<?, ?>) Json.parse(json)));
+    }
+
+    @Test
+    void parsesEveryValueKind() {
+        Object v = Json.parse(" {\"a\": [1, -2.5e1, true, false, null], \"b\": \"\\u00e9\\n\", \"c\": {}} ");
+        Map<?, ?> m = (Map<?, ?>) v;
+        assertEquals(List.of(1L, -25.0, true, false), ((List<?>) m.get("a")).subList(0, 4));
+        assertNull(((List<?>) m.get("a")).get(4));
+        assertEquals("é\n", m.get("b"));
+        assertEquals(Map.of(), m.get("c"));
+    }
+
+    @Test
+    void rejectsDamagedText() {
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("{\"seq\":1,\"type\":\"ins"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("{\"a\":1} trailing"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("[1,,2]"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse(""));
+    }
+}
@@ -0,0 +1,82 @@
+package cs151.application;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PersistentMapTest {
+
+    /** Keys that all share one hash, to exercise the collision nodes. */
+    private record Colliding(int id) {
+        @Override
+        public int hashCode() {
+            return 151;
+        }
+    }
+
+    @Test
+    void matchesHashMapUnderRandomEdits() {
+        Random rnd = new Random(151);
+        PersistentMap<Object, Integer> map = PersistentMap.empty();
+        Map<Object, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            int n = rnd.nextInt(5_000);
+            Object key = n % 10 == 0 ? new Colliding(n) : "k" + n;
+            if (rnd.nextInt(4) == 0) {
+                map = map.remove(key);
+                expected.remove(key);
+            } else {
+                map = map.put(key, i);
+                expected.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Object, Integer> e : expected.entrySet()) assertEquals(e.getValue(), map.get(e.getKey()));
+
+        Map<Object, Integer> seen = new HashMap<>();
+        map.forEach(seen::put);
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void olderVersionsAreUnchanged() {
+        PersistentMap<String, Integer> v1 = PersistentMap.<String, Integer>empty().put("a", 1).put("b", 2);
+        PersistentMap<String, Integer> v2 = v1.put("a", 10).remove("b").put("c", 3);
+        assertEquals(1, v1.get("a"));
+        assertEquals(2, v1.get("b"));
+        assertNull(v1.get("c"));
+        assertEquals(2, v1.size());
+        assertEquals(10, v2.get("a"));
+        assertNull(v2.get("b"));
+        assertEquals(2, v2.size());
+    }
+
+    @Test
+    void noOpEditsReturnTheSameMap() {
+        PersistentMap<String, Integer> m = PersistentMap.<String, Integer>empty().put("a", 1);
+        assertSame(m, m.put("a", 1));
+        assertSame(m, m.remove("missing"));
+    }
+
+    @Test
+    void valuesWalksEveryEntryOnce() {
+        PersistentMap<Object, Integer> map = PersistentMap.empty();
+        for (int i = 0; i < 10_000; i++) map = map.put(i % 7 == 0 ? new Colliding(i) : Integer.valueOf(i), i);
+        List<Integer> walked = new ArrayList<>();
+        for (Iterator<Integer> it = map.values(); it.hasNext(); ) walked.add(it.next());
+        List<Integer> viaForEach = new ArrayList<>();
+        map.forEach((k, v) -> viaForEach.add(v));
+        assertEquals(viaForEach, walked);
+        assertEquals(10_000, walked.size());
+        assertEquals(false, PersistentMap.empty().values().hasNext());
+    }
+}
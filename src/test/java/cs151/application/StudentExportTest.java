@@ -0,0 +1,54 @@
+package cs151.application;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Runs against the data folder the build points app.baseDir at. */
+class StudentExportTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rowsComeOutInFileOrderWithProgressToTheEnd() throws IOException {
+        List<String[]> rows = new CohortGenerator(29).rows(0, 6000);
+        StudentStorage.writeAllRows(rows);
+        Path dest = dir.resolve("out.csv");
+        List<long[]> updates = new ArrayList<>();
+
+        long n = StudentExport.export(r -> true, dest, StudentExport.Format.CSV,
+                (done, total) -> updates.add(new long[]{done, total}), () -> false);
+
+        assertEquals(rows.size(), n);
+        StringBuilder expected = new StringBuilder(StudentStorage.HEADER).append('\n');
+        StudentStorage.forEachRow(r -> expected.append(StudentStorage.toCsv(r)).append('\n'));
+        assertEquals(expected.toString(), Files.readString(dest, StandardCharsets.UTF_8));
+        assertFalse(updates.isEmpty());
+        long[] last = updates.get(updates.size() - 1);
+        assertTrue(last[1] > 0);
+        assertEquals(last[1], last[0]);
+    }
+
+    @Test
+    void cancelRemovesThePartialFile() throws IOException {
+        StudentStorage.writeAllRows(new CohortGenerator(30).rows(0, 100));
+        Path dest = dir.resolve("out.jsonl");
+        int[] seen = {0};
+        assertThrows(CancellationException.class, () -> StudentExport.export(r -> true, dest,
+                StudentExport.Format.JSONL, (done, total) -> { }, () -> ++seen[0] > 10));
+        assertFalse(Files.exists(dest));
+    }
+}
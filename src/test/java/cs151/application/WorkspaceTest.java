@@ -0,0 +1,67 @@
+package cs151.application;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WorkspaceTest {
+
+    @TempDir
+    Path dir;
+
+    /** Every file in the folder with its size and modified time. */
+    private static Map<String, String> listing(Path folder) throws IOException {
+        Map<String, String> out = new TreeMap<>();
+        try (Stream<Path> s = Files.list(folder)) {
+            for (Path p : s.toList()) out.put(p.getFileName().toString(), Files.size(p) + "@" + Files.getLastModifiedTime(p));
+        }
+        return out;
+    }
+
+    @Test
+    void csvCohortIsReadWithoutWritingAnIndex() throws IOException {
+        CohortGenerator.write(dir.resolve("Students.csv"), 200, 7);
+        Map<String, String> before = listing(dir);
+        Workspace w = new Workspace(dir, false);
+
+        List<Student> students = w.students();
+        Student last = students.get(students.size() - 1);
+        assertEquals(last.getFullName(), w.find(" " + last.getFullName().toUpperCase() + " ").getFullName());
+        assertNull(w.find("Nobody Here"));
+        assertEquals(before, listing(dir));
+    }
+
+    @Test
+    void dbCohortIsOpenedReadOnly() throws IOException {
+        Set<String> names = new HashSet<>();
+        List<String[]> rows = new CohortGenerator(7).rows(0, 200).stream()
+                .filter(r -> names.add(StudentStorage.norm(r[0]))).toList();
+        try (BTreeStudentStore s = new BTreeStudentStore(dir.resolve("Students.db"), 16)) {
+            s.appendAll(rows);
+        }
+        Map<String, String> before = listing(dir);
+
+        Workspace w = new Workspace(dir, false);
+        Student first = w.students().get(0);
+        assertEquals(first.getFullName(), w.find(first.getFullName()).getFullName());
+        assertEquals(before, listing(dir));
+
+        Files.write(dir.resolve("Students.db-journal"), new byte[] {1, 2, 3}); // a write in progress elsewhere
+        w.evict();
+        assertThrows(IOException.class, w::students);
+        assertEquals(3, Files.size(dir.resolve("Students.db-journal")));
+    }
+}